@@ -0,0 +1,262 @@
+/**
+ * AllocationBudget.java - Checks bytes allocated per token by the lexers and parser
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * This class guards the hot paths of the lexers and parser against allocation regressions. Where
+ * <code>Benchmark</code> reports numbers for a person to read, this class compares them against a
+ * checked-in budget and exits with a nonzero status if any is exceeded, so that a change which,
+ * say, reintroduces a <code>String</code> per character or a stack trace per grammar rule is
+ * caught before it is merged rather than noticed months later in a profile.
+ * <br />
+ * <br />
+ * Inputs are generated by <code>SpecGenerator</code> from fixed seeds, so every run measures
+ * identical contents. Each path is run repeatedly to allow the JIT compiler to settle, after which
+ * the bytes allocated by the current thread over a number of further runs are divided by the
+ * number of tokens processed. The following paths are measured:
+ * <ul>
+ * <li><code>lex</code> - lexing via a <code>ByteLexer</code></li>
+ * <li><code>parse</code> - validating pre-lexed tokens and building the widget tree</li>
+ * <li><code>spec</code> - lexing and parsing end to end via a <code>SpecParser</code>, whose
+ *     pooled lexer and token list leave little beyond the tokens and tree to be allocated</li>
+ * <li><code>scanner</code> - lexing via the original <code>Scanner</code> lexer and parsing, end
+ *     to end, as the <code>Scanner</code> itself cannot be measured apart from its lexer</li>
+ * </ul>
+ * The budget is a properties file mapping each path to the most bytes per token it may allocate on
+ * any input, which should be raised only deliberately, alongside the change that warrants it.
+ * Usage is as follows, with the budget defaulting to that checked in beside this file:
+ * <pre>
+ * java AllocationBudget [--warmup runs] [--measure runs] [budget_file]
+ * </pre>
+ * <br />
+ * @see Benchmark
+ * @author Andrew Eissen
+ */
+final class AllocationBudget {
+
+    // Declarations
+    private static final String DEFAULT_BUDGET = "Java files/allocation-budget.properties";
+    private static final String[] PATHS = {"lex", "parse", "spec", "scanner"};
+    private static volatile Object sink;
+    private int warmupRuns, measurementRuns;
+    private com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * A single measured path, run against the contents of an input.
+     */
+    @FunctionalInterface
+    private interface MeasuredPath {
+        Object run(byte[] contents, ArrayList<Token> tokens) throws IOException;
+    }
+
+    /**
+     * Parameterized constructor
+     * @param warmupRuns <code>int</code> number of runs before measurement
+     * @param measurementRuns <code>int</code> number of runs measured
+     * @throws UnsupportedOperationException if the JVM cannot report allocated bytes
+     */
+    protected AllocationBudget(int warmupRuns, int measurementRuns) {
+
+        // Declaration
+        ThreadMXBean platformBean;
+
+        platformBean = ManagementFactory.getThreadMXBean();
+        if (!(platformBean instanceof com.sun.management.ThreadMXBean)) {
+            throw new UnsupportedOperationException("Thread allocation counting is unavailable");
+        }
+
+        this.threadBean = (com.sun.management.ThreadMXBean) platformBean;
+        this.threadBean.setThreadAllocatedMemoryEnabled(true);
+        this.warmupRuns = warmupRuns;
+        this.measurementRuns = measurementRuns;
+    }
+
+    // Checking methods
+
+    /**
+     * This method measures every path against every generated input, printing a line for each,
+     * and returns the number of measurements exceeding the budget of their path.
+     *
+     * @param budget <code>Properties</code> mapping path names to bytes per token
+     * @return <code>int</code> number of measurements over budget
+     * @throws IOException if an input cannot be generated or lexed
+     */
+    protected int check(Properties budget) throws IOException {
+
+        // Declarations
+        LinkedHashMap<String, byte[]> inputs;
+        ArrayList<Token> tokens;
+        double bytesPerToken, limit;
+        int overBudget;
+
+        inputs = generateInputs();
+        overBudget = 0;
+        System.out.printf("%-8s %-14s %10s %10s%n", "Path", "Input", "B/token", "Budget");
+
+        for (Map.Entry<String, byte[]> input : inputs.entrySet()) {
+            tokens = new ArrayList<>();
+            new ByteLexer(new ByteArrayInputStream(input.getValue())).lexInto(tokens);
+
+            for (String pathName : PATHS) {
+                bytesPerToken = this.measure(getPath(pathName), input.getValue(), tokens)
+                    / tokens.size();
+                limit = Double.parseDouble(budget.getProperty(pathName, "0"));
+
+                System.out.printf("%-8s %-14s %10.1f %10.1f %s%n", pathName, input.getKey(),
+                    bytesPerToken, limit, (bytesPerToken > limit) ? "OVER BUDGET" : "ok");
+                if (bytesPerToken > limit) {
+                    overBudget++;
+                }
+            }
+        }
+        return overBudget;
+    }
+
+    /**
+     * Warms up and then measures the parameter path, returning the mean bytes allocated per run.
+     * @param path <code>MeasuredPath</code>
+     * @param contents <code>byte[]</code> input contents
+     * @param tokens <code>ArrayList</code> of the input's pre-lexed tokens
+     * @return <code>double</code>
+     * @throws IOException if the contents cannot be lexed
+     */
+    private double measure(MeasuredPath path, byte[] contents, ArrayList<Token> tokens)
+            throws IOException {
+
+        // Declarations
+        long startBytes, endBytes;
+        int run;
+
+        for (run = 0; run < this.warmupRuns; run++) {
+            sink = path.run(contents, tokens);
+        }
+
+        startBytes = this.threadBean.getCurrentThreadAllocatedBytes();
+        for (run = 0; run < this.measurementRuns; run++) {
+            sink = path.run(contents, tokens);
+        }
+        endBytes = this.threadBean.getCurrentThreadAllocatedBytes();
+        return (double) (endBytes - startBytes) / this.measurementRuns;
+    }
+
+    // Helper methods
+
+    /**
+     * Returns the measured path of the parameter name.
+     * @param pathName <code>String</code>, one of <code>PATHS</code>
+     * @return <code>MeasuredPath</code>
+     */
+    private static MeasuredPath getPath(String pathName) {
+        switch (pathName) {
+            case "lex":
+                return (byte[] contents, ArrayList<Token> tokens) -> {
+                    ArrayList<Token> lexedTokens = new ArrayList<>(tokens.size());
+                    new ByteLexer(new ByteArrayInputStream(contents)).lexInto(lexedTokens);
+                    return lexedTokens;
+                };
+            case "parse":
+                return (byte[] contents, ArrayList<Token> tokens) ->
+                    new RecursiveDescentParser().parseTokens(tokens);
+            case "spec":
+                return (byte[] contents, ArrayList<Token> tokens) ->
+                    new SpecParser().parse(new ByteArrayInputStream(contents), new ParseContext());
+            default:
+                return (byte[] contents, ArrayList<Token> tokens) ->
+                    new RecursiveDescentParser().parseScannerContents(new Scanner(
+                        new ByteArrayInputStream(contents), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Generates the inputs, each of about a quarter megabyte: a shallow file of short strings, a
+     * deeply nested file, and a file of long strings.
+     *
+     * @return <code>LinkedHashMap</code> of input names to contents
+     * @throws IOException never, as the contents are written to memory
+     */
+    private static LinkedHashMap<String, byte[]> generateInputs() throws IOException {
+
+        // Declarations
+        LinkedHashMap<String, byte[]> inputs;
+
+        inputs = new LinkedHashMap<>();
+        inputs.put("shallow", generate(new SpecGenerator(1, 256 * 1024, 3, 8, 0.5, 16, 0)));
+        inputs.put("deep", generate(new SpecGenerator(2, 256 * 1024, 48, 3, 0.5, 16, 0)));
+        inputs.put("longStrings", generate(new SpecGenerator(3, 256 * 1024, 3, 8, 0.5, 200, 0)));
+        return inputs;
+    }
+
+    /**
+     * Returns the UTF-8 encoded contents of a single file of the parameter generator.
+     * @param generator <code>SpecGenerator</code>
+     * @return <code>byte[]</code>
+     * @throws IOException never, as the contents are written to memory
+     */
+    private static byte[] generate(SpecGenerator generator) throws IOException {
+
+        // Declaration
+        StringWriter writer;
+
+        writer = new StringWriter();
+        generator.generate(writer);
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The main method loads the budget and checks every path against it headlessly, exiting with
+     * status <code>1</code> if any path is over budget or <code>2</code> on a usage error.
+     *
+     * @param args <code>String[]</code> command line arguments
+     * @return void
+     * @throws IOException if the budget cannot be read or an input generated
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Declarations
+        Properties budget;
+        String budgetFile;
+        int warmupRuns, measurementRuns, overBudget, index;
+
+        System.setProperty("java.awt.headless", "true");
+        warmupRuns = 30;
+        measurementRuns = 10;
+        budgetFile = DEFAULT_BUDGET;
+
+        try {
+            for (index = 0; index < args.length; index++) {
+                if (args[index].equals("--warmup")) {
+                    warmupRuns = Integer.parseInt(args[++index]);
+                } else if (args[index].equals("--measure")) {
+                    measurementRuns = Math.max(1, Integer.parseInt(args[++index]));
+                } else {
+                    budgetFile = args[index];
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            System.err.println("Usage: AllocationBudget [--warmup runs] [--measure runs] "
+                + "[budget_file]");
+            System.exit(2);
+        }
+
+        budget = new Properties();
+        try (Reader reader = Files.newBufferedReader(Paths.get(budgetFile))) {
+            budget.load(reader);
+        }
+
+        overBudget = new AllocationBudget(warmupRuns, measurementRuns).check(budget);
+        System.out.println((overBudget == 0)
+            ? "All paths within budget"
+            : overBudget + " measurement(s) over budget");
+        System.exit((overBudget == 0) ? 0 : 1);
+    }
+}
\ No newline at end of file
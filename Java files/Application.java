@@ -10,6 +10,9 @@ import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.filechooser.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -26,7 +29,7 @@ import java.util.*;
  * @see javax.swing
  * @author Andrew Eissen
  */
-final class Application {
+final class Application implements ParserLog {
 
     // Status GUI-related fields
     private int windowHeight, windowWidth;
@@ -35,9 +38,16 @@ final class Application {
     private JPanel mainPanel, buttonPanel, logPanel;
     private JLabel leftButtonLabel, rightButtonLabel;
     private JButton fileButton, clearButton;
-    private JToggleButton hideDetailsButton;
+    private JToggleButton hideDetailsButton, watchFileButton;
     private JScrollPane logScrollPane;
     private JTextArea logTextArea;
+    private LogSink logSink;
+
+    // File watching-related fields
+    private HotReloader hotReloader;
+
+    // Parse result cache, persisted to the directory named by the rdp.cacheDirectory property
+    private ParseCache parseCache;
 
     /**
      * Standard constructor
@@ -48,6 +58,9 @@ final class Application {
         this.setWindowTitle("Recursive Descent Parser");
         this.setDefaultText("Tokens and error messages are logged here.\nDetailed notifications"
             + " may be turned off by pressing 'Hide details'.\n");
+        this.parseCache = new ParseCache(64, (System.getProperty("rdp.cacheDirectory") != null)
+            ? new File(System.getProperty("rdp.cacheDirectory"))
+            : null, new ParseLimits());
         this.assembleStatusGUI();
     }
 
@@ -165,13 +178,27 @@ final class Application {
      * <code>JTextArea</code> log, displaying important information like tokens, types, and related
      * error messages as they are encountered in the parsing process. This method is called from
      * within this class, and from within a similarly named method belonging to
-     * <code>RecursiveDescentParser.class</code>.
+     * <code>RecursiveDescentParser.class</code>. Entries are handed to the <code>LogSink</code>,
+     * which batches them and appends them to the log on the Event Dispatch Thread, allowing this
+     * method to be called cheaply from any thread.
      *
      * @param message <code>String</code> message contents
      * @return void
      */
-    protected void addLogEntry(String message) {
-        this.logTextArea.append(message + "\n");
+    @Override
+    public void addLogEntry(String message) {
+        this.logSink.addLogEntry(message);
+    }
+
+    /**
+     * Determines whether parsers should log details, which is the case while the "Hide details"
+     * button remains unselected.
+     *
+     * @return <code>boolean</code>
+     */
+    @Override
+    public boolean isShowingDetails() {
+        return !this.getHideDetailsButton().isSelected();
     }
 
     /**
@@ -180,8 +207,9 @@ final class Application {
      * resultant errors that may have been encountered during the parsing process. The option
      * buttons include a button that opens a <code>JFileChooser</code> modal window from which the
      * user may select a properly formatted file, a "Clear messages" button that removes previous
-     * log entries from the log panel, and a toggle button that enables the user to switch on a
-     * "minimalist mode" bereft of most status messages and all tokens/types.
+     * log entries from the log panel, a toggle button that enables the user to switch on a
+     * "minimalist mode" bereft of most status messages and all tokens/types, and a toggle button
+     * that keeps the most recently displayed GUI in sync with its file as the file is edited.
      *
      * @return void
      */
@@ -189,7 +217,7 @@ final class Application {
 
         // Panel definitions
         this.mainPanel = new JPanel(new BorderLayout());
-        this.buttonPanel = new JPanel(new GridLayout(1, 5, 5, 5));
+        this.buttonPanel = new JPanel(new GridLayout(1, 6, 5, 5));
         this.logPanel = new JPanel(new GridLayout(1, 1));
 
         // Definitions
@@ -198,8 +226,10 @@ final class Application {
         this.fileButton = new JButton("Select file");
         this.clearButton = new JButton("Clear log");
         this.hideDetailsButton = new JToggleButton("Hide details");
+        this.watchFileButton = new JToggleButton("Watch file");
         this.logTextArea = new JTextArea(this.getDefaultText());
         this.logScrollPane = new JScrollPane(this.logTextArea);
+        this.logSink = new LogSink(this.logTextArea, 10000);
 
         // Log text area options
         this.logTextArea.setEditable(false);
@@ -213,14 +243,21 @@ final class Application {
 
         // Clear old log button handler
         this.clearButton.addActionListener((ActionEvent e) -> {
+            this.logSink.clear();
             this.logTextArea.setText(this.getDefaultText());
         });
 
+        // Watch file toggle button handler
+        this.watchFileButton.addActionListener((ActionEvent e) -> {
+            this.toggleHotReload();
+        });
+
         // Addition to minipanels
         this.buttonPanel.add(this.leftButtonLabel);     // Space-filling label
         this.buttonPanel.add(this.fileButton);          // Select file button (leftmost)
         this.buttonPanel.add(this.clearButton);         // Clear log button (middle)
-        this.buttonPanel.add(this.hideDetailsButton);   // Hide details button (rightmost)
+        this.buttonPanel.add(this.hideDetailsButton);   // Hide details button
+        this.buttonPanel.add(this.watchFileButton);     // Watch file button (rightmost)
         this.buttonPanel.add(this.rightButtonLabel);    // Space-filling label
         this.logPanel.add(this.logScrollPane);          // Main status log
 
@@ -246,8 +283,10 @@ final class Application {
      * whenever the <code>fileButton</code> button is pressed. This method displays a
      * <code>JFileChooser</code> modal window that allows the user to select a properly formatted
      * <code>.txt</code> file from the appropriate directory. Assuming the file exists, the method
-     * then creates a new <code>RecursiveDescentParser</code> instance, passing <code>Scanner</code>
-     * contents to <code>RecursiveDescentParser.class.processScannerContents</code> for parsing.
+     * then creates a new <code>RecursiveDescentParser</code> instance, passing the file's contents
+     * to <code>RecursiveDescentParser.class.processInputStream</code> for parsing.
+     * Should the file's contents be found in the <code>ParseCache</code>, the cached result is
+     * passed to <code>RecursiveDescentParser.class.processCachedResult</code> instead.
      * <br />
      * <br />
      * Much of this method's contents were modified from a similar method used during the author's
@@ -262,15 +301,18 @@ final class Application {
         // Declarations
         File file;
         JFileChooser fileChooser;
-        Scanner scannerContents;
         RecursiveDescentParser newParser;
+        PhaseTimer phaseTimer;
+        ParseResult cachedResult, parseResult;
+        byte[] contents;
 
         /**
-         * Addition of <code>.txt</code> file-only filter, as per the answer
+         * Addition of <code>.txt</code> file-only filter (along with gzip compressed files, which
+         * are decompressed by <code>SpecInput</code>), as per the answer
          * <a href="http://www.stackoverflow.com/questions/15771949">here</a>.
          */
         fileChooser = new JFileChooser(".");
-        fileChooser.setFileFilter(new FileNameExtensionFilter("TEXT FILES", "txt", "text"));
+        fileChooser.setFileFilter(new FileNameExtensionFilter("TEXT FILES", "txt", "text", "gz"));
         fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
         fileChooser.setDialogTitle("Select properly formatted text file");
 
@@ -280,27 +322,153 @@ final class Application {
                 this.addLogEntry("--- " + file.getName() + " ---");
 
                 if (file.exists() && file.length() != 0) {
-                    scannerContents = new Scanner(new FileReader(file));
                     this.setFileName(file.getName());
 
-                    // Create new parser, provide with Scanner contents and reference to this class
+                    // Create new parser, provide with file contents and reference to this class
                     newParser = new RecursiveDescentParser(this);
-                    newParser.processScannerContents(scannerContents);
+                    phaseTimer = newParser.getPhaseTimer();
+                    phaseTimer.setFileName(file.getName());
+                    newParser.setSourceFile(file);
+
+                    phaseTimer.begin(PhaseTimer.Phase.READ);
+                    contents = Files.readAllBytes(file.toPath());
+                    phaseTimer.end(contents.length, 0, 0, 0);
+                    cachedResult = this.parseCache.get(contents);
+
+                    if (cachedResult != null) {
+                        this.addLogEntry("Contents unchanged; using cached result.");
+                        newParser.processCachedResult(cachedResult);
+                    } else {
+                        newParser.processInputStream(
+                            SpecInput.open(new ByteArrayInputStream(contents)));
+
+                        // Included files may change without the contents changing, and a
+                        // tree that could not be realized may yet be after a fix elsewhere
+                        parseResult = newParser.getParseResult();
+                        if (!newParser.hasIncludes() && !parseResult.isCancelled()
+                                && (!parseResult.isSuccessful()
+                                || newParser.getResultsDialog() != null)) {
+                            this.parseCache.put(contents, parseResult);
+                        }
+                    }
+
+                    if (!this.getHideDetailsButton().isSelected()) {
+                        this.addLogEntry(this.parseCache.getStatistics());
+                    }
+                    this.setHotReloader(file, newParser);
                 } else {
                     this.addLogEntry("Error: File '" + file.getName() + "' is empty.");
                 }
-            } catch (FileNotFoundException ex) {
+            } catch (FileNotFoundException | NoSuchFileException ex) {
                 this.addLogEntry("Error: No such file found. Please try again.");
+            } catch (IOException ex) {
+                this.addLogEntry("Error: Unable to read file. " + ex);
             }
         }
     }
 
     /**
-     * The main method simply creates a new <code>Application.class</code> object.
+     * This method is called once a file has been parsed in order to replace any previous
+     * <code>HotReloader</code> with one watching the newly parsed file. A new watcher is only
+     * created if the file was parsed successfully, as there is otherwise no open dialog to patch,
+     * and is only started if the "Watch file" toggle button is currently selected.
+     *
+     * @param file <code>File</code> that was parsed
+     * @param parser <code>RecursiveDescentParser</code> that parsed the file
+     * @return void
+     */
+    private void setHotReloader(File file, RecursiveDescentParser parser) {
+        if (this.hotReloader != null) {
+            this.hotReloader.stop();
+            this.hotReloader = null;
+        }
+
+        if (parser.getResultsDialog() != null) {
+            this.hotReloader = new HotReloader(this, file, parser.getWindowWidget(),
+                parser.getResultsDialog());
+            if (this.watchFileButton.isSelected()) {
+                this.toggleHotReload();
+            }
+        }
+    }
+
+    /**
+     * This method is called whenever the "Watch file" toggle button is pressed, starting or
+     * stopping the <code>HotReloader</code> of the most recently parsed file as appropriate.
+     *
+     * @return void
+     */
+    private void toggleHotReload() {
+        if (this.hotReloader == null) {
+            return;
+        }
+
+        if (this.watchFileButton.isSelected()) {
+            try {
+                this.hotReloader.start();
+            } catch (IOException ex) {
+                this.addLogEntry("Error: Unable to watch file. " + ex.getMessage());
+            }
+        } else {
+            this.hotReloader.stop();
+        }
+    }
+
+    /**
+     * The main method simply creates a new <code>Application.class</code> object, unless one of
+     * the headless options is supplied, in which case no GUI is created whatsoever. The
+     * <code>--batch</code> option parses the files matching a directory or glob pattern via a
+     * <code>BatchRunner</code>, the <code>--bundle</code> option parses each window definition of a
+     * bundle file (or standard input, if <code>-</code>) in turn via a <code>BundleRunner</code>,
+     * the <code>--daemon</code> option starts a <code>ParseDaemon</code> listening on a Unix domain
+     * socket, and the <code>--client</code> option sends a file (or standard input, if
+     * <code>-</code>) to such a daemon. In every case, the process-wide <code>ParserMetrics</code>
+     * is first registered with the platform MBean server for inspection over JMX.
+     *
      * @param args <code>String[]</code> command line arguments
      * @return void
+     * @throws IOException if the batch or bundle files cannot be read or the socket cannot be used
+     * @throws InterruptedException if the batch mode is interrupted
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ParserMetrics.register();
+
+        if (args.length == 2 && args[0].equals("--batch")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(new BatchRunner().run(args[1]));
+        } else if (args.length == 2 && args[0].equals("--bundle")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(new BundleRunner().run(args[1]));
+        } else if (args.length == 2 && args[0].equals("--daemon")) {
+            System.setProperty("java.awt.headless", "true");
+            new ParseDaemon(Paths.get(args[1])).serve();
+        } else if (args.length == 3 && args[0].equals("--client")) {
+            System.exit(ParseDaemon.sendRequest(Paths.get(args[1]), args[2]));
+        } else if (args.length == 2 && args[0].equals("--format")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(SpecFormatter.run(args[1]));
+        } else if (args.length == 3 && args[0].equals("--diff")) {
+            System.exit(TreeDiff.runDiff(args[1], args[2]));
+        } else if (args.length == 2 && args[0].equals("--duplicates")) {
+            System.exit(TreeDiff.runDuplicates(args[1]));
+        } else if (args.length == 2 && args[0].equals("--heap")) {
+            System.exit(WidgetInterner.runHeapReport(args[1]));
+        } else if (args.length == 1 && args[0].equals("--lsp")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(LanguageServer.serveStandardStreams());
+        } else if (args.length > 0) {
+            System.err.println("Usage: Application [--batch directory_or_glob]\n"
+                + "       Application [--bundle bundle_file_or_-]\n"
+                + "       Application [--daemon socket_path]\n"
+                + "       Application [--client socket_path file_or_-]\n"
+                + "       Application [--format file_or_-]\n"
+                + "       Application [--diff old_file new_file]\n"
+                + "       Application [--duplicates file]\n"
+                + "       Application [--heap file]\n"
+                + "       Application [--lsp]");
+            System.exit(2);
+        }
+
         Application newApplication = new Application();
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+/**
+ * BatchRunner.java - Parses many files from the command line without a status GUI
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.*;
+import java.util.stream.*;
+
+/**
+ * This class implements the program's headless batch mode, invoked by passing the
+ * <code>--batch</code> option to <code>Application.class.main</code> along with either a directory
+ * or a glob pattern (such as <code>"Text files/*.txt"</code>). No GUI is created at all, allowing
+ * the parser to be run on build agents lacking a display. Every matching file is parsed
+ * concurrently by a parser instance of its own, after which a line is printed for each file
+ * denoting whether it passed or failed, the first error encountered (if any), and the time taken.
+ * A summary of the whole run follows, and the process exits with a non-zero status should any file
+ * have failed.
+ * <br />
+ * <br />
+ * Where the running JVM supports virtual threads, one virtual thread is used per file; otherwise,
+ * a pool of platform threads sized to the number of available cores is used instead. As with the
+ * parser's own handling of widget methods, the virtual thread executor is looked up reflectively so
+ * that the program still compiles and runs on JVMs predating virtual threads.
+ * <br />
+ * <br />
+ * @author Andrew Eissen
+ */
+final class BatchRunner {
+
+    /**
+     * This method parses the parameter file headlessly, returning a single line summary of the
+     * outcome along with the time taken.
+     *
+     * @param file <code>File</code> to be parsed
+     * @return <code>String</code> summary
+     */
+    protected String parseFile(File file) {
+
+        // Declarations
+        RecursiveDescentParser parser;
+        ParseResult result;
+        long startTime;
+
+        startTime = System.nanoTime();
+        if (!file.exists() || file.length() == 0) {
+            return "FAIL " + file.getPath() + this.formatTime(startTime) + ": Error: File '"
+                + file.getName() + "' is empty.";
+        }
+
+        try (InputStream inputContents = SpecInput.open(file)) {
+            parser = new RecursiveDescentParser();
+            parser.getPhaseTimer().setFileName(file.getPath());
+            parser.setSourceFile(file);
+            result = parser.parseInputStream(inputContents);
+        } catch (IOException | RuntimeException ex) {
+            return "FAIL " + file.getPath() + this.formatTime(startTime) + ": Error: " + ex;
+        }
+
+        if (result.isSuccessful()) {
+            return "PASS " + file.getPath() + this.formatTime(startTime) + " ("
+                + result.getTokenCount() + " tokens)";
+        } else {
+            return "FAIL " + file.getPath() + this.formatTime(startTime) + ": "
+                + result.getErrorMessage();
+        }
+    }
+
+    /**
+     * Formats the time elapsed since the parameter start time for inclusion in a summary line.
+     * @param startTime <code>long</code>
+     * @return <code>String</code>
+     */
+    private String formatTime(long startTime) {
+        return String.format(" %.2f ms", (System.nanoTime() - startTime) / 1e6);
+    }
+
+    /**
+     * This method parses every file matching the parameter directory or glob pattern, printing the
+     * summary of each file in path order followed by a summary of the whole run.
+     *
+     * @param pathOrGlob <code>String</code> directory or glob pattern
+     * @return <code>int</code> exit status, <code>0</code> if every file passed
+     * @throws IOException if the files cannot be listed
+     * @throws InterruptedException if interrupted while awaiting results
+     */
+    protected int run(String pathOrGlob) throws IOException, InterruptedException {
+
+        // Declarations
+        ArrayList<File> files;
+        ArrayList<Future<String>> summaries;
+        ExecutorService executor;
+        String summary;
+        int failures;
+        long startTime;
+
+        files = collectFiles(pathOrGlob);
+        summaries = new ArrayList<>();
+        failures = 0;
+        startTime = System.nanoTime();
+
+        executor = createExecutor();
+        try {
+            for (File file : files) {
+                summaries.add(executor.submit(() -> this.parseFile(file)));
+            }
+
+            for (Future<String> future : summaries) {
+                try {
+                    summary = future.get();
+                } catch (ExecutionException ex) {
+                    summary = "FAIL Error: " + ex.getCause();
+                }
+
+                if (summary.startsWith("FAIL")) {
+                    failures++;
+                }
+                System.out.println(summary);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.printf("%d file(s): %d passed, %d failed in %.2f ms%n", files.size(),
+            files.size() - failures, failures, (System.nanoTime() - startTime) / 1e6);
+        return (failures == 0) ? 0 : 1;
+    }
+
+    // Helper methods
+
+    /**
+     * This method creates the executor used to parse files concurrently. Where available, the
+     * virtual thread per task executor is obtained via reflection; otherwise, a fixed pool with one
+     * platform thread per available core is returned.
+     *
+     * @see java.lang.reflect
+     * @return <code>ExecutorService</code>
+     */
+    protected static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * This method collects the files to be processed from the parameter directory or glob pattern.
+     * A directory contributes every <code>.txt</code> (or gzip compressed <code>.txt.gz</code>)
+     * file found within it or its subdirectories, while a glob pattern is matched against the
+     * paths found beneath the pattern's longest non-wildcard directory prefix. A plain file path is
+     * returned as is. Files are sorted by path.
+     *
+     * @param pathOrGlob <code>String</code> directory, glob pattern, or file path
+     * @return <code>ArrayList</code> of <code>File</code>s
+     * @throws IOException if the files cannot be listed
+     */
+    protected static ArrayList<File> collectFiles(String pathOrGlob) throws IOException {
+
+        // Declarations
+        Path path, baseDirectory;
+        PathMatcher matcher;
+        Matcher wildcardMatcher;
+        int wildcardIndex, separatorIndex;
+
+        wildcardMatcher = Pattern.compile("[*?\\[{]").matcher(pathOrGlob);
+        wildcardIndex = (wildcardMatcher.find()) ? wildcardMatcher.start() : -1;
+
+        if (wildcardIndex == -1) {
+            path = Paths.get(pathOrGlob);
+            if (!Files.isDirectory(path)) {
+                return new ArrayList<>(Arrays.asList(path.toFile()));
+            }
+            baseDirectory = path;
+            matcher = (Path file) -> file.getFileName().toString().matches(".*\\.txt(\\.gz)?");
+        } else {
+            separatorIndex = pathOrGlob.lastIndexOf(File.separatorChar, wildcardIndex);
+            separatorIndex = Math.max(separatorIndex, pathOrGlob.lastIndexOf('/', wildcardIndex));
+            baseDirectory = Paths.get((separatorIndex == -1)
+                ? "." : pathOrGlob.substring(0, Math.max(1, separatorIndex)));
+            matcher = FileSystems.getDefault().getPathMatcher("glob:"
+                + ((separatorIndex == -1) ? "./" + pathOrGlob : pathOrGlob));
+        }
+
+        try (Stream<Path> paths = Files.walk(baseDirectory)) {
+            return paths.filter(Files::isRegularFile)
+                .filter(matcher::matches)
+                .sorted()
+                .map(Path::toFile)
+                .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,313 @@
+/**
+ * Benchmark.java - Measures the throughput and allocation rate of the lexer, parser and realizer
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * This class is a small, dependency-free benchmark harness, used so that claims about the speed of
+ * the lexer and parser may be backed by numbers rather than guesses. As the program has no build
+ * file through which a harness like JMH might be pulled in, the harness instead follows the same
+ * basic approach by hand: each benchmark is run repeatedly for a warmup period, allowing the JIT
+ * compiler to settle, before being run for a measurement period during which the number of
+ * operations and the bytes allocated by the benchmarking thread are counted. Results are reported
+ * in operations per second and bytes allocated per operation. The result of each operation is
+ * written to a <code>volatile</code> field, preventing the JIT from discarding the work entirely.
+ * <br />
+ * <br />
+ * The following benchmarks are run for every input:
+ * <ul>
+ * <li><code>lex</code> - lexing in-memory contents into tokens via a <code>ByteLexer</code></li>
+ * <li><code>parse</code> - recognizing pre-lexed tokens and building the widget tree</li>
+ * <li><code>realize</code> - lexing, parsing, and realizing the tree into <tt>Swing</tt>
+ *     components, headlessly</li>
+ * <li><code>endToEnd</code> - as above, but reading the file from disk via
+ *     <code>SpecInput</code></li>
+ * </ul>
+ * Inputs consist of each file of the <code>Text files</code> folder, along with scaled variants
+ * of <code>AllOptionsUsed.txt</code> whose window contains its widgets repeated many times over.
+ * Usage is as follows, where the optional filter limits the run to benchmarks or inputs whose
+ * names contain the filter:
+ * <pre>
+ * java Benchmark [--warmup seconds] [--measure seconds] [text_files_directory] [filter]
+ * </pre>
+ * <br />
+ * @author Andrew Eissen
+ */
+final class Benchmark {
+
+    // Declarations
+    private static final int[] SCALE_FACTORS = {10, 100};
+    private static final String SCALED_SAMPLE = "AllOptionsUsed.txt";
+    private static volatile Object sink;
+    private double warmupSeconds, measurementSeconds;
+    private ThreadMXBean threadBean;
+
+    /**
+     * A single benchmarked operation, the result of which is kept from the JIT compiler.
+     */
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Parameterized constructor
+     * @param warmupSeconds <code>double</code> duration of each warmup period
+     * @param measurementSeconds <code>double</code> duration of each measurement period
+     */
+    protected Benchmark(double warmupSeconds, double measurementSeconds) {
+        this.warmupSeconds = warmupSeconds;
+        this.measurementSeconds = measurementSeconds;
+        this.threadBean = ManagementFactory.getThreadMXBean();
+    }
+
+    // Benchmark methods
+
+    /**
+     * This method runs every benchmark against every input whose names match the parameter
+     * filter, printing a line of results as each benchmark completes.
+     *
+     * @param textFilesDirectory <code>File</code> containing the sample files
+     * @param filter <code>String</code> required within benchmark or input names, or empty
+     * @return void
+     * @throws Exception if an input cannot be read or a benchmark fails
+     */
+    protected void run(File textFilesDirectory, String filter) throws Exception {
+
+        // Declarations
+        LinkedHashMap<String, File> inputs;
+        SwingRealizer realizer;
+        ArrayList<Token> tokens;
+        byte[] contents;
+
+        inputs = this.collectInputs(textFilesDirectory);
+        realizer = new SwingRealizer();
+        System.out.printf("%-10s %-26s %14s %14s%n", "Benchmark", "Input", "ops/s", "B/op");
+
+        for (Map.Entry<String, File> input : inputs.entrySet()) {
+            contents = Files.readAllBytes(input.getValue().toPath());
+            tokens = new ArrayList<>();
+            new ByteLexer(new ByteArrayInputStream(contents)).lexInto(tokens);
+            final ArrayList<Token> lexedTokens = tokens;
+            final byte[] inputContents = contents;
+            final File inputFile = input.getValue();
+
+            this.measure("lex", input.getKey(), filter, () -> {
+                ArrayList<Token> benchmarkTokens = new ArrayList<>();
+                new ByteLexer(new ByteArrayInputStream(inputContents)).lexInto(benchmarkTokens);
+                return benchmarkTokens;
+            });
+            this.measure("parse", input.getKey(), filter, () ->
+                new RecursiveDescentParser().parseTokens(lexedTokens));
+            this.measure("realize", input.getKey(), filter, () ->
+                this.realize(realizer, new RecursiveDescentParser().parseInputStream(
+                    new ByteArrayInputStream(inputContents))));
+            this.measure("endToEnd", input.getKey(), filter, () -> {
+                try (InputStream inputStream = SpecInput.open(inputFile)) {
+                    return this.realize(realizer,
+                        new RecursiveDescentParser().parseInputStream(inputStream));
+                }
+            });
+        }
+    }
+
+    /**
+     * This method warms up and then measures the parameter operation, printing its throughput and
+     * allocation rate, provided that either of the benchmark or input names contains the filter.
+     *
+     * @param benchmarkName <code>String</code>
+     * @param inputName <code>String</code>
+     * @param filter <code>String</code>
+     * @param operation <code>Operation</code> to be measured
+     * @return void
+     * @throws Exception if the operation fails
+     */
+    private void measure(String benchmarkName, String inputName, String filter,
+            Operation operation) throws Exception {
+
+        // Declarations
+        long operations, startTime, endTime, startBytes, endBytes;
+
+        if (!benchmarkName.contains(filter) && !inputName.contains(filter)) {
+            return;
+        }
+
+        this.runFor(operation, this.warmupSeconds);
+
+        startBytes = this.getAllocatedBytes();
+        startTime = System.nanoTime();
+        operations = this.runFor(operation, this.measurementSeconds);
+        endTime = System.nanoTime();
+        endBytes = this.getAllocatedBytes();
+
+        System.out.printf("%-10s %-26s %14.1f %14s%n", benchmarkName, inputName,
+            operations / ((endTime - startTime) / 1e9),
+            (startBytes < 0) ? "n/a" : String.format("%.0f",
+                (double) (endBytes - startBytes) / operations));
+    }
+
+    /**
+     * Runs the parameter operation repeatedly for at least the parameter number of seconds.
+     * @param operation <code>Operation</code>
+     * @param seconds <code>double</code>
+     * @return <code>long</code> number of operations run
+     * @throws Exception if the operation fails
+     */
+    private long runFor(Operation operation, double seconds) throws Exception {
+
+        // Declarations
+        long operations, endTime;
+
+        operations = 0;
+        endTime = System.nanoTime() + (long) (seconds * 1e9);
+        do {
+            sink = operation.run();
+            operations++;
+        } while (System.nanoTime() < endTime);
+        return operations;
+    }
+
+    // Helper methods
+
+    /**
+     * Realizes the widget tree of the parameter result, if the parse was successful.
+     * @param realizer <code>SwingRealizer</code>
+     * @param result <code>ParseResult</code>
+     * @return <code>Object</code> realized <code>JPanel</code>, or the result if unsuccessful
+     * @throws ReflectiveOperationException if a component cannot be created
+     */
+    private Object realize(SwingRealizer realizer, ParseResult result)
+            throws ReflectiveOperationException {
+        return (result.isSuccessful())
+            ? realizer.realizeContents(result.getWindowWidget())
+            : result;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread thus far, or <code>-1</code> if
+     * the running JVM is unable to report it.
+     *
+     * @return <code>long</code>
+     */
+    private long getAllocatedBytes() {
+        if (this.threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) this.threadBean)
+                .getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * This method collects the sample files of the parameter directory, followed by the scaled
+     * variants of <code>AllOptionsUsed.txt</code>, which are written to a temporary directory so
+     * that they may be read from disk by the <code>endToEnd</code> benchmark.
+     *
+     * @param textFilesDirectory <code>File</code>
+     * @return <code>LinkedHashMap</code> of input names to files
+     * @throws IOException if the samples cannot be read or the variants written
+     */
+    private LinkedHashMap<String, File> collectInputs(File textFilesDirectory) throws IOException {
+
+        // Declarations
+        LinkedHashMap<String, File> inputs;
+        File[] samples;
+        Path scaledDirectory, scaledFile;
+        String name;
+
+        inputs = new LinkedHashMap<>();
+        samples = textFilesDirectory.listFiles((File file) -> file.getName().endsWith(".txt"));
+        if (samples == null) {
+            throw new FileNotFoundException(textFilesDirectory.getPath());
+        }
+        Arrays.sort(samples);
+
+        for (File sample : samples) {
+            inputs.put(sample.getName(), sample);
+        }
+
+        scaledDirectory = Files.createTempDirectory("rdp-benchmark");
+        scaledDirectory.toFile().deleteOnExit();
+        for (int scaleFactor : SCALE_FACTORS) {
+            name = SCALED_SAMPLE.replace(".txt", "x" + scaleFactor + ".txt");
+            scaledFile = scaledDirectory.resolve(name);
+            Files.write(scaledFile, scaleContents(Files.readAllBytes(
+                new File(textFilesDirectory, SCALED_SAMPLE).toPath()), scaleFactor));
+            scaledFile.toFile().deleteOnExit();
+            inputs.put(name, scaledFile.toFile());
+        }
+        return inputs;
+    }
+
+    /**
+     * Creates a scaled variant of the parameter contents, keeping the first line (the window's
+     * header) and final <code>End.</code> while repeating the widgets in between.
+     *
+     * @param contents <code>byte[]</code> contents of a properly formatted file
+     * @param scaleFactor <code>int</code> number of times the widgets are repeated
+     * @return <code>byte[]</code>
+     */
+    protected static byte[] scaleContents(byte[] contents, int scaleFactor) {
+
+        // Declarations
+        String text, header, widgets;
+        StringBuilder scaled;
+        int headerEnd, footerStart;
+
+        text = new String(contents, StandardCharsets.UTF_8);
+        headerEnd = text.indexOf('\n') + 1;
+        footerStart = text.lastIndexOf("End");
+        header = text.substring(0, headerEnd);
+        widgets = text.substring(headerEnd, footerStart);
+
+        scaled = new StringBuilder(header);
+        for (int index = 0; index < scaleFactor; index++) {
+            scaled.append(widgets);
+        }
+        scaled.append(text.substring(footerStart));
+        return scaled.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The main method parses the command line options and runs the benchmarks headlessly.
+     * @param args <code>String[]</code> command line arguments
+     * @return void
+     * @throws Exception if a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+
+        // Declarations
+        double warmupSeconds, measurementSeconds;
+        File textFilesDirectory;
+        String filter;
+        int index;
+
+        System.setProperty("java.awt.headless", "true");
+        warmupSeconds = 1;
+        measurementSeconds = 2;
+        textFilesDirectory = new File("Text files");
+        filter = "";
+
+        for (index = 0; index < args.length; index++) {
+            if (args[index].equals("--warmup") && index + 1 < args.length) {
+                warmupSeconds = Double.parseDouble(args[++index]);
+            } else if (args[index].equals("--measure") && index + 1 < args.length) {
+                measurementSeconds = Double.parseDouble(args[++index]);
+            } else if (new File(args[index]).isDirectory()) {
+                textFilesDirectory = new File(args[index]);
+            } else {
+                filter = args[index];
+            }
+        }
+
+        new Benchmark(warmupSeconds, measurementSeconds).run(textFilesDirectory, filter);
+    }
+}
\ No newline at end of file
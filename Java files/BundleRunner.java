@@ -0,0 +1,133 @@
+/**
+ * BundleRunner.java - Parses bundles of many concatenated window definitions one at a time
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * This class implements the program's bundle mode, invoked by passing the <code>--bundle</code>
+ * option to <code>Application.class.main</code> along with the path of a bundle file (or
+ * <code>-</code> for standard input). A bundle is simply a number of properly formatted files
+ * concatenated together, each beginning with <code>Window</code> and ending with
+ * <code>End.</code> as per the grammar's <code>gui</code> production.
+ * <br />
+ * <br />
+ * Rather than lexing the whole bundle into a single list of tokens before parsing any of it,
+ * tokens are pulled from a <code>ByteLexer</code> one at a time and gathered only until the
+ * current window definition ends, at which point its tokens are parsed by a parser of their own and
+ * the outcome is printed immediately. The list is then cleared and reused for the next definition,
+ * meaning memory use is bounded by the largest single window definition rather than the bundle.
+ * A definition is considered ended upon encountering <code>End</code> followed by a period, or
+ * upon encountering the <code>Window</code> keyword of the next definition, the latter allowing a
+ * definition missing its final <code>End.</code> to be reported without swallowing the definition
+ * that follows it. Line numbers in error messages are those of the bundle as a whole, and the
+ * files included by any definition are resolved against the directory of the bundle, or the
+ * working directory if the bundle is read from standard input.
+ * <br />
+ * <br />
+ * @author Andrew Eissen
+ */
+final class BundleRunner {
+
+    // Declarations
+    private File bundleFile;
+    private int definitionCount, failures;
+
+    /**
+     * Default constructor
+     */
+    protected BundleRunner() {
+        this.bundleFile = null;
+        this.definitionCount = 0;
+        this.failures = 0;
+    }
+
+    /**
+     * This method parses every window definition of the parameter bundle, printing the outcome of
+     * each as soon as it has been parsed, followed by a summary of the whole run.
+     *
+     * @param fileName <code>String</code> bundle file path, or <code>-</code> for standard input
+     * @return <code>int</code> exit status, <code>0</code> if every definition passed
+     * @throws IOException if the bundle cannot be read
+     */
+    protected int run(String fileName) throws IOException {
+
+        // Declarations
+        ByteLexer lexer;
+        ArrayList<Token> tokens;
+        Token token;
+        Type previousType;
+        long startTime;
+
+        startTime = System.nanoTime();
+        tokens = new ArrayList<>();
+        previousType = Type.UNKNOWN;
+        this.bundleFile = (fileName.equals("-")) ? null : new File(fileName);
+
+        try (InputStream inputContents = (fileName.equals("-"))
+                ? SpecInput.open(System.in)
+                : SpecInput.open(this.bundleFile)) {
+            lexer = new ByteLexer(inputContents);
+
+            while ((token = lexer.nextToken()) != null) {
+                if (token.getType() == Type.WINDOW && !tokens.isEmpty()) {
+                    this.parseDefinition(tokens);
+                }
+                tokens.add(token);
+
+                if (token.getType() == Type.PERIOD && previousType == Type.END) {
+                    this.parseDefinition(tokens);
+                }
+                previousType = token.getType();
+            }
+
+            if (!tokens.isEmpty()) {
+                this.parseDefinition(tokens);
+            }
+        }
+
+        System.out.printf("%d window(s): %d passed, %d failed in %.2f ms%n", this.definitionCount,
+            this.definitionCount - this.failures, this.failures,
+            (System.nanoTime() - startTime) / 1e6);
+        return (this.failures == 0) ? 0 : 1;
+    }
+
+    /**
+     * Parses the tokens of a single window definition, prints the outcome, and clears the list so
+     * that it may be reused for the next definition.
+     *
+     * @param tokens <code>ArrayList</code> of <code>Token</code>s of a single window definition
+     * @return void
+     */
+    private void parseDefinition(ArrayList<Token> tokens) {
+
+        // Declarations
+        RecursiveDescentParser parser;
+        ParseResult result;
+        String lines;
+        long startTime;
+
+        startTime = System.nanoTime();
+        this.definitionCount++;
+        lines = "lines " + tokens.get(0).getLineNumber() + "-"
+            + tokens.get(tokens.size() - 1).getLineNumber();
+        parser = new RecursiveDescentParser();
+        parser.setSourceFile(this.bundleFile);
+        result = parser.parseTokens(tokens);
+
+        if (result.isSuccessful()) {
+            System.out.printf("PASS #%d \"%s\" %s %.2f ms (%d tokens)%n", this.definitionCount,
+                result.getWindowWidget().getText(), lines, (System.nanoTime() - startTime) / 1e6,
+                result.getTokenCount());
+        } else {
+            this.failures++;
+            System.out.printf("FAIL #%d %s %.2f ms: %s%n", this.definitionCount, lines,
+                (System.nanoTime() - startTime) / 1e6, result.getErrorMessage());
+        }
+        tokens.clear();
+    }
+}
\ No newline at end of file
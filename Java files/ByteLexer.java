@@ -0,0 +1,622 @@
+/**
+ * ByteLexer.java - Lexer operating directly upon UTF-8 encoded bytes
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * This class is a byte-level counterpart of the character-by-character lexer found in
+ * <code>RecursiveDescentParser.class.processScannerContents</code>. The original lexer reads files
+ * via a <code>FileReader</code>, which decodes the entire file into <code>char</code>s using the
+ * platform's default charset before the lexer sees a single character. However, everything in a
+ * properly formatted file other than the contents of quoted strings is plain ASCII, so this lexer
+ * instead works upon the raw bytes of the file, always interpreting them as UTF-8. Only the bytes
+ * of <code>Type.STRING</code> tokens (and of any unknown tokens) are ever decoded, while keywords
+ * and symbols are matched byte by byte and given shared <code>String</code> constants rather than
+ * newly allocated ones.
+ * <br />
+ * <br />
+ * The lexer produces exactly the same <code>Token</code>s, with the same line numbers, as the
+ * original lexer would for the same UTF-8 encoded file, quirks included. Lines are split on the
+ * same separators recognized by <code>Scanner.nextLine</code>, each line has its leading control
+ * and space characters skipped as <code>String.trim</code> would, and a quote character does not
+ * clear any characters preceding it, meaning <code>Label  "x"</code> (with two spaces) yields the
+ * string <code>" x"</code> just as before.
+ * <br />
+ * <br />
+ * Tokens may be pulled one at a time via <code>ByteLexer.class.nextToken</code>, allowing callers
+ * to process arbitrarily large inputs without holding every token in memory at once.
+ * <br />
+ * <br />
+ * @author Andrew Eissen
+ */
+final class ByteLexer {
+
+    // Declarations
+    private static final int BUFFER_SIZE = 8192;
+    private static final int COMPOSITE_SIZE = 64, MAX_RETAINED_COMPOSITE_SIZE = 65536;
+    private static final String[] KEYWORDS = {"Button", "Define", "End", "Flow", "Grid", "Group",
+        "Include", "Label", "Layout", "Panel", "Radio", "Repeat", "Textfield", "Use", "Window"};
+    private static final Type[] KEYWORD_TYPES = {Type.BUTTON, Type.DEFINE, Type.END, Type.FLOW,
+        Type.GRID, Type.GROUP, Type.INCLUDE, Type.LABEL, Type.LAYOUT, Type.PANEL, Type.RADIO,
+        Type.REPEAT, Type.TEXTFIELD, Type.USE, Type.WINDOW};
+    private static final byte[][] KEYWORD_BYTES = new byte[KEYWORDS.length][];
+    private static final boolean IS_REJECTING_SURROGATE_BYTES = isRejectingSurrogateBytes();
+    private InputStream input;
+    private byte[] buffer, composite, sequence;
+    private int bufferPosition, bufferLength, compositeLength, sequenceLength, lineNumber;
+    private long byteCount, maxInputBytes;
+    private int maxTokens, maxTokenLength;
+    private boolean isAtLineStart, isSkippingLeadingSpace, isWithinQuotes, isEndOfInput;
+    private ArrayDeque<Token> pendingTokens;
+    private CancellationToken cancellationToken;
+
+    static {
+        for (int index = 0; index < KEYWORDS.length; index++) {
+            KEYWORD_BYTES[index] = KEYWORDS[index].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Parameterized constructor
+     * @param input <code>InputStream</code> of UTF-8 encoded file contents
+     */
+    protected ByteLexer(InputStream input) {
+        this.buffer = new byte[BUFFER_SIZE];
+        this.composite = new byte[COMPOSITE_SIZE];
+        this.sequence = new byte[4];
+        this.pendingTokens = new ArrayDeque<>();
+        this.setLimits(ParseLimits.UNLIMITED);
+        this.reset(input);
+    }
+
+    /**
+     * Setter for the limits on input size, token count, and token length enforced while lexing,
+     * which are unlimited by default. Token length is measured in UTF-8 encoded bytes, and the
+     * token count is only enforced by <code>ByteLexer.class.lexInto</code>, as callers pulling
+     * tokens one at a time need not hold them all at once.
+     *
+     * @param limits <code>ParseLimits</code>
+     * @return void
+     */
+    protected void setLimits(ParseLimits limits) {
+        this.maxInputBytes = limits.getMaxInputBytes();
+        this.maxTokens = limits.getMaxTokens();
+        this.maxTokenLength = limits.getMaxTokenLength();
+    }
+
+    /**
+     * This method readies the lexer to lex the parameter input from its beginning, allowing a
+     * single lexer and its buffers to be reused for any number of inputs, as by the pooled lexers
+     * of <code>SpecParser</code>. A composite grown beyond its usual size by a long token is
+     * replaced, so that one outsized string does not leave a reused lexer holding it thereafter.
+     *
+     * @param input <code>InputStream</code> of UTF-8 encoded file contents, or <code>null</code>
+     *     merely to release the previous input
+     * @return void
+     */
+    protected void reset(InputStream input) {
+        if (this.composite.length > MAX_RETAINED_COMPOSITE_SIZE) {
+            this.composite = new byte[COMPOSITE_SIZE];
+        }
+        this.input = input;
+        this.bufferPosition = 0;
+        this.bufferLength = 0;
+        this.compositeLength = 0;
+        this.lineNumber = 0;
+        this.byteCount = 0;
+        this.isAtLineStart = true;
+        this.isWithinQuotes = false;
+        this.isEndOfInput = false;
+        this.pendingTokens.clear();
+        this.cancellationToken = CancellationToken.NONE;
+    }
+
+    /**
+     * Setter for <code>cancellationToken</code>, checked each time the buffer is refilled, such
+     * that lexing stops within a few thousand bytes of the token being cancelled. Cleared by
+     * <code>ByteLexer.class.reset</code>.
+     *
+     * @param cancellationToken <code>CancellationToken</code>
+     * @return void
+     */
+    protected void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Getter for <code>byteCount</code>, the number of bytes read from the input thus far
+     * @return byteCount
+     */
+    protected long getByteCount() {
+        return this.byteCount;
+    }
+
+    // Lexer methods
+
+    /**
+     * Returns the next token of the input, or <code>null</code> once the input is exhausted.
+     * @return <code>Token</code>
+     * @throws IOException if the input cannot be read or exceeds a limit
+     */
+    protected Token nextToken() throws IOException {
+        while (this.pendingTokens.isEmpty() && !this.isEndOfInput) {
+            this.processNextCharacter();
+            if (this.compositeLength > this.maxTokenLength) {
+                throw new ParseLimits.ExceededException("Error: Token exceeds the limit of "
+                    + this.maxTokenLength + " bytes", this.lineNumber);
+            }
+        }
+        return this.pendingTokens.poll();
+    }
+
+    /**
+     * Lexes the remainder of the input, adding each token to the parameter list.
+     * @param tokens <code>ArrayList</code> of <code>Token</code>s
+     * @return void
+     * @throws IOException if the input cannot be read or exceeds a limit
+     */
+    protected void lexInto(ArrayList<Token> tokens) throws IOException {
+
+        // Declaration
+        Token token;
+
+        while ((token = this.nextToken()) != null) {
+            if (tokens.size() == this.maxTokens) {
+                throw new ParseLimits.ExceededException("Error: Input exceeds the limit of "
+                    + this.maxTokens + " tokens", token.getLineNumber());
+            }
+            tokens.add(token);
+        }
+    }
+
+    /**
+     * This method reads and processes a single character of the input, which may consist of one
+     * to four bytes. ASCII characters are handled directly, while the bytes of any other character
+     * are decoded only far enough to determine whether the character is a line separator or
+     * whitespace, the raw bytes otherwise being copied as they are.
+     *
+     * @return void
+     * @throws IOException if the input cannot be read
+     */
+    private void processNextCharacter() throws IOException {
+
+        // Declarations
+        int character, codePoint, index;
+
+        character = this.readByte();
+        if (character == -1) {
+            if (!this.isAtLineStart) {
+                this.endLine();
+            }
+            this.isEndOfInput = true;
+            return;
+        }
+
+        if (this.isAtLineStart) {
+            this.lineNumber++;
+            this.isAtLineStart = false;
+            this.isSkippingLeadingSpace = true;
+        }
+
+        if (character < 0x80) {
+            if (character == '\n' || character == '\r') {
+                if (character == '\r' && this.peekByte() == '\n') {
+                    this.readByte();
+                }
+                this.endLine();
+            } else if (!this.isSkippingLeadingSpace || character > ' ') {
+                this.isSkippingLeadingSpace = false;
+                this.processAsciiCharacter(character);
+            }
+            return;
+        }
+
+        codePoint = this.decodeSequence(character);
+        this.isSkippingLeadingSpace = false;
+
+        if (codePoint == 0x85 || codePoint == 0x2028 || codePoint == 0x2029) {
+            this.endLine();
+        } else if (!this.isWithinQuotes && Character.isWhitespace(codePoint)
+                && !this.isCompositeBlank()) {
+            this.createNewToken();
+        } else {
+            if (!this.isWithinQuotes) {
+                this.trimComposite();
+            }
+            for (index = 0; index < this.sequenceLength; index++) {
+                this.appendToComposite(this.sequence[index]);
+            }
+        }
+    }
+
+    /**
+     * This method reads the remainder of the multi-byte UTF-8 sequence begun by the parameter lead
+     * byte into <code>sequence</code>, returning the code point of the sequence. Malformed input
+     * is handled as by the JDK's own decoder, with each malformed sequence (or valid prefix
+     * thereof) being replaced by the bytes of a single <code>U+FFFD</code> replacement character,
+     * so that the decoded contents of tokens match those of the original lexer exactly. As the
+     * JDK's decoder either rejects an encoded surrogate at its second byte, replacing each of its
+     * bytes in turn, or replaces the whole sequence at once, depending on the release, that of
+     * the running JDK is followed, per <code>IS_REJECTING_SURROGATE_BYTES</code>.
+     *
+     * @param lead <code>int</code> lead byte of the sequence, at least <code>0x80</code>
+     * @return <code>int</code> code point, or <code>0xFFFD</code> if malformed
+     * @throws IOException if the input cannot be read
+     */
+    private int decodeSequence(int lead) throws IOException {
+
+        // Declarations
+        int expectedLength, codePoint, lowerBound, upperBound, index, character;
+
+        expectedLength = (lead >= 0xF0) ? 4 : (lead >= 0xE0) ? 3 : 2;
+        codePoint = lead & (0xFF >> (expectedLength + 1));
+        lowerBound = (lead == 0xE0) ? 0xA0 : (lead == 0xF0) ? 0x90 : 0x80;
+        upperBound = (lead == 0xF4) ? 0x8F
+            : (lead == 0xED && IS_REJECTING_SURROGATE_BYTES) ? 0x9F : 0xBF;
+
+        // Stray continuation bytes and lead bytes that can never begin a valid sequence
+        if (lead < 0xC2 || lead > 0xF4) {
+            return this.setReplacementSequence();
+        }
+
+        this.sequence[0] = (byte) lead;
+        for (index = 1; index < expectedLength; index++) {
+            character = this.peekByte();
+            if (character < lowerBound || character > upperBound) {
+                return this.setReplacementSequence(); // Truncated or overlong
+            }
+            this.sequence[index] = (byte) this.readByte();
+            codePoint = (codePoint << 6) | (character & 0x3F);
+            lowerBound = 0x80;
+            upperBound = 0xBF;
+        }
+
+        if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            return this.setReplacementSequence(); // Encoded surrogate, replaced as a whole
+        }
+
+        this.sequenceLength = expectedLength;
+        return codePoint;
+    }
+
+    /**
+     * Places the UTF-8 bytes of the <code>U+FFFD</code> replacement character in
+     * <code>sequence</code>.
+     *
+     * @return <code>int</code> <code>0xFFFD</code>
+     */
+    private int setReplacementSequence() {
+        this.sequence[0] = (byte) 0xEF;
+        this.sequence[1] = (byte) 0xBF;
+        this.sequence[2] = (byte) 0xBD;
+        this.sequenceLength = 3;
+        return 0xFFFD;
+    }
+
+    /**
+     * Determines whether the JDK's decoder, as used by the original lexer, rejects an encoded
+     * surrogate at its second byte, yielding a replacement character for each of its three bytes,
+     * rather than replacing the whole sequence with a single replacement character.
+     *
+     * @return <code>boolean</code>
+     */
+    private static boolean isRejectingSurrogateBytes() {
+
+        // Declaration
+        CharBuffer decoded;
+
+        try {
+            decoded = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .decode(ByteBuffer.wrap(new byte[] {(byte) 0xED, (byte) 0xA0, (byte) 0x80}));
+        } catch (CharacterCodingException ex) {
+            return true; // Not thrown once malformed input is replaced
+        }
+        return decoded.length() == 3;
+    }
+
+    /**
+     * This method handles a single ASCII character in the same manner as the body of the original
+     * lexer's loop, distinguishing between characters within quotes, grammatical symbols,
+     * whitespace, and the characters of keywords, numbers, and other composite tokens.
+     *
+     * @param character <code>int</code> ASCII character
+     * @return void
+     */
+    private void processAsciiCharacter(int character) {
+
+        // Declaration
+        Type symbolType;
+
+        if (this.isWithinQuotes) { // if part of a String
+            if (character == '\"') {
+                this.pendingTokens.add(new Token(Type.STRING, new String(this.composite, 0,
+                    this.compositeLength, StandardCharsets.UTF_8), this.lineNumber));
+                this.compositeLength = 0;
+            } else {
+                this.appendToComposite(character);
+            }
+        } else {
+            symbolType = this.determineSymbol(character);
+            if (symbolType != Type.UNKNOWN) {
+                // Clear out composite and make its contents a new Token
+                this.createNewToken();
+
+                // Make new Type symbol a Token as well
+                this.pendingTokens.add(new Token(symbolType, this.getSymbolString(symbolType),
+                    this.lineNumber));
+            } else if (Character.isWhitespace(character) && !this.isCompositeBlank()) {
+                this.createNewToken();
+            } else if (character != '\"') {
+                // Handle excess spacing not in Strings
+                this.trimComposite();
+                this.appendToComposite(character);
+            }
+        }
+
+        if (character == '\"') {
+            this.isWithinQuotes = !this.isWithinQuotes;
+        }
+    }
+
+    /**
+     * Ends the current line, turning any remaining composite contents into a token and leaving
+     * quotes, as the original lexer resets its quote state on each new line.
+     *
+     * @return void
+     */
+    private void endLine() {
+        this.createNewToken();
+        this.isWithinQuotes = false;
+        this.isAtLineStart = true;
+    }
+
+    // Lexer helper methods
+
+    /**
+     * This method is the byte-level equivalent of
+     * <code>RecursiveDescentParser.class.createNewToken</code>, trimming the composite and, should
+     * anything remain, adding a new token of the appropriate <code>Type</code>. Keywords are given
+     * shared <code>String</code> constants, and only other tokens have their bytes decoded.
+     *
+     * @return void
+     */
+    private void createNewToken() {
+
+        // Declarations
+        int keywordIndex;
+        String token;
+
+        this.trimComposite();
+        if (this.compositeLength > 0) {
+            keywordIndex = this.findKeyword();
+            if (keywordIndex != -1) {
+                this.pendingTokens.add(new Token(KEYWORD_TYPES[keywordIndex],
+                    KEYWORDS[keywordIndex], this.lineNumber));
+            } else {
+                token = new String(this.composite, 0, this.compositeLength,
+                    StandardCharsets.UTF_8);
+                this.pendingTokens.add(new Token(this.isNumber(token) ? Type.NUMBER : Type.UNKNOWN,
+                    token, this.lineNumber));
+            }
+        }
+        this.compositeLength = 0;
+    }
+
+    /**
+     * Returns the index of the keyword matching the composite's bytes, or <code>-1</code> if the
+     * composite is not a keyword.
+     *
+     * @return <code>int</code>
+     */
+    private int findKeyword() {
+
+        // Declarations
+        byte[] keyword;
+        int keywordIndex, index;
+
+        for (keywordIndex = 0; keywordIndex < KEYWORD_BYTES.length; keywordIndex++) {
+            keyword = KEYWORD_BYTES[keywordIndex];
+            if (keyword.length != this.compositeLength || keyword[0] != this.composite[0]) {
+                continue;
+            }
+
+            for (index = 1; index < keyword.length; index++) {
+                if (keyword[index] != this.composite[index]) {
+                    break;
+                }
+            }
+            if (index == keyword.length) {
+                return keywordIndex;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Determines whether the parameter token is an integer as per <code>Integer.parseInt</code>,
+     * which is the check made by the original lexer. Tokens that plainly cannot be integers are
+     * rejected without resorting to the exception thrown by that method.
+     *
+     * @param token <code>String</code>
+     * @return <code>boolean</code>
+     */
+    private boolean isNumber(String token) {
+
+        // Declaration
+        char first;
+
+        first = token.charAt(0);
+        if (first < 0x80 && first != '+' && first != '-' && (first < '0' || first > '9')) {
+            return false;
+        }
+
+        try {
+            Integer.parseInt(token);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the <code>Type</code> of the parameter symbol character, or
+     * <code>Type.UNKNOWN</code> if the character is not a grammatical symbol.
+     *
+     * @param character <code>int</code>
+     * @return <code>Type</code>
+     */
+    private Type determineSymbol(int character) {
+        switch (character) {
+            case ':':
+                return Type.COLON;
+            case ',':
+                return Type.COMMA;
+            case '(':
+                return Type.LPAREN;
+            case '.':
+                return Type.PERIOD;
+            case ')':
+                return Type.RPAREN;
+            case ';':
+                return Type.SEMICOLON;
+            default:
+                return Type.UNKNOWN;
+        }
+    }
+
+    /**
+     * Returns the shared <code>String</code> constant of the parameter symbol <code>Type</code>.
+     * @param symbolType <code>Type</code>
+     * @return <code>String</code>
+     */
+    private String getSymbolString(Type symbolType) {
+        switch (symbolType) {
+            case COLON:
+                return ":";
+            case COMMA:
+                return ",";
+            case LPAREN:
+                return "(";
+            case PERIOD:
+                return ".";
+            case RPAREN:
+                return ")";
+            default:
+                return ";";
+        }
+    }
+
+    /**
+     * Determines whether the composite consists solely of bytes that <code>String.trim</code>
+     * would remove.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean isCompositeBlank() {
+
+        // Declaration
+        int index;
+
+        for (index = 0; index < this.compositeLength; index++) {
+            if ((this.composite[index] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes leading and trailing bytes from the composite as <code>String.trim</code> would. As
+     * the bytes of multi-byte UTF-8 sequences all exceed <code>0x7F</code>, only ASCII bytes are
+     * ever removed.
+     *
+     * @return void
+     */
+    private void trimComposite() {
+
+        // Declaration
+        int start;
+
+        while (this.compositeLength > 0
+                && (this.composite[this.compositeLength - 1] & 0xFF) <= ' ') {
+            this.compositeLength--;
+        }
+
+        start = 0;
+        while (start < this.compositeLength && (this.composite[start] & 0xFF) <= ' ') {
+            start++;
+        }
+
+        if (start > 0) {
+            System.arraycopy(this.composite, start, this.composite, 0,
+                this.compositeLength - start);
+            this.compositeLength -= start;
+        }
+    }
+
+    /**
+     * Appends the parameter byte to the composite, growing the composite as required.
+     * @param value <code>int</code> byte value
+     * @return void
+     */
+    private void appendToComposite(int value) {
+        if (this.compositeLength == this.composite.length) {
+            this.composite = Arrays.copyOf(this.composite, this.composite.length * 2);
+        }
+        this.composite[this.compositeLength++] = (byte) value;
+    }
+
+    /**
+     * Reads the next byte of the input, refilling the buffer as required.
+     * @return <code>int</code> byte value, or <code>-1</code> at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private int readByte() throws IOException {
+        if (this.bufferPosition == this.bufferLength && !this.fillBuffer()) {
+            return -1;
+        }
+        return this.buffer[this.bufferPosition++] & 0xFF;
+    }
+
+    /**
+     * Returns the next byte of the input without consuming it.
+     * @return <code>int</code> byte value, or <code>-1</code> at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private int peekByte() throws IOException {
+        if (this.bufferPosition == this.bufferLength && !this.fillBuffer()) {
+            return -1;
+        }
+        return this.buffer[this.bufferPosition] & 0xFF;
+    }
+
+    /**
+     * Refills the buffer from the input.
+     * @return <code>boolean</code> false if the end of the input has been reached
+     * @throws IOException if the input cannot be read, exceeds the limit on its size, or the lexer
+     *     has been cancelled
+     */
+    private boolean fillBuffer() throws IOException {
+        this.cancellationToken.throwIfCancelled();
+        this.bufferLength = this.input.read(this.buffer, 0, this.buffer.length);
+        this.bufferPosition = 0;
+        if (this.bufferLength <= 0) {
+            this.bufferLength = 0;
+            return false;
+        }
+        this.byteCount += this.bufferLength;
+        if (this.byteCount > this.maxInputBytes) {
+            throw new ParseLimits.ExceededException("Error: Input exceeds the limit of "
+                + this.maxInputBytes + " bytes", Math.max(1, this.lineNumber));
+        }
+        return true;
+    }
+}
\ No newline at end of file
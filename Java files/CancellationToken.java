@@ -0,0 +1,142 @@
+/**
+ * CancellationToken.java - Means of stopping a parse underway, on request or at a deadline
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * This class allows a parse running on behalf of a service to be stopped before it completes,
+ * whether because its result is no longer wanted, as when the <code>LanguageServer</code> receives
+ * a newer edit of the document being validated, or because it has taken longer than its caller is
+ * willing to wait. A token is cancelled by a call to <code>cancel</code> from any thread, by its
+ * deadline passing, or by the interruption of the thread doing the parsing, such that parses run
+ * as tasks of an <code>ExecutorService</code> also stop upon <code>Future.cancel(true)</code>.
+ * <br />
+ * <br />
+ * Cancellation is cooperative. The <code>ByteLexer</code> checks the token each time it refills
+ * its buffer, the <code>Scanner</code> lexer every so many lines, and the parser every so many
+ * widgets of each list, such that the cost of checking is negligible however large the file.
+ * A cancelled parse produces a <code>ParseResult</code> marked as cancelled, holding neither a
+ * widget tree nor an error found in the file, and should be neither displayed nor cached.
+ * <br />
+ * <br />
+ * @see ParseContext#setCancellationToken
+ * @author Andrew Eissen
+ */
+final class CancellationToken {
+
+    /**
+     * The exception thrown by a <code>ByteLexer</code> upon finding its token cancelled, which
+     * the parser reports as a cancelled result rather than an error.
+     */
+    protected static final class CancelledException extends IOException {
+
+        // Declaration
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Parameterized constructor
+         * @param message <code>String</code> message of the cancelled token
+         */
+        protected CancelledException(String message) {
+            super(message);
+        }
+    }
+
+    // Declarations
+    protected static final CancellationToken NONE = new CancellationToken();
+    private volatile boolean isCancelRequested;
+    private boolean hasDeadline;
+    private long deadline, timeoutMillis;
+
+    /**
+     * Default constructor, for a token cancelled only on request
+     */
+    protected CancellationToken() {
+        this.isCancelRequested = false;
+        this.hasDeadline = false;
+    }
+
+    /**
+     * Parameterized constructor, for a token also cancelled once the parameter time has passed
+     * @param timeout <code>Duration</code> from now until the deadline
+     */
+    protected CancellationToken(Duration timeout) {
+        this();
+        this.hasDeadline = true;
+        this.timeoutMillis = timeout.toMillis();
+        this.deadline = System.nanoTime() + timeout.toNanos();
+    }
+
+    // Cancellation methods
+
+    /**
+     * Requests that any parse using this token stop as soon as it next checks.
+     * @return void
+     */
+    protected void cancel() {
+        this.isCancelRequested = true;
+    }
+
+    /**
+     * Determines whether a parse using this token should stop, as it has been cancelled, its
+     * deadline has passed, or the current thread has been interrupted. The interrupt status is
+     * left as it is, for the caller to handle. <code>NONE</code> is never cancelled, so that
+     * parses not given a token behave as they always have.
+     *
+     * @return <code>boolean</code>
+     */
+    protected boolean isCancelled() {
+        return this != NONE && (this.isCancelRequested || this.isTimedOut()
+            || Thread.currentThread().isInterrupted());
+    }
+
+    /**
+     * Determines whether the deadline of this token, if any, has passed.
+     * @return <code>boolean</code>
+     */
+    protected boolean isTimedOut() {
+        return this.hasDeadline && System.nanoTime() - this.deadline >= 0;
+    }
+
+    /**
+     * Returns the nanoseconds left until the deadline of this token, being zero once it has passed
+     * and <code>Long.MAX_VALUE</code> if the token has no deadline.
+     *
+     * @return <code>long</code>
+     */
+    protected long getRemainingNanos() {
+        return (this.hasDeadline)
+            ? Math.max(0, this.deadline - System.nanoTime())
+            : Long.MAX_VALUE;
+    }
+
+    /**
+     * Throws a <code>CancelledException</code> if this token has been cancelled, used by the
+     * <code>ByteLexer</code> to stop from within its loop.
+     *
+     * @return void
+     * @throws CancelledException if cancelled
+     */
+    protected void throwIfCancelled() throws CancelledException {
+        if (this.isCancelled()) {
+            throw new CancelledException(this.getMessage());
+        }
+    }
+
+    /**
+     * Returns the message of a parse stopped by this token, naming the timeout if it was the
+     * deadline that stopped it.
+     *
+     * @return <code>String</code>
+     */
+    protected String getMessage() {
+        return (this.isTimedOut() && !this.isCancelRequested)
+            ? "Error: Parse timed out after " + this.timeoutMillis + " ms"
+            : "Error: Parse cancelled";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,476 @@
+/**
+ * HotReloader.java - Watches a parsed file and patches its open dialog whenever it changes
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is used to implement the status GUI's "Watch file" mode. Once a file has been
+ * successfully parsed and its <code>JDialog</code> displayed, an instance of this class watches
+ * the file's directory via a <code>WatchService</code>. Whenever the file changes, the class waits
+ * for the burst of modification events to settle, re-parses the file into a new <code>Widget</code>
+ * tree, and compares that tree against the one behind the open dialog. Only the components that
+ * actually differ are then added, removed, or updated on the Event Dispatch Thread, meaning the
+ * dialog is never recreated and a one-line edit is reflected almost immediately.
+ * <br />
+ * <br />
+ * The comparison of two lists of child widgets skips the common leading and trailing widgets that
+ * are identical in both trees, then patches the remaining widgets pairwise where their types match
+ * and replaces them otherwise. This means an inserted or removed line results in a single add or
+ * remove operation rather than an update of every widget following it.
+ * <br />
+ * <br />
+ * @see java.nio.file.WatchService
+ * @author Andrew Eissen
+ */
+final class HotReloader implements Runnable {
+
+    // Declarations
+    private static final long DEBOUNCE_MILLIS = 50;
+    private Application parent;
+    private File file;
+    private Widget windowWidget;
+    private JDialog resultsDialog;
+    private SwingRealizer realizer;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    /**
+     * Parameterized constructor, which stops the watch once the dialog is disposed of, as the
+     * watching thread would otherwise remain blocked awaiting events for a dialog no longer shown.
+     *
+     * @param parent <code>Application</code> used for logging and parsing
+     * @param file <code>File</code> to be watched
+     * @param windowWidget <code>Widget</code> tree behind the open dialog
+     * @param resultsDialog <code>JDialog</code> to be patched
+     */
+    protected HotReloader(Application parent, File file, Widget windowWidget,
+            JDialog resultsDialog) {
+        this.parent = parent;
+        this.file = file.getAbsoluteFile();
+        this.windowWidget = windowWidget;
+        this.resultsDialog = resultsDialog;
+        this.realizer = new SwingRealizer();
+
+        this.resultsDialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                HotReloader.this.stop();
+            }
+        });
+    }
+
+    // Watch service methods
+
+    /**
+     * Begins watching the file's parent directory on a new daemon thread. Any previous watch is
+     * quietly replaced, allowing the "Watch file" button to be toggled on and off repeatedly.
+     *
+     * @return void
+     * @throws IOException if the directory cannot be watched
+     */
+    protected void start() throws IOException {
+        this.closeWatchService();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParentFile().toPath().register(this.watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        this.watchThread = new Thread(this, "HotReloader-" + this.file.getName());
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+        this.parent.addLogEntry("Watching '" + this.file.getName() + "' for changes.");
+    }
+
+    /**
+     * Stops watching the file, closing the <code>WatchService</code> and thereby ending the
+     * watching thread's loop.
+     *
+     * @return void
+     */
+    protected void stop() {
+        if (this.closeWatchService()) {
+            this.parent.addLogEntry("Stopped watching '" + this.file.getName() + "'.");
+        }
+    }
+
+    /**
+     * Closes the <code>WatchService</code>, if any, without logging that watching has stopped.
+     * @return <code>boolean</code> whether a watch was underway
+     */
+    private boolean closeWatchService() {
+        if (this.watchService == null) {
+            return false;
+        }
+        try {
+            this.watchService.close();
+        } catch (IOException ex) {
+            this.parent.addLogEntry("Error: " + ex);
+        }
+        this.watchService = null;
+        return true;
+    }
+
+    /**
+     * The watching thread's loop, which waits for events related to the watched file, debounces
+     * them by draining any further events arriving within <code>DEBOUNCE_MILLIS</code>, and then
+     * reloads the file. The loop ends when the <code>WatchService</code> is closed, as it is once
+     * the dialog is disposed of, or when the dialog is found to be no longer displayable, in which
+     * case the <code>WatchService</code> is closed here.
+     *
+     * @return void
+     */
+    @Override
+    public void run() {
+
+        // Declarations
+        WatchService service;
+        WatchKey key;
+
+        service = this.watchService;
+        try {
+            while (this.resultsDialog.isDisplayable()) {
+                key = service.take();
+                if (!this.isWatchedFileEvent(key)) {
+                    continue;
+                }
+
+                // Debounce, as editors tend to write files in several steps
+                while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    this.isWatchedFileEvent(key);
+                }
+
+                this.reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ex) {
+            // Watch stopped by the user or the dialog disposed of
+        } finally {
+            try {
+                service.close();
+            } catch (IOException ex) {
+                this.parent.addLogEntry("Error: " + ex);
+            }
+        }
+    }
+
+    /**
+     * Determines whether any of the parameter key's events concern the watched file, resetting the
+     * key so that further events may be received.
+     *
+     * @param key <code>WatchKey</code>
+     * @return <code>boolean</code>
+     */
+    private boolean isWatchedFileEvent(WatchKey key) {
+
+        // Declaration
+        boolean isWatchedFile;
+
+        isWatchedFile = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (this.file.getName().equals(String.valueOf(event.context()))) {
+                isWatchedFile = true;
+            }
+        }
+        key.reset();
+        return isWatchedFile;
+    }
+
+    /**
+     * This method re-parses the watched file into a new widget tree. Should the new tree be well
+     * formed, the open dialog is patched on the Event Dispatch Thread and the new tree replaces the
+     * old as the basis for future comparisons. Otherwise, the dialog is left as it was. Should
+     * patching fail partway, the dialog is realized anew from the old tree, such that it and the
+     * tree against which future changes are compared remain in step.
+     *
+     * @return void
+     * @throws InterruptedException if the thread is interrupted while patching
+     */
+    private void reload() throws InterruptedException {
+
+        // Declarations
+        RecursiveDescentParser newParser;
+        Widget newWindowWidget;
+        Exception[] failure;
+        long startTime;
+        int[] operations;
+
+        startTime = System.nanoTime();
+        operations = new int[1];
+        failure = new Exception[1];
+        this.parent.addLogEntry("--- " + this.file.getName() + " (changed) ---");
+
+        try (InputStream inputContents = SpecInput.open(this.file)) {
+            newParser = new RecursiveDescentParser(this.parent);
+            newParser.getPhaseTimer().setFileName(this.file.getName());
+            newParser.setSourceFile(this.file);
+            newWindowWidget = newParser.buildWidgetTree(inputContents);
+        } catch (FileNotFoundException | NoSuchFileException ex) {
+            this.parent.addLogEntry("Error: No such file found. Please try again.");
+            return;
+        } catch (IOException ex) {
+            this.parent.addLogEntry("Error: Unable to read file. " + ex);
+            return;
+        }
+
+        if (newWindowWidget == null) {
+            this.parent.addLogEntry("Error: File '" + this.file.getName()
+                + "' parsing failed. Dialog left unchanged.");
+            return;
+        }
+
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                try {
+                    operations[0] = this.patchWindow(this.windowWidget, newWindowWidget);
+                } catch (ReflectiveOperationException | RuntimeException ex) {
+                    failure[0] = ex;
+                    this.restoreWindow(this.windowWidget);
+                }
+            });
+        } catch (InvocationTargetException ex) {
+            failure[0] = (ex.getCause() instanceof Exception) ? (Exception) ex.getCause() : ex;
+        }
+
+        if (failure[0] != null) {
+            this.parent.addLogEntry("Error: " + failure[0] + ". Dialog left unchanged.");
+            return;
+        }
+
+        this.windowWidget = newWindowWidget;
+        this.parent.addLogEntry("Success: File '" + this.file.getName() + "' reloaded with "
+            + operations[0] + " change(s) in "
+            + (System.nanoTime() - startTime) / 1000000 + " ms.");
+    }
+
+    // Patching methods
+
+    /**
+     * Replaces the contents, title, and size of the open dialog with those realized anew from the
+     * parameter window widget, used to undo a patch that failed partway. Must be called on the
+     * Event Dispatch Thread.
+     *
+     * @param window <code>Widget</code> of <code>Type.WINDOW</code>
+     * @return void
+     */
+    private void restoreWindow(Widget window) {
+        try {
+            this.resultsDialog.setContentPane(this.realizer.realizeContents(window));
+            this.resultsDialog.setTitle(window.getText());
+            this.resultsDialog.setSize(window.getNumbers()[0], window.getNumbers()[1]);
+            this.resultsDialog.getContentPane().revalidate();
+            this.resultsDialog.getContentPane().repaint();
+        } catch (ReflectiveOperationException ex) {
+            this.parent.addLogEntry("Error: " + ex);
+        }
+    }
+
+    /**
+     * Patches the open dialog to reflect the new window widget, updating its title, layout, child
+     * components, and size as required. Must be called on the Event Dispatch Thread.
+     *
+     * @param oldWindow <code>Widget</code> behind the open dialog
+     * @param newWindow <code>Widget</code> parsed from the changed file
+     * @return <code>int</code> number of operations applied
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    private int patchWindow(Widget oldWindow, Widget newWindow)
+            throws ReflectiveOperationException {
+
+        // Declarations
+        Container contentPane;
+        int operations;
+
+        contentPane = this.resultsDialog.getContentPane();
+        operations = 0;
+
+        if (!oldWindow.getText().equals(newWindow.getText())) {
+            this.resultsDialog.setTitle(newWindow.getText());
+            operations++;
+        }
+
+        if (!oldWindow.hasSameLayout(newWindow)) {
+            this.realizer.applyLayout(contentPane, newWindow);
+            operations++;
+        }
+
+        operations += this.patchChildren(contentPane, oldWindow.getChildren(),
+            newWindow.getChildren());
+
+        if (!Arrays.equals(oldWindow.getNumbers(), newWindow.getNumbers())) {
+            this.resultsDialog.setSize(newWindow.getNumbers()[0], newWindow.getNumbers()[1]);
+            operations++;
+        }
+
+        contentPane.revalidate();
+        contentPane.repaint();
+        return operations;
+    }
+
+    /**
+     * This method applies the minimal set of operations required to turn the components realized
+     * from the old list of child widgets into those of the new list. Identical leading and trailing
+     * widgets are skipped entirely, after which the remaining widgets are patched in place where
+     * possible, with any excess old widgets removed and any excess new widgets added.
+     *
+     * @param container <code>Container</code> holding the realized children
+     * @param oldChildren <code>ArrayList</code> of old child <code>Widget</code>s
+     * @param newChildren <code>ArrayList</code> of new child <code>Widget</code>s
+     * @return <code>int</code> number of operations applied
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    private int patchChildren(Container container, ArrayList<Widget> oldChildren,
+            ArrayList<Widget> newChildren) throws ReflectiveOperationException {
+
+        // Declarations
+        int start, oldEnd, newEnd, componentIndex, count, operations;
+        Widget oldChild, newChild;
+
+        start = 0;
+        oldEnd = oldChildren.size();
+        newEnd = newChildren.size();
+        componentIndex = 0;
+        operations = 0;
+
+        // Skip identical leading widgets
+        while (start < oldEnd && start < newEnd
+                && oldChildren.get(start).isEquivalentTo(newChildren.get(start))) {
+            componentIndex += oldChildren.get(start++).getComponentCount();
+        }
+
+        // Skip identical trailing widgets
+        while (oldEnd > start && newEnd > start
+                && oldChildren.get(oldEnd - 1).isEquivalentTo(newChildren.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+        }
+
+        // Patch or replace the differing widgets pairwise
+        for (; start < oldEnd && start < newEnd; start++) {
+            oldChild = oldChildren.get(start);
+            newChild = newChildren.get(start);
+
+            if (this.isPatchable(oldChild, newChild)) {
+                operations += this.patchWidget(container, componentIndex, oldChild, newChild);
+            } else {
+                this.removeComponents(container, componentIndex, oldChild.getComponentCount());
+                this.realizer.addWidget(container, newChild, componentIndex);
+                operations++;
+            }
+            componentIndex += newChild.getComponentCount();
+        }
+
+        // Remove excess old widgets
+        for (; start < oldEnd; start++) {
+            this.removeComponents(container, componentIndex,
+                oldChildren.get(start).getComponentCount());
+            operations++;
+        }
+
+        // Add excess new widgets
+        for (; start < newEnd; start++) {
+            count = this.realizer.addWidget(container, newChildren.get(start), componentIndex);
+            componentIndex += count;
+            operations++;
+        }
+
+        return operations;
+    }
+
+    /**
+     * Determines whether the components realized from the old widget may be updated in place to
+     * reflect the new widget. This is only possible if the two share a <code>Type</code> and, in
+     * the case of radio button groups, the same number of radio buttons. Repetitions are always
+     * realized afresh, as their components carry the index of their repetition.
+     *
+     * @param oldChild <code>Widget</code>
+     * @param newChild <code>Widget</code>
+     * @return <code>boolean</code>
+     */
+    private boolean isPatchable(Widget oldChild, Widget newChild) {
+        return oldChild.getType() == newChild.getType()
+            && oldChild.getType() != Type.REPEAT
+            && (oldChild.getType() != Type.GROUP
+                || oldChild.getChildren().size() == newChild.getChildren().size());
+    }
+
+    /**
+     * Updates the component(s) at the parameter index to reflect the new widget, which must be
+     * patchable as per <code>HotReloader.class.isPatchable</code>.
+     *
+     * @param container <code>Container</code> holding the realized widget
+     * @param index <code>int</code> index of the widget's first component
+     * @param oldChild <code>Widget</code>
+     * @param newChild <code>Widget</code>
+     * @return <code>int</code> number of operations applied
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    private int patchWidget(Container container, int index, Widget oldChild, Widget newChild)
+            throws ReflectiveOperationException {
+
+        // Declarations
+        Component component;
+        Container panel;
+        int operations, radioIndex;
+
+        component = container.getComponent(index);
+        operations = 0;
+
+        switch (newChild.getType()) {
+            case PANEL:
+                panel = (Container) component;
+                if (!oldChild.hasSameLayout(newChild)) {
+                    this.realizer.applyLayout(panel, newChild);
+                    operations++;
+                }
+                return operations + this.patchChildren(panel, oldChild.getChildren(),
+                    newChild.getChildren());
+            case GROUP:
+                for (radioIndex = 0; radioIndex < newChild.getChildren().size(); radioIndex++) {
+                    operations += this.patchWidget(container, index + radioIndex,
+                        oldChild.getChildren().get(radioIndex),
+                        newChild.getChildren().get(radioIndex));
+                }
+                return operations;
+            case TEXTFIELD:
+                if (!oldChild.hasSameAttributes(newChild)) {
+                    ((JTextField) component).setColumns(newChild.getNumbers()[0]);
+                    operations++;
+                }
+                return operations;
+            case LABEL:
+                if (!oldChild.hasSameAttributes(newChild)) {
+                    ((JLabel) component).setText(newChild.getText());
+                    operations++;
+                }
+                return operations;
+            default: // Buttons and radio buttons
+                if (!oldChild.hasSameAttributes(newChild)) {
+                    ((AbstractButton) component).setText(newChild.getText());
+                    operations++;
+                }
+                return operations;
+        }
+    }
+
+    /**
+     * Removes the specified number of components from the container beginning at the index.
+     * @param container <code>Container</code>
+     * @param index <code>int</code>
+     * @param count <code>int</code>
+     * @return void
+     */
+    private void removeComponents(Container container, int index, int count) {
+        while (count-- > 0) {
+            container.remove(index);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+/**
+ * IncludePathCheck.java - Checks that included paths are resolved against the including file
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * This class guards against command line modes that parse a file without telling the parser
+ * which file it is, leaving the paths of its <code>Include</code>s to be resolved against the
+ * working directory rather than the directory of the including file. Such modes work as expected
+ * when run from the directory of the spec, as during development, and fail everywhere else.
+ * <br />
+ * <br />
+ * A spec, a bundle, and the fragment both of them include are written to a directory of their
+ * own, and each mode is then run in a separate JVM whose working directory is another, empty
+ * directory, such that the fragment can only be found via the directory of the including file.
+ * The following modes are checked:
+ * <ul>
+ * <li><code>batch</code> - <code>java Application --batch</code> upon the spec</li>
+ * <li><code>bundle</code> - <code>java Application --bundle</code> upon the bundle</li>
+ * <li><code>generate</code> - <code>java SourceGenerator</code> upon the spec, whose output
+ *     must contain the fragment's widgets</li>
+ * </ul>
+ * The program exits with a nonzero status if any mode fails. Usage is as follows:
+ * <pre>
+ * java IncludePathCheck
+ * </pre>
+ * <br />
+ * @see ModuleCache
+ * @author Andrew Eissen
+ */
+final class IncludePathCheck {
+
+    // Declarations
+    private static final String FRAGMENT = "Button \"Included\";\n";
+    private static final String SPEC = "Window \"Spec\" (200, 100) Layout Flow:\n"
+        + "Include \"Fragment.inc\";\nEnd.\n";
+    private Path specDirectory, workingDirectory;
+
+    /**
+     * Parameterized constructor
+     * @param root <code>Path</code> of an empty directory in which to write the files
+     * @throws IOException if the files cannot be written
+     */
+    protected IncludePathCheck(Path root) throws IOException {
+        this.specDirectory = Files.createDirectories(root.resolve("spec"));
+        this.workingDirectory = Files.createDirectories(root.resolve("elsewhere"));
+
+        Files.write(this.specDirectory.resolve("Fragment.inc"),
+            FRAGMENT.getBytes(StandardCharsets.UTF_8));
+        Files.write(this.specDirectory.resolve("Spec.txt"),
+            SPEC.getBytes(StandardCharsets.UTF_8));
+        Files.write(this.specDirectory.resolve("Bundle.txt"),
+            (SPEC + SPEC.replace("Spec", "Second")).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Checking methods
+
+    /**
+     * This method runs every mode from the working directory, printing a line for each, and
+     * returns the number of modes that failed.
+     *
+     * @return <code>int</code> number of failed modes
+     * @throws IOException if a mode cannot be run
+     * @throws InterruptedException if interrupted while waiting for a mode to finish
+     */
+    protected int check() throws IOException, InterruptedException {
+
+        // Declarations
+        Path generatedFile;
+        int failures;
+
+        failures = 0;
+        failures += this.report("batch", this.run("Application", "--batch",
+            this.specDirectory.resolve("Spec.txt").toString()) == 0);
+        failures += this.report("bundle", this.run("Application", "--bundle",
+            this.specDirectory.resolve("Bundle.txt").toString()) == 0);
+
+        generatedFile = this.workingDirectory.resolve("IncludedSpec.java");
+        failures += this.report("generate", this.run("SourceGenerator",
+            this.specDirectory.resolve("Spec.txt").toString(), "IncludedSpec") == 0
+            && Files.exists(generatedFile)
+            && new String(Files.readAllBytes(generatedFile), StandardCharsets.UTF_8)
+                .contains("\"Included\""));
+        return failures;
+    }
+
+    /**
+     * Runs the main method of the parameter class in a new JVM sharing this one's class path,
+     * with the working directory as its own, returning its exit status. Its output is passed
+     * through, so that the reason for any failure is shown.
+     *
+     * @param className <code>String</code> class whose main method is run
+     * @param args <code>String...</code> arguments to the main method
+     * @return <code>int</code> exit status
+     * @throws IOException if the JVM cannot be started
+     * @throws InterruptedException if interrupted while waiting for the JVM to exit
+     */
+    private int run(String className, String... args) throws IOException, InterruptedException {
+
+        // Declaration
+        ArrayList<String> command;
+
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Djava.awt.headless=true");
+        command.add("-cp");
+        command.add(new File(System.getProperty("java.class.path")).getAbsolutePath());
+        command.add(className);
+        command.addAll(Arrays.asList(args));
+
+        return new ProcessBuilder(command)
+            .directory(this.workingDirectory.toFile())
+            .inheritIO()
+            .start()
+            .waitFor();
+    }
+
+    /**
+     * Prints the outcome of the parameter mode.
+     * @param mode <code>String</code> name of the mode
+     * @param isPassed <code>boolean</code> whether the mode passed
+     * @return <code>int</code> <code>0</code> if the mode passed, or <code>1</code> otherwise
+     */
+    private int report(String mode, boolean isPassed) {
+        System.out.printf("%-8s %s%n", mode, (isPassed) ? "ok" : "FAILED");
+        return (isPassed) ? 0 : 1;
+    }
+
+    /**
+     * Deletes the parameter directory and everything within it.
+     * @param root <code>Path</code>
+     * @return void
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * The main method writes the files to a temporary directory and checks every mode against
+     * them, exiting with status <code>1</code> if any mode fails.
+     *
+     * @param args <code>String[]</code> command line arguments, unused
+     * @return void
+     * @throws IOException if the files cannot be written or a mode cannot be run
+     * @throws InterruptedException if interrupted while waiting for a mode to finish
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        // Declarations
+        Path root;
+        int failures;
+
+        root = Files.createTempDirectory("include-path-check");
+        try {
+            failures = new IncludePathCheck(root).check();
+        } finally {
+            deleteRecursively(root);
+        }
+
+        System.out.println((failures == 0)
+            ? "All modes resolve includes against the including file"
+            : failures + " mode(s) failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+}
\ No newline at end of file
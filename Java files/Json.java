@@ -0,0 +1,440 @@
+/**
+ * Json.java - Minimal reader and writer of JSON values for the language server
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * This class reads and writes the small subset of JSON used by <code>LanguageServer</code>, as the
+ * program otherwise has no need of a JSON library and is built without any dependencies. Values are
+ * mapped onto plain Java types, such that objects become <code>LinkedHashMap</code>s, arrays become
+ * <code>ArrayList</code>s, numbers become <code>Long</code>s if integral and <code>Double</code>s
+ * otherwise, and <code>true</code>, <code>false</code>, and <code>null</code> become their Java
+ * equivalents. Writing accepts the same types, along with any other <code>Number</code>.
+ * <br />
+ * <br />
+ * As a change to a large document may carry its entire contents in a single string, strings are
+ * read by copying runs of unescaped characters at once rather than one character at a time.
+ * <br />
+ * <br />
+ * @see LanguageServer
+ * @author Andrew Eissen
+ */
+final class Json {
+
+    // Declarations
+    private String text;
+    private int position;
+
+    /**
+     * Parameterized constructor, private as values are read via <code>Json.class.parse</code>
+     * @param text <code>String</code>
+     */
+    private Json(String text) {
+        this.text = text;
+        this.position = 0;
+    }
+
+    // Reading methods
+
+    /**
+     * This method reads the single JSON value making up the parameter text.
+     *
+     * @param text <code>String</code>
+     * @return <code>Object</code>
+     * @throws IOException if the text is not a single well-formed JSON value
+     */
+    protected static Object parse(String text) throws IOException {
+
+        // Declarations
+        Json reader;
+        Object value;
+
+        reader = new Json(text);
+        value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw reader.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+
+    /**
+     * Reads the value beginning at the current position.
+     * @return <code>Object</code>
+     * @throws IOException if the value is malformed
+     */
+    private Object readValue() throws IOException {
+        this.skipWhitespace();
+        if (this.position >= this.text.length()) {
+            throw this.error("Unexpected end of input");
+        }
+
+        switch (this.text.charAt(this.position)) {
+            case '{':
+                return this.readObject();
+            case '[':
+                return this.readArray();
+            case '"':
+                return this.readString();
+            case 't':
+                return this.readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return this.readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return this.readLiteral("null", null);
+            default:
+                return this.readNumber();
+        }
+    }
+
+    /**
+     * Reads the object beginning at the current position.
+     * @return <code>LinkedHashMap</code> of member names to values
+     * @throws IOException if the object is malformed
+     */
+    private LinkedHashMap<String, Object> readObject() throws IOException {
+
+        // Declarations
+        LinkedHashMap<String, Object> object;
+        String name;
+
+        object = new LinkedHashMap<>();
+        this.position++;
+        this.skipWhitespace();
+        if (this.consume('}')) {
+            return object;
+        }
+
+        do {
+            this.skipWhitespace();
+            if (this.position >= this.text.length() || this.text.charAt(this.position) != '"') {
+                throw this.error("Expected member name");
+            }
+            name = this.readString();
+            this.skipWhitespace();
+            if (!this.consume(':')) {
+                throw this.error("Expected ':'");
+            }
+            object.put(name, this.readValue());
+            this.skipWhitespace();
+        } while (this.consume(','));
+
+        if (!this.consume('}')) {
+            throw this.error("Expected ',' or '}'");
+        }
+        return object;
+    }
+
+    /**
+     * Reads the array beginning at the current position.
+     * @return <code>ArrayList</code> of values
+     * @throws IOException if the array is malformed
+     */
+    private ArrayList<Object> readArray() throws IOException {
+
+        // Declaration
+        ArrayList<Object> array;
+
+        array = new ArrayList<>();
+        this.position++;
+        this.skipWhitespace();
+        if (this.consume(']')) {
+            return array;
+        }
+
+        do {
+            array.add(this.readValue());
+            this.skipWhitespace();
+        } while (this.consume(','));
+
+        if (!this.consume(']')) {
+            throw this.error("Expected ',' or ']'");
+        }
+        return array;
+    }
+
+    /**
+     * Reads the string beginning at the current position, copying each run of characters between
+     * escape sequences in one go.
+     *
+     * @return <code>String</code>
+     * @throws IOException if the string is unterminated or contains a malformed escape sequence
+     */
+    private String readString() throws IOException {
+
+        // Declarations
+        StringBuilder builder;
+        int runStart;
+        char character;
+
+        builder = null;
+        runStart = ++this.position;
+
+        while (this.position < this.text.length()) {
+            character = this.text.charAt(this.position);
+            if (character == '"') {
+                if (builder == null) {
+                    return this.text.substring(runStart, this.position++);
+                }
+                builder.append(this.text, runStart, this.position++);
+                return builder.toString();
+            } else if (character != '\\') {
+                this.position++;
+                continue;
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder();
+            }
+            builder.append(this.text, runStart, this.position);
+            if (this.position + 1 >= this.text.length()) {
+                break;
+            }
+
+            character = this.text.charAt(this.position + 1);
+            this.position += 2;
+            switch (character) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (this.position + 4 > this.text.length()) {
+                        throw this.error("Malformed unicode escape");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(
+                            this.text.substring(this.position, this.position + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw this.error("Malformed unicode escape");
+                    }
+                    this.position += 4;
+                    break;
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append(character);
+                    break;
+                default:
+                    throw this.error("Malformed escape sequence");
+            }
+            runStart = this.position;
+        }
+
+        throw this.error("Unterminated string");
+    }
+
+    /**
+     * Reads the number beginning at the current position.
+     * @return <code>Long</code> if integral, otherwise <code>Double</code>
+     * @throws IOException if the number is malformed
+     */
+    private Number readNumber() throws IOException {
+
+        // Declarations
+        String number;
+        boolean isIntegral;
+        int start;
+        char character;
+
+        start = this.position;
+        isIntegral = true;
+        while (this.position < this.text.length()) {
+            character = this.text.charAt(this.position);
+            if (character == '.' || character == 'e' || character == 'E') {
+                isIntegral = false;
+            } else if (character != '-' && character != '+'
+                    && (character < '0' || character > '9')) {
+                break;
+            }
+            this.position++;
+        }
+
+        number = this.text.substring(start, this.position);
+        try {
+            return isIntegral
+                ? (Number) Long.parseLong(number)
+                : (Number) Double.parseDouble(number);
+        } catch (NumberFormatException ex) {
+            throw this.error("Malformed value");
+        }
+    }
+
+    /**
+     * Reads the parameter literal, which must begin at the current position.
+     * @param literal <code>String</code>
+     * @param value <code>Object</code> value of the literal
+     * @return <code>Object</code>
+     * @throws IOException if the literal is not present
+     */
+    private Object readLiteral(String literal, Object value) throws IOException {
+        if (!this.text.startsWith(literal, this.position)) {
+            throw this.error("Malformed value");
+        }
+        this.position += literal.length();
+        return value;
+    }
+
+    // Writing methods
+
+    /**
+     * This method returns the JSON representation of the parameter value.
+     *
+     * @param value <code>Object</code> map, list, string, number, boolean, or <code>null</code>
+     * @return <code>String</code>
+     */
+    protected static String write(Object value) {
+
+        // Declaration
+        StringBuilder builder;
+
+        builder = new StringBuilder();
+        write(value, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends the JSON representation of the parameter value to the builder.
+     * @param value <code>Object</code>
+     * @param builder <code>StringBuilder</code>
+     * @return void
+     * @throws IllegalArgumentException if the value is of a type JSON cannot represent
+     */
+    private static void write(Object value, StringBuilder builder) {
+
+        // Declaration
+        boolean isFirst;
+
+        if (value == null || value instanceof Boolean || value instanceof Number) {
+            builder.append(value);
+        } else if (value instanceof String) {
+            writeString((String) value, builder);
+        } else if (value instanceof Map) {
+            isFirst = true;
+            builder.append('{');
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!isFirst) {
+                    builder.append(',');
+                }
+                writeString(String.valueOf(entry.getKey()), builder);
+                builder.append(':');
+                write(entry.getValue(), builder);
+                isFirst = false;
+            }
+            builder.append('}');
+        } else if (value instanceof List) {
+            isFirst = true;
+            builder.append('[');
+            for (Object element : (List<?>) value) {
+                if (!isFirst) {
+                    builder.append(',');
+                }
+                write(element, builder);
+                isFirst = false;
+            }
+            builder.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value.getClass() + " as JSON");
+        }
+    }
+
+    /**
+     * Appends the parameter string to the builder as a quoted and escaped JSON string.
+     * @param string <code>String</code>
+     * @param builder <code>StringBuilder</code>
+     * @return void
+     */
+    private static void writeString(String string, StringBuilder builder) {
+
+        // Declaration
+        char character;
+
+        builder.append('"');
+        for (int index = 0; index < string.length(); index++) {
+            character = string.charAt(index);
+            switch (character) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        builder.append(character);
+                    }
+                    break;
+            }
+        }
+        builder.append('"');
+    }
+
+    // Helper methods
+
+    /**
+     * Skips any whitespace at the current position.
+     * @return void
+     */
+    private void skipWhitespace() {
+
+        // Declaration
+        char character;
+
+        while (this.position < this.text.length()) {
+            character = this.text.charAt(this.position);
+            if (character != ' ' && character != '\t' && character != '\n' && character != '\r') {
+                return;
+            }
+            this.position++;
+        }
+    }
+
+    /**
+     * Advances past the parameter character if it is found at the current position.
+     * @param character <code>char</code>
+     * @return <code>boolean</code> whether the character was found
+     */
+    private boolean consume(char character) {
+        if (this.position < this.text.length() && this.text.charAt(this.position) == character) {
+            this.position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns an exception describing a malformation found at the current position.
+     * @param message <code>String</code>
+     * @return <code>IOException</code>
+     */
+    private IOException error(String message) {
+        return new IOException(message + " at offset " + this.position);
+    }
+}
\ No newline at end of file
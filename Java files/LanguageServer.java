@@ -0,0 +1,922 @@
+/**
+ * LanguageServer.java - Language Server Protocol server publishing diagnostics for open specs
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class implements the program's language server mode, invoked by passing the
+ * <code>--lsp</code> option to <code>Application.class.main</code>. Rather than choosing a file in
+ * the status GUI and reading the log, authors using an editor with Language Server Protocol
+ * support see the first error of the spec they are editing underlined as they type. The server
+ * speaks JSON-RPC over the standard input and output streams as per the protocol, so the editor
+ * need only be told to run <code>java Application --lsp</code> for <code>.txt</code> specs.
+ * <br />
+ * <br />
+ * The contents of each open document are kept by the server and updated by the ranges of each
+ * <code>textDocument/didChange</code> notification, such that a keystroke in a large document
+ * sends only the characters typed. Validation is debounced, running only once changes have paused
+ * for <code>DEBOUNCE_MILLIS</code>, and each new change cancels any validation still pending for
+ * the document. As a validation already underway cannot be interrupted, each records the
+ * generation of the document it began with and discards its result if the document has changed
+ * since, so stale diagnostics are never published over newer ones.
+ * <br />
+ * <br />
+ * Diagnostics span the line of the token at which the error was found, as given by
+ * <code>Token.getLineNumber</code>. As the parser reports only the first error of a file, at most
+ * one diagnostic is published per document. The parser is warmed up on startup in the manner of
+ * <code>ParseDaemon</code>, so that the first validation is not slowed by JIT compilation.
+ * <br />
+ * <br />
+ * @see Json
+ * @author Andrew Eissen
+ */
+final class LanguageServer {
+
+    // Declarations
+    private static final long DEBOUNCE_MILLIS = 20;
+    private static final int TEXT_DOCUMENT_SYNC_INCREMENTAL = 2;
+    private static final int SEVERITY_ERROR = 1;
+    private static final int INVALID_REQUEST = -32600;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INVALID_PARAMS = -32602;
+    private static final int PARSE_ERROR = -32700;
+    private InputStream input;
+    private OutputStream output;
+    private ConcurrentHashMap<String, Document> documents;
+    private ScheduledExecutorService scheduler;
+    private SpecParser specParser;
+    private boolean isShutdownRequested;
+
+    /**
+     * The state kept for a single open document. Alongside its contents, the tokens of each line
+     * are kept, so that a change need only lex the lines it touches. As tokens never span lines,
+     * the tokens of the remaining lines are reused, only being renumbered should lines be added or
+     * removed above them. Access to every field is synchronized on the document, as changes are
+     * applied by the reading thread while validations run on the scheduler's threads.
+     */
+    private static final class Document {
+
+        // Declarations
+        private String uri;
+        private StringBuilder text;
+        private ArrayList<Token[]> lineTokens;
+        private boolean isLexedByLine;
+        private int version;
+        private long generation;
+        private ScheduledFuture<?> pendingValidation;
+        private CancellationToken runningValidation;
+
+        /**
+         * Parameterized constructor
+         * @param uri <code>String</code>
+         * @param text <code>String</code> initial contents
+         * @param version <code>int</code> initial version
+         * @throws IOException never, as the contents are lexed from memory
+         */
+        private Document(String uri, String text, int version) throws IOException {
+            this.uri = uri;
+            this.text = new StringBuilder(text);
+            this.lineTokens = new ArrayList<>();
+            this.version = version;
+            this.generation = 0;
+            this.lexAll();
+        }
+
+        /**
+         * This method replaces the parameter range of the contents with the new text, or the whole
+         * of the contents if no range is given, and lexes again only the lines of the range as
+         * they read after the replacement.
+         *
+         * @param range <code>Map</code> <code>Range</code>, or <code>null</code>
+         * @param newText <code>String</code>
+         * @return void
+         * @throws IOException never, as the contents are lexed from memory
+         */
+        private void applyChange(Map<?, ?> range, String newText) throws IOException {
+
+            // Declarations
+            int start, end, startLine, endLine, lineDelta;
+
+            if (range == null) {
+                this.text.setLength(0);
+                this.text.append(newText);
+                this.lexAll();
+                return;
+            }
+
+            start = getOffset(this.text, getMap(range, "start"));
+            end = Math.max(start, getOffset(this.text, getMap(range, "end")));
+            startLine = Math.min(getInt(getMap(range, "start"), "line"),
+                this.lineTokens.size() - 1);
+            endLine = Math.max(startLine, Math.min(getInt(getMap(range, "end"), "line"),
+                this.lineTokens.size() - 1));
+            this.text.replace(start, end, newText);
+
+            if (!this.isLexedByLine || hasOtherLineSeparators(newText)) {
+                this.lexAll();
+                return;
+            }
+
+            // Lines ending within the range are replaced by those ending within the new text
+            lineDelta = countLines(this.text, 0, this.text.length()) - this.lineTokens.size();
+            this.lineTokens.subList(startLine, endLine + 1).clear();
+            this.lineTokens.addAll(startLine, this.lexLines(startLine, endLine + lineDelta));
+        }
+
+        /**
+         * Returns the tokens of every line in order, renumbering those of any line whose tokens
+         * were lexed when the line lay elsewhere in the contents.
+         *
+         * @return <code>ArrayList</code> of <code>Token</code>s
+         * @throws IOException never, as the contents are lexed from memory
+         */
+        private ArrayList<Token> getTokens() throws IOException {
+
+            // Declarations
+            ArrayList<Token> tokens;
+            Token[] line;
+
+            tokens = new ArrayList<>();
+            if (!this.isLexedByLine) {
+                new ByteLexer(new ByteArrayInputStream(this.text.toString()
+                    .getBytes(StandardCharsets.UTF_8))).lexInto(tokens);
+                return tokens;
+            }
+
+            for (int index = 0; index < this.lineTokens.size(); index++) {
+                line = this.lineTokens.get(index);
+                if (line.length > 0 && line[0].getLineNumber() != index + 1) {
+                    for (int token = 0; token < line.length; token++) {
+                        line[token] = new Token(line[token].getType(), line[token].getToken(),
+                            index + 1);
+                    }
+                }
+                Collections.addAll(tokens, line);
+            }
+            return tokens;
+        }
+
+        /**
+         * Lexes the whole of the contents. Should the contents contain any separator that
+         * <code>Scanner.nextLine</code> recognizes but the Language Server Protocol does not, the
+         * lines of the two would not agree, so the contents are instead lexed in full whenever
+         * tokens are needed.
+         *
+         * @return void
+         * @throws IOException never, as the contents are lexed from memory
+         */
+        private void lexAll() throws IOException {
+            this.lineTokens.clear();
+            this.isLexedByLine = !hasOtherLineSeparators(this.text);
+            if (this.isLexedByLine) {
+                this.lineTokens.addAll(this.lexLines(0, countLines(this.text, 0,
+                    this.text.length()) - 1));
+            }
+        }
+
+        /**
+         * Lexes the parameter lines of the contents, returning the tokens of each.
+         * @param firstLine <code>int</code> zero-based index of the first line
+         * @param lastLine <code>int</code> zero-based index of the last line, inclusive
+         * @return <code>ArrayList</code> of each line's tokens
+         * @throws IOException never, as the contents are lexed from memory
+         */
+        private ArrayList<Token[]> lexLines(int firstLine, int lastLine) throws IOException {
+
+            // Declarations
+            ArrayList<ArrayList<Token>> lines;
+            ArrayList<Token[]> lexedLines;
+            ByteLexer lexer;
+            Token token;
+            int start, end;
+
+            lines = new ArrayList<>();
+            for (int line = firstLine; line <= lastLine; line++) {
+                lines.add(new ArrayList<>());
+            }
+
+            start = getLineStart(this.text, firstLine);
+            end = getLineStart(this.text, lastLine + 1);
+            lexer = new ByteLexer(new ByteArrayInputStream(this.text.substring(start, end)
+                .getBytes(StandardCharsets.UTF_8)));
+
+            while ((token = lexer.nextToken()) != null) {
+                lines.get(token.getLineNumber() - 1).add(new Token(token.getType(),
+                    token.getToken(), firstLine + token.getLineNumber()));
+            }
+
+            lexedLines = new ArrayList<>(lines.size());
+            for (ArrayList<Token> line : lines) {
+                lexedLines.add(line.toArray(new Token[0]));
+            }
+            return lexedLines;
+        }
+    }
+
+    /**
+     * Parameterized constructor
+     * @param input <code>InputStream</code> from which messages are read
+     * @param output <code>OutputStream</code> to which messages are written
+     */
+    protected LanguageServer(InputStream input, OutputStream output) {
+        this.input = new BufferedInputStream(input);
+        this.output = new BufferedOutputStream(output);
+        this.documents = new ConcurrentHashMap<>();
+        this.scheduler = Executors.newScheduledThreadPool(
+            Runtime.getRuntime().availableProcessors(), (Runnable runnable) -> {
+                Thread thread = new Thread(runnable, "LanguageServer");
+                thread.setDaemon(true); // Never keep the program running on its own
+                return thread;
+            });
+        this.isShutdownRequested = false;
+        this.specParser = new SpecParser();
+    }
+
+    // Server methods
+
+    /**
+     * This method serves the client connected to the standard input and output streams. As any
+     * stray output would corrupt the protocol, the standard output stream is redirected to the
+     * standard error stream for as long as the server runs.
+     *
+     * @return <code>int</code> exit status
+     * @throws IOException if the standard streams fail
+     */
+    protected static int serveStandardStreams() throws IOException {
+
+        // Declaration
+        PrintStream protocolOutput;
+
+        protocolOutput = System.out;
+        System.setOut(System.err);
+        return new LanguageServer(System.in, protocolOutput).serve();
+    }
+
+    /**
+     * This method warms up the parser in the background and handles messages until the input is
+     * exhausted or an <code>exit</code> notification is received, returning the status with which
+     * the program should exit. As per the protocol, this is <code>0</code> only if a
+     * <code>shutdown</code> request preceded the exit.
+     *
+     * @return <code>int</code> exit status
+     * @throws IOException if the input or output streams fail
+     */
+    protected int serve() throws IOException {
+
+        // Declarations
+        String message;
+        Object request;
+
+        this.scheduler.execute(() -> {
+            try {
+                ParseDaemon.warmUp();
+            } catch (IOException ex) {
+                // The parser will simply be warmed up by the first validations instead
+            }
+        });
+
+        while ((message = this.readMessage()) != null) {
+            try {
+                request = Json.parse(message);
+            } catch (IOException ex) {
+                this.sendError(null, PARSE_ERROR, ex.getMessage());
+                continue;
+            }
+
+            if (!(request instanceof Map)) {
+                this.sendError(null, INVALID_REQUEST, "Expected a JSON object");
+            } else if ("exit".equals(((Map<?, ?>) request).get("method"))) {
+                break;
+            } else {
+                try {
+                    this.handleMessage((Map<?, ?>) request);
+                } catch (RuntimeException ex) {
+                    if (((Map<?, ?>) request).get("id") != null) {
+                        this.sendError(((Map<?, ?>) request).get("id"), INVALID_PARAMS,
+                            "Malformed parameters: " + ex);
+                    } else {
+                        System.err.println("Malformed notification: " + ex);
+                    }
+                }
+            }
+        }
+
+        this.scheduler.shutdownNow();
+        return this.isShutdownRequested ? 0 : 1;
+    }
+
+    /**
+     * This method handles a single request or notification, replying to requests the server does
+     * not support with an error and ignoring such notifications, as per the protocol.
+     *
+     * @param message <code>Map</code> JSON-RPC message
+     * @return void
+     * @throws IOException if a reply cannot be written
+     */
+    private void handleMessage(Map<?, ?> message) throws IOException {
+
+        // Declarations
+        Object id, method;
+        Map<?, ?> params;
+
+        id = message.get("id");
+        method = message.get("method");
+        params = (message.get("params") instanceof Map) ? (Map<?, ?>) message.get("params") : null;
+
+        if (method == null) {
+            return; // A response to a request the server never sends
+        } else if (this.isShutdownRequested && id != null) {
+            this.sendError(id, INVALID_REQUEST, "Server is shutting down");
+            return;
+        }
+
+        switch (method.toString()) {
+            case "initialize":
+                this.sendResult(id, this.getCapabilities());
+                break;
+            case "shutdown":
+                this.isShutdownRequested = true;
+                this.sendResult(id, null);
+                break;
+            case "textDocument/didOpen":
+                this.openDocument(getMap(params, "textDocument"));
+                break;
+            case "textDocument/didChange":
+                this.changeDocument(getMap(params, "textDocument"), params.get("contentChanges"));
+                break;
+            case "textDocument/didClose":
+                this.closeDocument(getMap(params, "textDocument"));
+                break;
+            default:
+                if (id != null) {
+                    this.sendError(id, METHOD_NOT_FOUND, "Unsupported method " + method);
+                }
+                break;
+        }
+    }
+
+    // Document methods
+
+    /**
+     * Begins tracking the parameter document and validates it immediately, as no edits are
+     * expected to follow the opening of a document in quick succession.
+     *
+     * @param textDocument <code>Map</code> <code>TextDocumentItem</code>
+     * @return void
+     * @throws IOException never, as the contents are lexed from memory
+     */
+    private void openDocument(Map<?, ?> textDocument) throws IOException {
+
+        // Declaration
+        Document document;
+
+        document = new Document(textDocument.get("uri").toString(),
+            textDocument.get("text").toString(), getInt(textDocument, "version"));
+        this.documents.put(document.uri, document);
+        this.scheduleValidation(document, 0);
+    }
+
+    /**
+     * This method applies the parameter content changes to a tracked document in order, each
+     * either replacing the given range or, if no range is given, the entire contents, and then
+     * schedules the document's validation.
+     *
+     * @param textDocument <code>Map</code> <code>VersionedTextDocumentIdentifier</code>
+     * @param contentChanges <code>Object</code> list of changes
+     * @return void
+     * @throws IOException never, as the contents are lexed from memory
+     */
+    private void changeDocument(Map<?, ?> textDocument, Object contentChanges)
+            throws IOException {
+
+        // Declarations
+        Document document;
+        Map<?, ?> change;
+
+        document = this.documents.get(textDocument.get("uri").toString());
+        if (document == null || !(contentChanges instanceof List)) {
+            return;
+        }
+
+        synchronized (document) {
+            for (Object changeObject : (List<?>) contentChanges) {
+                change = (Map<?, ?>) changeObject;
+                document.applyChange(getMap(change, "range"), change.get("text").toString());
+            }
+            document.version = getInt(textDocument, "version");
+        }
+        this.scheduleValidation(document, DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Stops tracking the parameter document and clears its diagnostics.
+     * @param textDocument <code>Map</code> <code>TextDocumentIdentifier</code>
+     * @return void
+     * @throws IOException if the diagnostics cannot be cleared
+     */
+    private void closeDocument(Map<?, ?> textDocument) throws IOException {
+
+        // Declaration
+        Document document;
+
+        document = this.documents.remove(textDocument.get("uri").toString());
+        if (document == null) {
+            return;
+        }
+
+        synchronized (document) {
+            document.generation++;
+            if (document.pendingValidation != null) {
+                document.pendingValidation.cancel(false);
+            }
+            if (document.runningValidation != null) {
+                document.runningValidation.cancel();
+            }
+        }
+        this.publishDiagnostics(document.uri, null, new ArrayList<>());
+    }
+
+    // Validation methods
+
+    /**
+     * Schedules the validation of the parameter document after the given delay, cancelling any
+     * validation of the document still pending and advancing its generation. Any validation
+     * already underway is cancelled as well, so that a long parse of an outdated version does not
+     * keep a thread of the scheduler from the current one.
+     *
+     * @param document <code>Document</code>
+     * @param delayMillis <code>long</code>
+     * @return void
+     */
+    private void scheduleValidation(Document document, long delayMillis) {
+
+        // Declaration
+        long generation;
+
+        synchronized (document) {
+            generation = ++document.generation;
+            if (document.pendingValidation != null) {
+                document.pendingValidation.cancel(false);
+            }
+            if (document.runningValidation != null) {
+                document.runningValidation.cancel();
+            }
+            document.pendingValidation = this.scheduler.schedule(
+                () -> this.validate(document, generation), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * This method parses the tokens of the parameter document and publishes the resulting
+     * diagnostics, unless the document has since changed or been closed. Should the parse itself
+     * fail, that failure is published in place of the diagnostics, such that none are left over
+     * from an earlier version of the document. A failure to publish is reported to the standard
+     * error stream, as the client has no request to which it could be returned.
+     *
+     * @param document <code>Document</code>
+     * @param generation <code>long</code> generation of the document when scheduled
+     * @return void
+     */
+    private void validate(Document document, long generation) {
+
+        // Declarations
+        CancellationToken cancellationToken;
+        ParseContext context;
+        ParseResult result;
+        RuntimeException failure;
+        ArrayList<Object> diagnostics;
+        ArrayList<Token> tokens;
+        int version;
+
+        try {
+            synchronized (document) {
+                if (document.generation != generation) {
+                    return;
+                }
+                tokens = document.getTokens();
+                version = document.version;
+                cancellationToken = new CancellationToken();
+                document.runningValidation = cancellationToken;
+            }
+
+            context = new ParseContext();
+            context.setCancellationToken(cancellationToken);
+            if (document.uri.startsWith("file:")) {
+                context.setSourceFile(Paths.get(URI.create(document.uri)).toFile());
+            }
+            try {
+                result = this.specParser.parse(tokens, context);
+                failure = null;
+            } catch (RuntimeException ex) {
+                System.err.println("Unable to validate " + document.uri + ": " + ex);
+                result = null;
+                failure = ex;
+            }
+
+            synchronized (document) {
+                if (document.runningValidation == cancellationToken) {
+                    document.runningValidation = null;
+                }
+                if (document.generation == generation
+                        && (result == null || !result.isCancelled())) {
+                    diagnostics = new ArrayList<>();
+                    if (result == null) {
+                        diagnostics.add(createDiagnostic(failure));
+                    } else if (!result.isSuccessful()) {
+                        diagnostics.add(createDiagnostic(document.text, result));
+                    }
+                    this.publishDiagnostics(document.uri, version, diagnostics);
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("Unable to publish diagnostics of " + document.uri + ": " + ex);
+        }
+    }
+
+    /**
+     * Creates the diagnostic of the parameter failed parse, spanning the whole of the line on which
+     * the error was found. The line number already appended to the error message by the parser is
+     * removed, as the editor shows the diagnostic at the line itself.
+     *
+     * @param text <code>CharSequence</code> contents of the document as parsed
+     * @param result <code>ParseResult</code> of a failed parse
+     * @return <code>Map</code> <code>Diagnostic</code>
+     */
+    private static Map<String, Object> createDiagnostic(CharSequence text, ParseResult result) {
+
+        // Declarations
+        LinkedHashMap<String, Object> diagnostic;
+        String message, lineSuffix;
+        int line, lineStart, lineEnd;
+
+        line = Math.max(0, result.getErrorLineNumber() - 1);
+        lineStart = getLineStart(text, line);
+        lineEnd = lineStart;
+        while (lineEnd < text.length() && text.charAt(lineEnd) != '\n'
+                && text.charAt(lineEnd) != '\r') {
+            lineEnd++;
+        }
+
+        message = result.getErrorMessage();
+        lineSuffix = " (line " + result.getErrorLineNumber() + ")";
+        if (message.endsWith(lineSuffix)) {
+            message = message.substring(0, message.length() - lineSuffix.length());
+        }
+
+        diagnostic = new LinkedHashMap<>();
+        diagnostic.put("range", createRange(line, 0, line, lineEnd - lineStart));
+        diagnostic.put("severity", SEVERITY_ERROR);
+        diagnostic.put("source", "rdp");
+        diagnostic.put("message", message);
+        return diagnostic;
+    }
+
+    /**
+     * Creates the diagnostic of the parameter failure of the parser itself, spanning the start of
+     * the first line, as no line of the document can be blamed.
+     *
+     * @param failure <code>RuntimeException</code> thrown by the parser
+     * @return <code>Map</code> <code>Diagnostic</code>
+     */
+    private static Map<String, Object> createDiagnostic(RuntimeException failure) {
+
+        // Declaration
+        LinkedHashMap<String, Object> diagnostic;
+
+        diagnostic = new LinkedHashMap<>();
+        diagnostic.put("range", createRange(0, 0, 0, 0));
+        diagnostic.put("severity", SEVERITY_ERROR);
+        diagnostic.put("source", "rdp");
+        diagnostic.put("message", "Unable to validate: " + failure);
+        return diagnostic;
+    }
+
+    // Messaging methods
+
+    /**
+     * This method reads the content of the next message, or returns <code>null</code> if the input
+     * is exhausted. Each message is preceded by a block of headers ended by an empty line, of which
+     * only <code>Content-Length</code> is used.
+     *
+     * @return <code>String</code>
+     * @throws IOException if the input fails or a message has no content length
+     */
+    private String readMessage() throws IOException {
+
+        // Declarations
+        StringBuilder header;
+        byte[] content;
+        int character, contentLength, read, offset;
+
+        contentLength = -1;
+        header = new StringBuilder();
+
+        while (true) {
+            character = this.input.read();
+            if (character == -1) {
+                return null;
+            } else if (character == '\r') {
+                continue;
+            } else if (character != '\n') {
+                header.append((char) character);
+                continue;
+            }
+
+            if (header.length() == 0) {
+                break;
+            } else if (header.toString().toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                contentLength = Integer.parseInt(header.substring(15).trim());
+            }
+            header.setLength(0);
+        }
+
+        if (contentLength < 0) {
+            throw new IOException("Message has no Content-Length header");
+        }
+
+        content = new byte[contentLength];
+        for (offset = 0; offset < contentLength; offset += read) {
+            read = this.input.read(content, offset, contentLength - offset);
+            if (read == -1) {
+                return null;
+            }
+        }
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the parameter message, preceded by its content length. Writes are synchronized, as
+     * diagnostics are published from the scheduler's threads while replies are written by the
+     * reading thread.
+     *
+     * @param message <code>Map</code> JSON-RPC message
+     * @return void
+     * @throws IOException if the output fails
+     */
+    private synchronized void writeMessage(Map<String, Object> message) throws IOException {
+
+        // Declaration
+        byte[] content;
+
+        message.put("jsonrpc", "2.0");
+        content = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        this.output.write(("Content-Length: " + content.length + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII));
+        this.output.write(content);
+        this.output.flush();
+    }
+
+    /**
+     * Replies to the request of the parameter identifier with a result.
+     * @param id <code>Object</code> request identifier
+     * @param result <code>Object</code>
+     * @return void
+     * @throws IOException if the output fails
+     */
+    private void sendResult(Object id, Object result) throws IOException {
+
+        // Declaration
+        LinkedHashMap<String, Object> response;
+
+        response = new LinkedHashMap<>();
+        response.put("id", id);
+        response.put("result", result);
+        this.writeMessage(response);
+    }
+
+    /**
+     * Replies to the request of the parameter identifier with an error.
+     * @param id <code>Object</code> request identifier, or <code>null</code> if unknown
+     * @param code <code>int</code> JSON-RPC error code
+     * @param errorMessage <code>String</code>
+     * @return void
+     * @throws IOException if the output fails
+     */
+    private void sendError(Object id, int code, String errorMessage) throws IOException {
+
+        // Declarations
+        LinkedHashMap<String, Object> response, error;
+
+        error = new LinkedHashMap<>();
+        error.put("code", code);
+        error.put("message", errorMessage);
+
+        response = new LinkedHashMap<>();
+        response.put("id", id);
+        response.put("error", error);
+        this.writeMessage(response);
+    }
+
+    /**
+     * Publishes the parameter diagnostics of a document, replacing any published previously.
+     * @param uri <code>String</code>
+     * @param version <code>Integer</code> version of the document diagnosed, or <code>null</code>
+     * @param diagnostics <code>ArrayList</code> of diagnostics
+     * @return void
+     * @throws IOException if the output fails
+     */
+    private void publishDiagnostics(String uri, Integer version, ArrayList<Object> diagnostics)
+            throws IOException {
+
+        // Declarations
+        LinkedHashMap<String, Object> notification, params;
+
+        params = new LinkedHashMap<>();
+        params.put("uri", uri);
+        if (version != null) {
+            params.put("version", version);
+        }
+        params.put("diagnostics", diagnostics);
+
+        notification = new LinkedHashMap<>();
+        notification.put("method", "textDocument/publishDiagnostics");
+        notification.put("params", params);
+        this.writeMessage(notification);
+    }
+
+    // Helper methods
+
+    /**
+     * Returns the result of the <code>initialize</code> request, advertising incremental document
+     * synchronization and nothing more.
+     *
+     * @return <code>Map</code> <code>InitializeResult</code>
+     */
+    private Map<String, Object> getCapabilities() {
+
+        // Declarations
+        LinkedHashMap<String, Object> result, capabilities, textDocumentSync, serverInfo;
+
+        textDocumentSync = new LinkedHashMap<>();
+        textDocumentSync.put("openClose", true);
+        textDocumentSync.put("change", TEXT_DOCUMENT_SYNC_INCREMENTAL);
+
+        capabilities = new LinkedHashMap<>();
+        capabilities.put("textDocumentSync", textDocumentSync);
+
+        serverInfo = new LinkedHashMap<>();
+        serverInfo.put("name", "RecursiveDescentParser");
+        serverInfo.put("version", String.valueOf(RecursiveDescentParser.PARSER_VERSION));
+
+        result = new LinkedHashMap<>();
+        result.put("capabilities", capabilities);
+        result.put("serverInfo", serverInfo);
+        return result;
+    }
+
+    /**
+     * Returns the offset into the parameter text of an LSP <code>Position</code>, whose character
+     * is counted in UTF-16 code units just as Java's <code>char</code>s are. Positions beyond the
+     * end of a line or of the text are clamped to that end.
+     *
+     * @param text <code>CharSequence</code>
+     * @param position <code>Map</code> <code>Position</code>
+     * @return <code>int</code>
+     */
+    private static int getOffset(CharSequence text, Map<?, ?> position) {
+
+        // Declarations
+        int character, offset;
+
+        character = getInt(position, "character");
+        offset = getLineStart(text, getInt(position, "line"));
+        while (character > 0 && offset < text.length() && text.charAt(offset) != '\n'
+                && text.charAt(offset) != '\r') {
+            offset++;
+            character--;
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the offset of the start of the parameter zero-based line, or the length of the text
+     * if the text has fewer lines. Lines end at <code>\n</code>, <code>\r\n</code>, or
+     * <code>\r</code>, as per the Language Server Protocol.
+     *
+     * @param text <code>CharSequence</code>
+     * @param line <code>int</code>
+     * @return <code>int</code>
+     */
+    private static int getLineStart(CharSequence text, int line) {
+
+        // Declarations
+        int offset;
+        char character;
+
+        offset = 0;
+        while (line > 0 && offset < text.length()) {
+            character = text.charAt(offset++);
+            if (character == '\n' || (character == '\r'
+                    && (offset == text.length() || text.charAt(offset) != '\n'))) {
+                line--;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the number of lines of the parameter text up to the given offset, counting the line
+     * on which the offset falls.
+     *
+     * @param text <code>CharSequence</code>
+     * @param start <code>int</code> offset from which to count, which must begin a line
+     * @param end <code>int</code> offset up to which to count
+     * @return <code>int</code>
+     */
+    private static int countLines(CharSequence text, int start, int end) {
+
+        // Declarations
+        int lines;
+        char character;
+
+        lines = 1;
+        for (int offset = start; offset < end; offset++) {
+            character = text.charAt(offset);
+            if (character == '\n' || (character == '\r'
+                    && (offset + 1 == text.length() || text.charAt(offset + 1) != '\n'))) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Determines whether the parameter text contains any line separator recognized by
+     * <code>Scanner.nextLine</code> but not by the Language Server Protocol.
+     *
+     * @param text <code>CharSequence</code>
+     * @return <code>boolean</code>
+     */
+    private static boolean hasOtherLineSeparators(CharSequence text) {
+
+        // Declaration
+        char character;
+
+        for (int offset = 0; offset < text.length(); offset++) {
+            character = text.charAt(offset);
+            if (character == '\u0085' || character == '\u2028' || character == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates an LSP <code>Range</code> of the parameter zero-based lines and characters.
+     * @param startLine <code>int</code>
+     * @param startCharacter <code>int</code>
+     * @param endLine <code>int</code>
+     * @param endCharacter <code>int</code>
+     * @return <code>Map</code> <code>Range</code>
+     */
+    private static Map<String, Object> createRange(int startLine, int startCharacter, int endLine,
+            int endCharacter) {
+
+        // Declarations
+        LinkedHashMap<String, Object> range, start, end;
+
+        start = new LinkedHashMap<>();
+        start.put("line", startLine);
+        start.put("character", startCharacter);
+
+        end = new LinkedHashMap<>();
+        end.put("line", endLine);
+        end.put("character", endCharacter);
+
+        range = new LinkedHashMap<>();
+        range.put("start", start);
+        range.put("end", end);
+        return range;
+    }
+
+    /**
+     * Returns the object member of the parameter name, or <code>null</code> if absent.
+     * @param object <code>Map</code>, or <code>null</code>
+     * @param name <code>String</code>
+     * @return <code>Map</code>
+     */
+    private static Map<?, ?> getMap(Map<?, ?> object, String name) {
+        return (object != null && object.get(name) instanceof Map)
+            ? (Map<?, ?>) object.get(name)
+            : null;
+    }
+
+    /**
+     * Returns the integral member of the parameter name, or <code>0</code> if absent.
+     * @param object <code>Map</code>
+     * @param name <code>String</code>
+     * @return <code>int</code>
+     */
+    private static int getInt(Map<?, ?> object, String name) {
+        return (object.get(name) instanceof Number) ? ((Number) object.get(name)).intValue() : 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+/**
+ * LatencyHistogram.java - Lock-free histogram of durations with logarithmic buckets
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records durations in nanoseconds so that percentiles may be reported by
+ * <code>ParserMetrics</code> without keeping every recorded duration. Each power of two is split
+ * into four buckets, so that any reported percentile is within roughly a fifth of the true value
+ * while a fixed 256 buckets cover every possible <code>long</code> duration. Durations below eight
+ * nanoseconds are counted exactly.
+ * <br />
+ * <br />
+ * Buckets are <code>LongAdder</code>s and the maximum a <code>LongAccumulator</code>, meaning many
+ * threads may record durations at once without contending on a lock. Percentiles are computed from
+ * a snapshot of the buckets, which may be very slightly out of date if durations are recorded
+ * during the computation.
+ * <br />
+ * <br />
+ * @see java.util.concurrent.atomic.LongAdder
+ * @author Andrew Eissen
+ */
+final class LatencyHistogram {
+
+    // Declarations
+    private static final int BUCKET_COUNT = 256;
+    private LongAdder[] buckets;
+    private LongAccumulator maximum;
+
+    /**
+     * Default constructor
+     */
+    protected LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKET_COUNT];
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            this.buckets[index] = new LongAdder();
+        }
+        this.maximum = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records the parameter duration.
+     * @param nanos <code>long</code> duration in nanoseconds
+     * @return void
+     */
+    protected void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        this.buckets[getBucketIndex(nanos)].increment();
+        this.maximum.accumulate(nanos);
+    }
+
+    /**
+     * Returns the total number of durations recorded.
+     * @return <code>long</code>
+     */
+    protected long getCount() {
+
+        // Declaration
+        long count;
+
+        count = 0;
+        for (LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the longest duration recorded, in nanoseconds.
+     * @return <code>long</code>
+     */
+    protected long getMaximum() {
+        return this.maximum.get();
+    }
+
+    /**
+     * This method returns the duration below which the parameter fraction of recorded durations
+     * fall, given as the upper bound of the bucket containing that duration (though never more than
+     * the longest duration recorded), or <code>0</code> if nothing has been recorded.
+     *
+     * @param fraction <code>double</code> between 0 and 1, such as 0.99 for the 99th percentile
+     * @return <code>long</code> duration in nanoseconds
+     */
+    protected long getPercentile(double fraction) {
+
+        // Declarations
+        long[] counts;
+        long total, rank, seen;
+        int index;
+
+        counts = new long[BUCKET_COUNT];
+        total = 0;
+        for (index = 0; index < BUCKET_COUNT; index++) {
+            counts[index] = this.buckets[index].sum();
+            total += counts[index];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        rank = Math.max(1, (long) Math.ceil(fraction * total));
+        seen = 0;
+        for (index = 0; index < BUCKET_COUNT; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                break;
+            }
+        }
+        return Math.min(getBucketUpperBound(index), this.getMaximum());
+    }
+
+    /**
+     * Discards all recorded durations.
+     * @return void
+     */
+    protected void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.maximum.reset();
+    }
+
+    // Helper methods
+
+    /**
+     * Returns the index of the bucket into which the parameter duration falls. The exponent of the
+     * duration's highest set bit selects a group of four buckets, and the two bits below it select
+     * the bucket within the group.
+     *
+     * @param nanos <code>long</code> non-negative duration
+     * @return <code>int</code>
+     */
+    private static int getBucketIndex(long nanos) {
+
+        // Declaration
+        int exponent;
+
+        if (nanos < 8) {
+            return (int) nanos;
+        }
+        exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        return 8 + (exponent - 3) * 4 + (int) ((nanos >>> (exponent - 2)) & 3);
+    }
+
+    /**
+     * Returns the largest duration falling into the bucket of the parameter index.
+     * @param index <code>int</code>
+     * @return <code>long</code>
+     */
+    private static long getBucketUpperBound(int index) {
+
+        // Declarations
+        int exponent, subBucket;
+
+        if (index < 8) {
+            return index;
+        } else if (index >= getBucketIndex(Long.MAX_VALUE)) {
+            return Long.MAX_VALUE;
+        }
+        exponent = (index - 8) / 4 + 3;
+        subBucket = (index - 8) % 4;
+        return ((4L + subBucket + 1) << (exponent - 2)) - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+/**
+ * LogSink.java - Buffers status log entries and flushes them to the log in batches
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.awt.event.*;
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+
+/**
+ * This class sits between <code>Application.class.addLogEntry</code> and the status GUI's
+ * <code>JTextArea</code> log. Previously, each log entry was appended straight to the text area,
+ * meaning a file of a million tokens resulted in a million separate document mutations and a log
+ * that grew without bound. Entries are now placed in a bounded ring buffer, which is cheap to do
+ * from any thread, and a <code>javax.swing.Timer</code> flushes the buffered entries to the text
+ * area in a single append on the Event Dispatch Thread at a fixed rate.
+ * <br />
+ * <br />
+ * Should entries arrive faster than they are flushed, the oldest buffered entries are overwritten
+ * and a count of dropped entries is kept, which is reported in the log at the next flush. The text
+ * area itself is likewise trimmed to the most recent <code>capacity</code> lines.
+ * <br />
+ * <br />
+ * @see javax.swing.Timer
+ * @author Andrew Eissen
+ */
+final class LogSink implements ActionListener {
+
+    // Declarations
+    private static final int FLUSH_INTERVAL_MILLIS = 100;
+    private JTextArea logTextArea;
+    private String[] ringBuffer;
+    private int head, size;
+    private long droppedEntries;
+    private Timer flushTimer;
+
+    /**
+     * Parameterized constructor
+     * @param logTextArea <code>JTextArea</code> to which entries are flushed
+     * @param capacity <code>int</code> maximum number of buffered and displayed lines
+     */
+    protected LogSink(JTextArea logTextArea, int capacity) {
+        this.logTextArea = logTextArea;
+        this.ringBuffer = new String[capacity];
+        this.head = 0;
+        this.size = 0;
+        this.droppedEntries = 0;
+        this.flushTimer = new Timer(FLUSH_INTERVAL_MILLIS, this);
+        this.flushTimer.start();
+    }
+
+    /**
+     * Adds a new entry to the ring buffer, overwriting the oldest buffered entry if the buffer is
+     * full. This method may be called from any thread.
+     *
+     * @param message <code>String</code> message contents
+     * @return void
+     */
+    protected synchronized void addLogEntry(String message) {
+        if (this.size == this.ringBuffer.length) {
+            this.ringBuffer[this.head] = message;
+            this.head = (this.head + 1) % this.ringBuffer.length;
+            this.droppedEntries++;
+        } else {
+            this.ringBuffer[(this.head + this.size++) % this.ringBuffer.length] = message;
+        }
+    }
+
+    /**
+     * Discards all buffered entries that have yet to be flushed, used when the log is cleared.
+     * @return void
+     */
+    protected synchronized void clear() {
+        this.head = 0;
+        this.size = 0;
+        this.droppedEntries = 0;
+    }
+
+    /**
+     * Called by the flush timer on the Event Dispatch Thread at a fixed rate.
+     * @param e <code>ActionEvent</code>
+     * @return void
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        this.flush();
+    }
+
+    /**
+     * This method drains the ring buffer into a single <code>String</code> which is then appended
+     * to the text area in one operation, after which the text area is trimmed to the buffer's
+     * capacity. Must be called on the Event Dispatch Thread.
+     *
+     * @return void
+     */
+    protected void flush() {
+
+        // Declaration
+        StringBuilder entries;
+
+        synchronized (this) {
+            if (this.size == 0) {
+                return;
+            }
+
+            entries = new StringBuilder();
+            if (this.droppedEntries > 0) {
+                entries.append("[").append(this.droppedEntries)
+                    .append(" log entries dropped]\n");
+                this.droppedEntries = 0;
+            }
+
+            while (this.size > 0) {
+                entries.append(this.ringBuffer[this.head]).append('\n');
+                this.ringBuffer[this.head] = null;
+                this.head = (this.head + 1) % this.ringBuffer.length;
+                this.size--;
+            }
+        }
+
+        this.logTextArea.append(entries.toString());
+        this.trimLogTextArea();
+    }
+
+    /**
+     * Removes the oldest lines of the text area should it contain more lines than the capacity.
+     * @return void
+     */
+    private void trimLogTextArea() {
+
+        // Declaration
+        int excessLines;
+
+        // Last line is the empty line following the final newline
+        excessLines = this.logTextArea.getLineCount() - 1 - this.ringBuffer.length;
+        if (excessLines > 0) {
+            try {
+                this.logTextArea.replaceRange("", 0,
+                    this.logTextArea.getLineEndOffset(excessLines - 1));
+            } catch (BadLocationException ex) {
+                this.logTextArea.setText("");
+            }
+        }
+    }
+}
\ No newline at end of file
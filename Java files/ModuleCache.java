@@ -0,0 +1,555 @@
+/**
+ * ModuleCache.java - Process-wide cache of included files, loaded in parallel
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class loads the files named by <code>Include "path";</code> widgets, allowing large specs
+ * to be split into shared fragments like headers and common button bars. An included file consists
+ * solely of widgets, without the <code>Window</code> header or final <code>End.</code> of a whole
+ * file, and its widgets take the place of the <code>Include</code> just as a template's do that of
+ * a <code>Use</code>. Paths are resolved relative to the directory of the including file, or of the
+ * working directory if the including contents have no file.
+ * <br />
+ * <br />
+ * Each included file is lexed and parsed once per process for each set of limits it is parsed
+ * under, with the result kept under the file's canonical path and limits along with its
+ * modification time, so that a file changed on disk is reloaded the
+ * next time it is included. A file's parsed result is also discarded if any file it includes was
+ * itself reloaded, as the result contains that file's widgets. Results are shared rather than
+ * copied, as widget trees are never modified once parsed.
+ * <br />
+ * <br />
+ * Includes are resolved before parsing in three steps. First, the included files are lexed in
+ * parallel, each file's tokens scanned for further includes which are then queued in turn, until
+ * the whole graph of includes is known. As no task waits on another, the bounded pool cannot
+ * deadlock. Second, the graph is searched for cycles, with every file on a cycle given a failed
+ * result naming the cycle rather than being parsed. Finally, the remaining files are parsed
+ * starting with those including nothing, with every file whose includes have all been parsed
+ * being parsed in parallel.
+ * <br />
+ * <br />
+ * Included files are lexed and parsed under the <code>ParseLimits</code> of the including parse,
+ * such that a caller restricting the size of its input cannot be made to read a larger file by
+ * an <code>Include</code> of it, and stop upon the cancellation of its
+ * <code>CancellationToken</code>, which the lexer of each included file checks as it reads. The
+ * including parse waits on the files being lexed no longer than the token's deadline, and stops
+ * once the token is cancelled, leaving the files still being lexed to stop in turn. Paths naming
+ * anything other than a regular file, such as a FIFO or device, are refused without being
+ * opened, as opening them may itself block indefinitely. Cancelled results are returned to the
+ * cancelled parse alone and never kept.
+ * <br />
+ * <br />
+ * @see RecursiveDescentParser
+ * @author Andrew Eissen
+ */
+final class ModuleCache {
+
+    // Declarations
+    private static final ModuleCache INSTANCE = new ModuleCache();
+    private static final long POLL_INTERVAL_NANOS = 50_000_000L; // For tokens without deadlines
+    private ConcurrentHashMap<String, Module> modules;
+    private ExecutorService executor;
+
+    /**
+     * A single included file, as of a single modification time and lexed and parsed under a single
+     * set of limits, along with its tokens and most recent parsed result.
+     */
+    private static final class Module {
+
+        // Declarations
+        private final String path;
+        private final long lastModified;
+        private final ParseLimits limits;
+        private ArrayList<Token> tokens;
+        private ArrayList<String> includes;
+        private String readError;
+        private ParseResult fragment;
+        private ParseResult[] dependencies;
+
+        /**
+         * Parameterized constructor
+         * @param path <code>String</code> canonical path of the file
+         * @param lastModified <code>long</code> modification time of the file
+         * @param limits <code>ParseLimits</code> under which the file is lexed and parsed
+         */
+        private Module(String path, long lastModified, ParseLimits limits) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.limits = limits;
+        }
+
+        /**
+         * Lexes the file and finds its includes, unless already done. Files that cannot be read
+         * record an error message in place of tokens, as do those exceeding the limits of the
+         * module, being those of the parses including it. Lexing stops
+         * upon the cancellation of the parameter token, with nothing recorded, such that the file
+         * is lexed afresh by the next parse including it.
+         *
+         * @param cancellationToken <code>CancellationToken</code> of the including parse
+         * @return void
+         */
+        private synchronized void lex(CancellationToken cancellationToken) {
+
+            // Declarations
+            File file;
+            ByteLexer lexer;
+
+            if (this.tokens != null || this.readError != null) {
+                return;
+            }
+
+            file = new File(this.path);
+            if (file.exists() && !Files.isRegularFile(file.toPath())) {
+                this.includes = new ArrayList<>();
+                this.readError = "Error: Included file '" + file.getName()
+                    + "' is not a regular file";
+                return;
+            }
+
+            try (InputStream inputContents = SpecInput.open(file)) {
+                this.tokens = new ArrayList<>();
+                lexer = new ByteLexer(inputContents);
+                lexer.setLimits(this.limits);
+                lexer.setCancellationToken(cancellationToken);
+                lexer.lexInto(this.tokens);
+                this.includes = findIncludes(file.getParentFile(), this.tokens);
+            } catch (CancellationToken.CancelledException ex) {
+                this.tokens = null;
+                this.includes = new ArrayList<>();
+            } catch (ParseLimits.ExceededException ex) {
+                this.tokens = null;
+                this.includes = new ArrayList<>();
+                this.readError = ex.getMessage();
+            } catch (IOException ex) {
+                this.tokens = null;
+                this.includes = new ArrayList<>();
+                this.readError = "Error: Unable to read included file '" + file.getName() + "': "
+                    + ex;
+            }
+        }
+
+        /**
+         * This method returns the parsed result of the file, parsing it only if it has not been
+         * parsed before or if the results of any of its includes have changed since. A cancelled
+         * result is returned without replacing the last result kept.
+         *
+         * @param resolved <code>Map</code> of canonical paths to results of the file's includes
+         * @param cancellationToken <code>CancellationToken</code> of the including parse
+         * @return <code>ParseResult</code>
+         */
+        private synchronized ParseResult parse(Map<String, ParseResult> resolved,
+                CancellationToken cancellationToken) {
+
+            // Declarations
+            ParseResult[] currentDependencies;
+            RecursiveDescentParser parser;
+            ParseResult result;
+            boolean isCurrent;
+
+            if (this.readError != null) {
+                return new ParseResult(null, this.readError, 0, 0);
+            }
+
+            currentDependencies = new ParseResult[this.includes.size()];
+            isCurrent = this.fragment != null;
+            for (int index = 0; index < currentDependencies.length; index++) {
+                currentDependencies[index] = resolved.get(this.includes.get(index));
+                isCurrent = isCurrent && currentDependencies[index] == this.dependencies[index];
+            }
+
+            if (isCurrent) {
+                return this.fragment;
+            }
+
+            parser = new RecursiveDescentParser();
+            parser.setSourceFile(new File(this.path));
+            parser.setLimits(this.limits);
+            parser.setCancellationToken(cancellationToken);
+            result = parser.parseFragment(this.tokens, resolved);
+            if (!result.isCancelled()) {
+                this.fragment = result;
+                this.dependencies = currentDependencies;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Default constructor, private as the only instance is <code>INSTANCE</code>
+     */
+    private ModuleCache() {
+        this.modules = new ConcurrentHashMap<>();
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+            (Runnable task) -> {
+                Thread thread = new Thread(task, "ModuleCache");
+                thread.setDaemon(true); // Never keep the program running on its own
+                return thread;
+            });
+    }
+
+    /**
+     * Getter for the process-wide instance
+     * @return <code>ModuleCache</code>
+     */
+    protected static ModuleCache getInstance() {
+        return INSTANCE;
+    }
+
+    // Resolution methods
+
+    /**
+     * This method loads and parses every file included, directly or otherwise, by the parameter
+     * tokens, returning the result of each by canonical path. Contents without any includes are
+     * given an empty map without further work. Files that could not be loaded at all, as when
+     * the loading thread is interrupted or the parse is cancelled, are simply absent from the map.
+     *
+     * @param sourceFile <code>File</code> the tokens were lexed from, or <code>null</code>
+     * @param tokens <code>ArrayList</code> of the including file's <code>Token</code>s
+     * @param limits <code>ParseLimits</code> of the including parse
+     * @param cancellationToken <code>CancellationToken</code> of the including parse
+     * @return <code>Map</code> of canonical paths to <code>ParseResult</code>s
+     */
+    protected Map<String, ParseResult> resolve(File sourceFile, ArrayList<Token> tokens,
+            ParseLimits limits, CancellationToken cancellationToken) {
+
+        // Declarations
+        HashMap<String, ArrayList<String>> graph;
+        HashMap<String, Module> loaded;
+        HashMap<String, ParseResult> resolved;
+        String rootPath;
+
+        if (!containsInclude(tokens)) {
+            return Collections.emptyMap();
+        }
+
+        // Contents without a file are given a key no canonical path can equal
+        rootPath = (sourceFile != null) ? resolvePath(null, sourceFile.getPath()) : "";
+        graph = new HashMap<>();
+        graph.put(rootPath, findIncludes(getBaseDirectory(sourceFile), tokens));
+        loaded = new HashMap<>();
+        resolved = new HashMap<>();
+
+        try {
+            if (!this.discoverModules(rootPath, graph, loaded, limits, cancellationToken)) {
+                return resolved;
+            }
+            this.detectCycles(rootPath, graph, new ArrayList<>(), new HashSet<>(), resolved);
+            this.parseModules(graph, loaded, resolved, cancellationToken);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+        return resolved;
+    }
+
+    /**
+     * Lexes every file reachable from the including file in parallel, adding each file's includes
+     * to the parameter graph as they become known. Files are waited upon no longer than the
+     * deadline of the cancellation token, and the token is checked at least every
+     * <code>POLL_INTERVAL_NANOS</code> while waiting, such that a file that is slow to read
+     * cannot hold the parse beyond its deadline. Files still being lexed upon cancellation stop
+     * as their lexers next check the token.
+     *
+     * @param rootPath <code>String</code> key of the including file
+     * @param graph <code>HashMap</code> of paths to the paths they include
+     * @param loaded <code>HashMap</code> of paths to lexed <code>Module</code>s
+     * @param limits <code>ParseLimits</code> of the including parse
+     * @param cancellationToken <code>CancellationToken</code> of the including parse
+     * @return <code>boolean</code> whether every file was lexed before cancellation
+     * @throws InterruptedException if interrupted while waiting for a file to be lexed
+     * @throws ExecutionException if lexing a file fails unexpectedly
+     */
+    private boolean discoverModules(String rootPath, HashMap<String, ArrayList<String>> graph,
+            HashMap<String, Module> loaded, ParseLimits limits,
+            CancellationToken cancellationToken)
+            throws InterruptedException, ExecutionException {
+
+        // Declarations
+        ExecutorCompletionService<Module> completionService;
+        Future<Module> lexed;
+        HashSet<String> submitted;
+        ArrayDeque<String> queued;
+        Module module;
+        int outstanding;
+
+        completionService = new ExecutorCompletionService<>(this.executor);
+        submitted = new HashSet<>();
+        submitted.add(rootPath);
+        queued = new ArrayDeque<>(graph.get(rootPath));
+        outstanding = 0;
+
+        do {
+            while (!queued.isEmpty()) {
+                final String path = queued.poll();
+                if (submitted.add(path)) {
+                    completionService.submit(() -> this.load(path, limits, cancellationToken));
+                    outstanding++;
+                }
+            }
+
+            if (cancellationToken.isCancelled()) {
+                return false;
+            }
+
+            if (outstanding > 0) {
+                lexed = completionService.poll(Math.min(cancellationToken.getRemainingNanos(),
+                    POLL_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+                if (lexed == null) {
+                    continue; // Check the token again before waiting further
+                }
+                module = lexed.get();
+                outstanding--;
+                loaded.put(module.path, module);
+                graph.put(module.path, module.includes);
+                queued.addAll(module.includes);
+            }
+        } while (outstanding > 0 || !queued.isEmpty());
+        return true;
+    }
+
+    /**
+     * This method searches the graph of includes depth first for cycles, giving every file on a
+     * cycle a failed result naming the files of the cycle in order.
+     *
+     * @param path <code>String</code> file being searched
+     * @param graph <code>HashMap</code> of paths to the paths they include
+     * @param stack <code>ArrayList</code> of paths from the including file to this file
+     * @param finished <code>HashSet</code> of paths already searched
+     * @param resolved <code>HashMap</code> to which failed results are added
+     * @return void
+     */
+    private void detectCycles(String path, HashMap<String, ArrayList<String>> graph,
+            ArrayList<String> stack, HashSet<String> finished,
+            HashMap<String, ParseResult> resolved) {
+
+        // Declarations
+        StringBuilder cycle;
+        ParseResult failure;
+        int cycleStart;
+
+        stack.add(path);
+        for (String include : graph.get(path)) {
+            cycleStart = stack.indexOf(include);
+            if (cycleStart != -1) {
+                cycle = new StringBuilder("Error: Include cycle detected: ");
+                for (int index = cycleStart; index < stack.size(); index++) {
+                    cycle.append(new File(stack.get(index)).getName()).append(" -> ");
+                }
+                cycle.append(new File(include).getName());
+
+                failure = new ParseResult(null, cycle.toString(), 0, 0);
+                for (int index = cycleStart; index < stack.size(); index++) {
+                    resolved.putIfAbsent(stack.get(index), failure);
+                }
+            } else if (!finished.contains(include)) {
+                this.detectCycles(include, graph, stack, finished, resolved);
+            }
+        }
+        stack.remove(stack.size() - 1);
+        finished.add(path);
+    }
+
+    /**
+     * This method parses the loaded files not already resolved in order of their height in the
+     * graph, such that every file is parsed after the files it includes. All files of the same
+     * height are independent of one another and are parsed in parallel. No further heights are
+     * parsed once the cancellation token is cancelled.
+     *
+     * @param graph <code>HashMap</code> of paths to the paths they include
+     * @param loaded <code>HashMap</code> of paths to lexed <code>Module</code>s
+     * @param resolved <code>HashMap</code> to which parsed results are added
+     * @param cancellationToken <code>CancellationToken</code> of the including parse
+     * @return void
+     * @throws InterruptedException if interrupted while waiting for a file to be parsed
+     * @throws ExecutionException if parsing a file fails unexpectedly
+     */
+    private void parseModules(HashMap<String, ArrayList<String>> graph,
+            HashMap<String, Module> loaded, HashMap<String, ParseResult> resolved,
+            CancellationToken cancellationToken)
+            throws InterruptedException, ExecutionException {
+
+        // Declarations
+        HashMap<String, Integer> heights;
+        ArrayList<ArrayList<Module>> levels;
+        ArrayList<Callable<ParseResult>> tasks;
+        List<Future<ParseResult>> results;
+        Map<String, ParseResult> resolvedView;
+        int height;
+
+        heights = new HashMap<>();
+        levels = new ArrayList<>();
+        for (Module module : loaded.values()) {
+            if (!resolved.containsKey(module.path)) {
+                height = this.findHeight(module.path, graph, resolved, heights);
+                while (levels.size() <= height) {
+                    levels.add(new ArrayList<>());
+                }
+                levels.get(height).add(module);
+            }
+        }
+
+        resolvedView = Collections.unmodifiableMap(resolved);
+        for (ArrayList<Module> level : levels) {
+            if (cancellationToken.isCancelled()) {
+                return;
+            }
+
+            tasks = new ArrayList<>();
+            for (Module module : level) {
+                tasks.add(() -> module.parse(resolvedView, cancellationToken));
+            }
+
+            results = (tasks.size() == 1)
+                ? List.of(CompletableFuture.completedFuture(
+                    level.get(0).parse(resolvedView, cancellationToken)))
+                : this.executor.invokeAll(tasks);
+            for (int index = 0; index < level.size(); index++) {
+                resolved.put(level.get(index).path, results.get(index).get());
+            }
+        }
+    }
+
+    // Helper methods
+
+    /**
+     * Returns the current <code>Module</code> of the file at the parameter path under the parameter
+     * limits, lexing it if this has not already been done for its current modification time. The
+     * modules of a file under different limits are kept apart, under the path and the limits.
+     *
+     * @param path <code>String</code> canonical path
+     * @param limits <code>ParseLimits</code> of the including parse
+     * @param cancellationToken <code>CancellationToken</code> of the including parse
+     * @return <code>Module</code>
+     */
+    private Module load(String path, ParseLimits limits, CancellationToken cancellationToken) {
+
+        // Declarations
+        Module module;
+        long lastModified;
+
+        lastModified = new File(path).lastModified();
+        module = this.modules.compute(path + "\n" + limits, (String key, Module cached) ->
+            (cached != null && cached.lastModified == lastModified)
+                ? cached
+                : new Module(path, lastModified, limits));
+        module.lex(cancellationToken);
+        return module;
+    }
+
+    /**
+     * Returns the height of the parameter file in the graph of includes, that being zero for files
+     * including nothing (or only files already resolved) and otherwise one more than the greatest
+     * height of the files it includes. Files on cycles are always resolved, so the search ends.
+     *
+     * @param path <code>String</code>
+     * @param graph <code>HashMap</code> of paths to the paths they include
+     * @param resolved <code>HashMap</code> of paths already resolved
+     * @param heights <code>HashMap</code> of heights already found
+     * @return <code>int</code>
+     */
+    private int findHeight(String path, HashMap<String, ArrayList<String>> graph,
+            HashMap<String, ParseResult> resolved, HashMap<String, Integer> heights) {
+
+        // Declaration
+        int height;
+
+        if (heights.containsKey(path)) {
+            return heights.get(path);
+        }
+
+        height = 0;
+        for (String include : graph.get(path)) {
+            if (!resolved.containsKey(include)) {
+                height = Math.max(height, 1 + this.findHeight(include, graph, resolved, heights));
+            }
+        }
+        heights.put(path, height);
+        return height;
+    }
+
+    /**
+     * Determines whether the parameter tokens contain an <code>Include</code>, done before
+     * anything else so that contents without includes cost no more than a scan of their tokens.
+     *
+     * @param tokens <code>ArrayList</code> of <code>Token</code>s
+     * @return <code>boolean</code>
+     */
+    private static boolean containsInclude(ArrayList<Token> tokens) {
+        for (int index = 0; index < tokens.size(); index++) {
+            if (tokens.get(index).getType() == Type.INCLUDE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the distinct canonical paths of the files included by the parameter tokens, in the
+     * order in which they are first included.
+     *
+     * @param baseDirectory <code>File</code> against which relative paths are resolved
+     * @param tokens <code>ArrayList</code> of <code>Token</code>s
+     * @return <code>ArrayList</code> of <code>String</code> paths
+     */
+    private static ArrayList<String> findIncludes(File baseDirectory, ArrayList<Token> tokens) {
+
+        // Declaration
+        LinkedHashSet<String> includes;
+
+        includes = new LinkedHashSet<>();
+        for (int index = 0; index + 1 < tokens.size(); index++) {
+            if (tokens.get(index).getType() == Type.INCLUDE
+                    && tokens.get(index + 1).getType() == Type.STRING) {
+                includes.add(resolvePath(baseDirectory, tokens.get(index + 1).getToken()));
+            }
+        }
+        return new ArrayList<>(includes);
+    }
+
+    /**
+     * Returns the directory against which the includes of the parameter file are resolved, being
+     * the working directory if there is no file.
+     *
+     * @param sourceFile <code>File</code>, or <code>null</code>
+     * @return <code>File</code>
+     */
+    protected static File getBaseDirectory(File sourceFile) {
+        return (sourceFile != null)
+            ? sourceFile.getAbsoluteFile().getParentFile()
+            : new File("").getAbsoluteFile();
+    }
+
+    /**
+     * Returns the canonical path of the parameter included path, resolved against the parameter
+     * directory if relative, or merely its absolute path if it cannot be made canonical.
+     *
+     * @param baseDirectory <code>File</code>, or <code>null</code> for the working directory
+     * @param includedPath <code>String</code> as written in the <code>Include</code>
+     * @return <code>String</code>
+     */
+    protected static String resolvePath(File baseDirectory, String includedPath) {
+
+        // Declaration
+        File file;
+
+        file = new File(includedPath);
+        if (!file.isAbsolute() && baseDirectory != null) {
+            file = new File(baseDirectory, includedPath);
+        }
+
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException ex) {
+            return file.getAbsolutePath();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+/**
+ * ParseCache.java - Content-addressed cache of parse results
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * This class is used to avoid lexing and parsing the same file contents more than once. Results
+ * are keyed by the SHA-256 hash of the file's contents combined with
+ * <code>RecursiveDescentParser.PARSER_VERSION</code> and the <code>ParseLimits</code> the contents
+ * were parsed under, meaning that a file re-selected without changes is found in the cache
+ * regardless of its name, while results produced by an older version of the parser, or under
+ * other limits, are never returned. Both successful results (the widget tree) and failed results
+ * (the first error message) are cached.
+ * <br />
+ * <br />
+ * The in-memory tier is a <code>LinkedHashMap</code> kept in access order, with the least recently
+ * used entry evicted once the configured maximum number of entries is exceeded. If a cache
+ * directory is provided, results are also serialized to that directory so that they survive
+ * restarts of the program, with entries found on disk promoted to the in-memory tier. Counts of
+ * hits, misses, and evictions are kept for reporting purposes.
+ * <br />
+ * <br />
+ * @author Andrew Eissen
+ */
+final class ParseCache {
+
+    // Declarations
+    private static final ObjectInputFilter RESULT_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=1024;maxarray=4000000;maxbytes=268435456;"
+        + "ParseResult;Widget;Type;java.util.ArrayList;java.lang.String;java.lang.Enum;"
+        + "java.lang.Object;!*"); // Arrays are matched by element type, primitives allowed
+    private LinkedHashMap<String, ParseResult> memoryCache;
+    private File cacheDirectory;
+    private ParseLimits limits;
+    private long hits, diskHits, misses, evictions;
+
+    /**
+     * Parameterized constructor
+     * @param maxEntries <code>int</code> maximum number of results kept in memory
+     * @param cacheDirectory <code>File</code> for persisted results, or <code>null</code> if none
+     * @param limits <code>ParseLimits</code> under which the cached results are parsed
+     */
+    protected ParseCache(int maxEntries, File cacheDirectory, ParseLimits limits) {
+        this.memoryCache = new LinkedHashMap<String, ParseResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParseResult> eldest) {
+                if (this.size() > maxEntries) {
+                    ParseCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.cacheDirectory = cacheDirectory;
+        this.limits = limits;
+        if (this.cacheDirectory != null) {
+            this.cacheDirectory.mkdirs();
+        }
+    }
+
+    // Cache methods
+
+    /**
+     * Returns the cached result for the parameter contents, checking the in-memory tier before the
+     * on-disk tier, or <code>null</code> if the contents have not been parsed before. The cache is
+     * locked only while its in-memory tier is consulted, such that a slow read of the directory
+     * does not hold up threads whose results are in memory.
+     *
+     * @param contents <code>byte[]</code> file contents
+     * @return <code>ParseResult</code>, or <code>null</code> on a miss
+     */
+    protected ParseResult get(byte[] contents) {
+
+        // Declarations
+        String key;
+        ParseResult result;
+
+        key = this.createKey(contents);
+        synchronized (this) {
+            result = this.memoryCache.get(key);
+            if (result != null) {
+                this.hits++;
+                return result;
+            }
+        }
+
+        result = this.readFromDisk(key);
+
+        synchronized (this) {
+            if (result == null) {
+                this.misses++;
+            } else {
+                this.memoryCache.putIfAbsent(key, result);
+                this.diskHits++;
+                this.hits++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Caches the parameter result under the parameter contents in both tiers, locking the cache
+     * only while the result is added to its in-memory tier.
+     *
+     * @param contents <code>byte[]</code> file contents
+     * @param result <code>ParseResult</code>
+     * @return void
+     */
+    protected void put(byte[] contents, ParseResult result) {
+
+        // Declaration
+        String key;
+
+        key = this.createKey(contents);
+        synchronized (this) {
+            this.memoryCache.put(key, result);
+        }
+        this.writeToDisk(key, result);
+    }
+
+    /**
+     * Returns a single line summary of the cache's statistics, suitable for the status log.
+     * @return <code>String</code>
+     */
+    protected synchronized String getStatistics() {
+        return "Cache: " + this.hits + " hit(s) (" + this.diskHits + " from disk), " + this.misses
+            + " miss(es), " + this.evictions + " eviction(s), " + this.memoryCache.size()
+            + " entries in memory";
+    }
+
+    // Helper methods
+
+    /**
+     * Creates the hexadecimal key of the parameter contents by hashing the parser version and the
+     * limits along with the contents themselves.
+     *
+     * @param contents <code>byte[]</code>
+     * @return <code>String</code>
+     */
+    private String createKey(byte[] contents) {
+
+        // Declarations
+        MessageDigest digest;
+        StringBuilder key;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // Required of every JVM
+        }
+
+        digest.update(("v" + RecursiveDescentParser.PARSER_VERSION + "\n" + this.limits + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+        key = new StringBuilder();
+        for (byte hashByte : digest.digest(contents)) {
+            key.append(String.format("%02x", hashByte));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Reads the result stored under the parameter key from the cache directory, if any. Entries
+     * that cannot be read (as when written by an incompatible version of the program) are deleted
+     * and treated as misses. As the directory may be writable by others than the program, entries
+     * are read through <code>RESULT_FILTER</code>, which rejects any class not found in a widget
+     * tree and any graph deeper or larger than a tree permitted by the default limits, such that
+     * a planted entry can neither instantiate arbitrary classes nor exhaust the heap.
+     *
+     * @param key <code>String</code>
+     * @return <code>ParseResult</code>, or <code>null</code> if not found
+     */
+    private ParseResult readFromDisk(String key) {
+
+        // Declaration
+        File cacheFile;
+
+        if (this.cacheDirectory == null) {
+            return null;
+        }
+
+        cacheFile = new File(this.cacheDirectory, key + ".ser");
+        if (!cacheFile.exists()) {
+            return null;
+        }
+
+        try (ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(
+                new FileInputStream(cacheFile)))) {
+            input.setObjectInputFilter(RESULT_FILTER);
+            return (ParseResult) input.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            cacheFile.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the parameter result to the cache directory under the parameter key, if a directory
+     * was provided. The result is written to a uniquely named temporary file first and then
+     * renamed, so that a partially written entry is never read, even by another thread writing
+     * the same entry at the same time.
+     *
+     * @param key <code>String</code>
+     * @param result <code>ParseResult</code>
+     * @return void
+     */
+    private void writeToDisk(String key, ParseResult result) {
+
+        // Declarations
+        File cacheFile, temporaryFile;
+
+        if (this.cacheDirectory == null) {
+            return;
+        }
+
+        cacheFile = new File(this.cacheDirectory, key + ".ser");
+        try {
+            temporaryFile = File.createTempFile(key, ".tmp", this.cacheDirectory);
+        } catch (IOException ex) {
+            return;
+        }
+
+        try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temporaryFile)))) {
+            output.writeObject(result);
+        } catch (IOException ex) {
+            temporaryFile.delete();
+            return;
+        }
+
+        if (!temporaryFile.renameTo(cacheFile)) {
+            temporaryFile.delete();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+/**
+ * ParseContext.java - Per-call options and outcome details of a single parse
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.File;
+
+/**
+ * This class holds everything particular to a single call of <code>SpecParser.class.parse</code>
+ * that is not the input itself, such that the <code>SpecParser</code> can hold nothing of its own
+ * and be shared by any number of threads. A context is created by the caller for each parse and
+ * is not meant to be shared between concurrent parses.
+ * <br />
+ * <br />
+ * Besides the options of the parse, the context receives those details of its outcome which are
+ * not part of the <code>ParseResult</code>, currently only whether any files were included. Such
+ * results depend on more than the contents of the file, and should not be cached by them.
+ * <br />
+ * <br />
+ * @see SpecParser
+ * @author Andrew Eissen
+ */
+final class ParseContext {
+
+    // Declarations
+    private File sourceFile;
+    private ParserLog log;
+    private ParseLimits limits;
+    private CancellationToken cancellationToken;
+    private boolean isInterning, hasIncludes;
+
+    /**
+     * Default constructor, for a parse of contents not read from a file, logging nothing, subject
+     * to the default limits and never cancelled, and interning as determined by the
+     * <code>rdp.internWidgets</code> system property
+     */
+    protected ParseContext() {
+        this.sourceFile = null;
+        this.log = ParserLog.DISCARD;
+        this.limits = new ParseLimits();
+        this.cancellationToken = CancellationToken.NONE;
+        this.isInterning = Boolean.getBoolean("rdp.internWidgets");
+        this.hasIncludes = false;
+    }
+
+    /**
+     * Parameterized constructor, for a parse of the contents of the parameter file
+     * @param sourceFile <code>File</code>, or <code>null</code> if not read from a file
+     */
+    protected ParseContext(File sourceFile) {
+        this();
+        this.setSourceFile(sourceFile);
+    }
+
+    // Setters
+
+    /**
+     * Setter for <code>sourceFile</code>, against whose directory included paths are resolved and
+     * whose path names the parse in its phase events
+     *
+     * @param sourceFile <code>File</code>
+     * @return void
+     */
+    protected void setSourceFile(File sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    /**
+     * Setter for <code>log</code>
+     * @param log <code>ParserLog</code>
+     * @return void
+     */
+    protected void setLog(ParserLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Setter for <code>limits</code>, which may be shared by any number of contexts
+     * @param limits <code>ParseLimits</code>
+     * @return void
+     */
+    protected void setLimits(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Setter for <code>cancellationToken</code>, by which the caller may stop the parse from
+     * another thread or set a deadline by which it must complete. Each token should be used for a
+     * single parse, or for a group of parses all to be cancelled at once.
+     *
+     * @param cancellationToken <code>CancellationToken</code>
+     * @return void
+     */
+    protected void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Setter for <code>isInterning</code>
+     * @param isInterning <code>boolean</code>
+     * @return void
+     */
+    protected void setInterning(boolean isInterning) {
+        this.isInterning = isInterning;
+    }
+
+    /**
+     * Setter for <code>hasIncludes</code>, called by the <code>SpecParser</code> once parsed
+     * @param hasIncludes <code>boolean</code>
+     * @return void
+     */
+    protected void setHasIncludes(boolean hasIncludes) {
+        this.hasIncludes = hasIncludes;
+    }
+
+    // Getters
+
+    /**
+     * Getter for <code>sourceFile</code>
+     * @return sourceFile
+     */
+    protected File getSourceFile() {
+        return this.sourceFile;
+    }
+
+    /**
+     * Getter for <code>log</code>
+     * @return log
+     */
+    protected ParserLog getLog() {
+        return this.log;
+    }
+
+    /**
+     * Getter for <code>limits</code>
+     * @return limits
+     */
+    protected ParseLimits getLimits() {
+        return this.limits;
+    }
+
+    /**
+     * Getter for <code>cancellationToken</code>
+     * @return cancellationToken
+     */
+    protected CancellationToken getCancellationToken() {
+        return this.cancellationToken;
+    }
+
+    /**
+     * Getter for <code>isInterning</code>
+     * @return isInterning
+     */
+    protected boolean isInterning() {
+        return this.isInterning;
+    }
+
+    /**
+     * Getter for <code>hasIncludes</code>, whether the parse included any other files
+     * @return hasIncludes
+     */
+    protected boolean hasIncludes() {
+        return this.hasIncludes;
+    }
+}
\ No newline at end of file
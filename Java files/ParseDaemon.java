@@ -0,0 +1,367 @@
+/**
+ * ParseDaemon.java - Long-running parse service listening on a Unix domain socket
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.net.ProtocolException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class implements the program's daemon mode, invoked by passing the <code>--daemon</code>
+ * option to <code>Application.class.main</code> along with the path of a Unix domain socket. As the
+ * parse of a typical file takes but a few milliseconds, starting a new JVM for every validation
+ * means the time taken is dominated by class loading and JIT warmup. The daemon instead stays
+ * running, warms up the lexer and parser once on startup, and answers parse requests over the
+ * socket for as long as it lives. Results of <code>PATH</code> requests are kept in a
+ * <code>ParseCache</code>, so that unchanged files are not parsed again. The <code>--client</code>
+ * option provides a tiny client with which editors and scripts may submit requests.
+ * <br />
+ * <br />
+ * The protocol is line-based and UTF-8 encoded. A request consists of either a single line of the
+ * form <code>PATH /absolute/path/to/file.txt</code>, or a line reading <code>TEXT</code> followed
+ * by the contents of the file itself, ended by the client shutting down its side of the
+ * connection. The reply is a single line of the form <code>PASS n tokens</code> or
+ * <code>FAIL message</code>, or <code>TIMEOUT message</code> should the parse not complete within
+ * the number of milliseconds given by the <code>rdp.parseTimeoutMillis</code> system property,
+ * ten seconds by default, after which the daemon closes the connection. The timeout runs from
+ * the moment the connection is accepted and covers the receipt of the request line and of the
+ * contents of a <code>TEXT</code> request, such that a client sending slowly, or not at all,
+ * cannot hold a thread of the daemon indefinitely. Once it passes, the daemon shuts down its side
+ * of the connection for reading, which ends any read then blocked, and replies
+ * <code>TIMEOUT</code>. As the Java client
+ * itself pays the JVM startup cost the daemon exists to avoid, scripts wanting the quickest
+ * possible round trip may instead speak the protocol directly via any Unix domain socket client.
+ * <br />
+ * <br />
+ * @see java.net.UnixDomainSocketAddress
+ * @author Andrew Eissen
+ */
+final class ParseDaemon {
+
+    // Declarations
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MAX_REQUEST_LINE_BYTES = 8192;
+    private static final byte[] WARMUP_CONTENTS = ("Window \"Warmup\" (200, 200) Layout Flow:\n"
+        + "Textfield 20;\nPanel Layout Grid(2, 2, 5, 5):\nButton \"1\";\nLabel \"2\";\n"
+        + "Group\nRadio \"3\";\nRadio \"4\";\nEnd;\nEnd;\nEnd.")
+        .getBytes(StandardCharsets.UTF_8);
+    private Path socketPath;
+    private ExecutorService executor;
+    private ScheduledExecutorService deadlineTimer;
+    private ParseCache parseCache;
+    private SpecParser specParser;
+    private ParseLimits limits;
+    private Duration parseTimeout;
+
+    /**
+     * Parameterized constructor
+     * @param socketPath <code>Path</code> of the Unix domain socket
+     */
+    protected ParseDaemon(Path socketPath) {
+        this.socketPath = socketPath;
+        this.executor = BatchRunner.createExecutor();
+        this.deadlineTimer = Executors.newSingleThreadScheduledExecutor((Runnable task) -> {
+            Thread thread = new Thread(task, "ParseDaemon deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.specParser = new SpecParser();
+        this.limits = new ParseLimits();
+        this.parseCache = new ParseCache(1024, (System.getProperty("rdp.cacheDirectory") != null)
+            ? new File(System.getProperty("rdp.cacheDirectory"))
+            : null, this.limits);
+        this.parseTimeout = Duration.ofMillis(Long.getLong("rdp.parseTimeoutMillis", 10_000));
+    }
+
+    // Server methods
+
+    /**
+     * This method warms up the parser, binds the socket, and accepts connections indefinitely, each
+     * connection being handled on a thread of its own. Any stale socket file left behind by a
+     * previous daemon is removed prior to binding, and the socket file is removed on shutdown.
+     *
+     * @return void
+     * @throws IOException if the socket cannot be bound
+     */
+    protected void serve() throws IOException {
+
+        // Declaration
+        ServerSocketChannel serverChannel;
+        SocketChannel clientChannel;
+
+        warmUp();
+
+        Files.deleteIfExists(this.socketPath);
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(this.socketPath));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Files.deleteIfExists(this.socketPath);
+            } catch (IOException ex) {
+                // Nothing more to be done on shutdown
+            }
+        }));
+        System.out.println("Listening on " + this.socketPath);
+
+        while (true) {
+            clientChannel = serverChannel.accept();
+            final SocketChannel channel = clientChannel;
+            final CancellationToken cancellationToken = new CancellationToken(this.parseTimeout);
+            final ScheduledFuture<?> deadline = this.scheduleDeadline(channel);
+            this.executor.submit(() -> this.handleRequest(channel, cancellationToken, deadline));
+        }
+    }
+
+    /**
+     * Parses a small built-in file repeatedly so that the lexer and parser are loaded and compiled
+     * before the first request arrives. The <code>LanguageServer</code> does likewise.
+     *
+     * @return void
+     * @throws IOException if the built-in file cannot be read
+     */
+    protected static void warmUp() throws IOException {
+
+        // Declarations
+        SpecParser specParser;
+        int iteration;
+
+        specParser = new SpecParser();
+        for (iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+            specParser.parse(new ByteArrayInputStream(WARMUP_CONTENTS), new ParseContext());
+        }
+    }
+
+    /**
+     * This method reads a single request from the parameter channel, parses the file or text
+     * contained therein, and writes the reply before closing the channel. A single deadline,
+     * running from the moment the connection was accepted, covers the whole request, such that
+     * a read blocked on a stalled client is ended by the deadline's shutting down of the channel
+     * and the request answered with <code>TIMEOUT</code>.
+     *
+     * @param channel <code>SocketChannel</code> connected to a client
+     * @param cancellationToken <code>CancellationToken</code> bearing the request's deadline
+     * @param deadline <code>ScheduledFuture</code> shutting down the channel at the deadline
+     * @return void
+     */
+    private void handleRequest(SocketChannel channel, CancellationToken cancellationToken,
+            ScheduledFuture<?> deadline) {
+
+        // Declarations
+        InputStream input;
+        Writer writer;
+        String requestLine, reply;
+
+        try (SocketChannel client = channel) {
+            input = Channels.newInputStream(client);
+            writer = new OutputStreamWriter(Channels.newOutputStream(client),
+                StandardCharsets.UTF_8);
+
+            try {
+                requestLine = this.readRequestLine(input);
+                if (cancellationToken.isTimedOut()) {
+                    reply = "TIMEOUT " + cancellationToken.getMessage();
+                } else if (requestLine == null) {
+                    return;
+                } else {
+                    reply = this.parseRequest(requestLine, input, cancellationToken);
+                }
+            } catch (ProtocolException ex) {
+                reply = "FAIL Error: " + ex.getMessage();
+            }
+
+            writer.write(reply + "\n");
+            writer.flush();
+        } catch (IOException ex) {
+            System.err.println("Error: " + ex);
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    /**
+     * Schedules the shutting down of the parameter channel for reading once the parse timeout has
+     * passed, which ends any read then blocked with the end of input.
+     *
+     * @param channel <code>SocketChannel</code> connected to a client
+     * @return <code>ScheduledFuture</code>, cancelled once the request has been answered
+     */
+    private ScheduledFuture<?> scheduleDeadline(SocketChannel channel) {
+        return this.deadlineTimer.schedule(() -> {
+            try {
+                channel.shutdownInput();
+            } catch (IOException ex) {
+                // Already closed, so no read remains to be ended
+            }
+        }, this.parseTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Reads the first line of a request byte by byte, so that no more of the input is consumed
+     * than the line itself and the text of a <code>TEXT</code> request may be handed to the
+     * parser's <code>ByteLexer</code> undecoded. Lines longer than
+     * <code>MAX_REQUEST_LINE_BYTES</code>, well beyond the longest path, are refused without
+     * being read in full, such that a client cannot fill the heap with a line never ended.
+     *
+     * @param input <code>InputStream</code> of the client connection
+     * @return <code>String</code> request line, or <code>null</code> if the client sent nothing
+     * @throws ProtocolException if the line is too long
+     * @throws IOException if the connection cannot be read
+     */
+    private String readRequestLine(InputStream input) throws IOException {
+
+        // Declarations
+        ByteArrayOutputStream line;
+        int character;
+
+        line = new ByteArrayOutputStream();
+        while ((character = input.read()) != -1 && character != '\n') {
+            if (line.size() == MAX_REQUEST_LINE_BYTES) {
+                throw new ProtocolException("Request line exceeds " + MAX_REQUEST_LINE_BYTES
+                    + " bytes");
+            }
+            line.write(character);
+        }
+
+        if (character == -1 && line.size() == 0) {
+            return null;
+        }
+        return line.toString(StandardCharsets.UTF_8.name()).replaceFirst("\r$", "");
+    }
+
+    /**
+     * Parses the file named by, or the text following, the parameter request line, returning the
+     * reply to be sent to the client. Results of parses that time out are not cached, as they
+     * say nothing of the file. Files larger than the input limit are streamed to the lexer, which
+     * stops reading at the limit, rather than read into memory in full to be looked up in the
+     * cache; such files can only fail, and are not cached either.
+     *
+     * @param requestLine <code>String</code> first line of the request
+     * @param input <code>InputStream</code> positioned after the request line
+     * @param cancellationToken <code>CancellationToken</code> bearing the request's deadline
+     * @return <code>String</code> reply
+     */
+    private String parseRequest(String requestLine, InputStream input,
+            CancellationToken cancellationToken) {
+
+        // Declarations
+        ParseContext context;
+        ParseResult result;
+        File file;
+        byte[] contents;
+
+        try {
+            if (requestLine.startsWith("PATH ")) {
+                file = new File(requestLine.substring(5));
+                if (!file.exists() || file.length() == 0) {
+                    return "FAIL Error: File '" + file.getName() + "' is empty.";
+                }
+                context = new ParseContext(file);
+                context.setLimits(this.limits);
+                context.setCancellationToken(cancellationToken);
+
+                if (file.length() > this.limits.getMaxInputBytes()) {
+                    try (InputStream fileInput = new BufferedInputStream(
+                            new FileInputStream(file))) {
+                        result = this.specParser.parse(SpecInput.open(fileInput), context);
+                    }
+                    return this.createReply(result);
+                }
+
+                contents = Files.readAllBytes(file.toPath());
+                result = this.parseCache.get(contents);
+                if (result == null) {
+                    result = this.specParser.parse(
+                        SpecInput.open(new ByteArrayInputStream(contents)), context);
+                    if (!context.hasIncludes() && !result.isCancelled()) {
+                        this.parseCache.put(contents, result);
+                    }
+                }
+            } else if (requestLine.equals("TEXT")) {
+                context = new ParseContext();
+                context.setLimits(this.limits);
+                context.setCancellationToken(cancellationToken);
+                result = this.specParser.parse(SpecInput.open(input), context);
+            } else {
+                return "FAIL Error: Unknown request '" + requestLine + "'";
+            }
+        } catch (IOException | RuntimeException ex) {
+            return (cancellationToken.isTimedOut())
+                ? "TIMEOUT " + cancellationToken.getMessage()
+                : "FAIL Error: " + ex;
+        }
+        return this.createReply(result);
+    }
+
+    /**
+     * Returns the reply to be sent to the client for the parameter result.
+     * @param result <code>ParseResult</code>
+     * @return <code>String</code> reply
+     */
+    private String createReply(ParseResult result) {
+        if (result.isCancelled()) {
+            return "TIMEOUT " + result.getErrorMessage();
+        }
+        return (result.isSuccessful())
+            ? "PASS " + result.getTokenCount() + " tokens"
+            : "FAIL " + result.getErrorMessage();
+    }
+
+    // Client methods
+
+    /**
+     * This method implements the tiny client, sending either the path of the parameter file or, if
+     * the file is <code>-</code>, the contents of standard input to the daemon and printing the
+     * reply along with the round trip time.
+     *
+     * @param socketPath <code>Path</code> of the daemon's Unix domain socket
+     * @param fileName <code>String</code> file path, or <code>-</code> for standard input
+     * @return <code>int</code> exit status, <code>0</code> if the file passed
+     * @throws IOException if the daemon cannot be reached
+     */
+    protected static int sendRequest(Path socketPath, String fileName) throws IOException {
+
+        // Declarations
+        Writer writer;
+        BufferedReader reader;
+        String reply;
+        long startTime;
+        int character;
+
+        startTime = System.nanoTime();
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            writer = new OutputStreamWriter(Channels.newOutputStream(channel),
+                StandardCharsets.UTF_8);
+
+            if (fileName.equals("-")) {
+                writer.write("TEXT\n");
+                reader = new BufferedReader(new InputStreamReader(System.in,
+                    StandardCharsets.UTF_8));
+                while ((character = reader.read()) != -1) {
+                    writer.write(character);
+                }
+            } else {
+                writer.write("PATH " + new File(fileName).getAbsolutePath() + "\n");
+            }
+            writer.flush();
+            channel.shutdownOutput();
+
+            reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                StandardCharsets.UTF_8));
+            reply = reader.readLine();
+        }
+
+        System.out.println(reply);
+        System.err.printf("Round trip %.2f ms%n", (System.nanoTime() - startTime) / 1e6);
+        return (reply != null && reply.startsWith("PASS")) ? 0 : 1;
+    }
+}
\ No newline at end of file
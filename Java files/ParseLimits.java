@@ -0,0 +1,183 @@
+/**
+ * ParseLimits.java - Caps on the resources a single file may consume while parsed
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.IOException;
+
+/**
+ * This class holds the limits placed upon each file parsed, so that a single malicious or broken
+ * file cannot exhaust the heap with its tokens, overflow the stack with its nesting, or ask for a
+ * window billions of pixels wide. Files exceeding any limit fail with an error naming the limit
+ * exceeded and the line at which it was, just as a malformed file fails with its first error, and
+ * parsing stops as soon as the limit is found to be exceeded rather than at the end of the file.
+ * <br />
+ * <br />
+ * Input size, token count, and token length are enforced by the <code>ByteLexer</code> as it
+ * reads, so that no more of an oversized file is read than is needed to find it oversized. The
+ * original <code>Scanner</code> lexer enforces none of these itself, though the token count is
+ * checked again before parsing begins, as it is for tokens lexed elsewhere. Nesting depth, widget
+ * count, and dimensions are enforced by the parser as it builds the widget tree. Widgets are
+ * counted as realized, so that each repetition of a <code>Repeat</code> and each
+ * <code>Use</code> of a template or <code>Include</code> of a file counts its widgets again, as
+ * these would each be turned into <tt>Swing</tt> components of their own.
+ * <br />
+ * <br />
+ * Every parser is subject to the default limits unless given others, each of which may be set by
+ * a system property of the same name prefixed by <code>rdp.</code>, such as
+ * <code>-Drdp.maxTokens=100000</code>. Limits are immutable, so a single instance may be shared
+ * by any number of parsers.
+ * <br />
+ * <br />
+ * @see SpecParser
+ * @author Andrew Eissen
+ */
+final class ParseLimits {
+
+    /**
+     * The exception thrown by a <code>ByteLexer</code> upon exceeding a limit, which the parser
+     * reports as the first error of the file.
+     */
+    protected static final class ExceededException extends IOException {
+
+        // Declarations
+        private static final long serialVersionUID = 1L;
+        private int lineNumber;
+
+        /**
+         * Parameterized constructor
+         * @param message <code>String</code> error message, without line number
+         * @param lineNumber <code>int</code> line at which the limit was exceeded
+         */
+        protected ExceededException(String message, int lineNumber) {
+            super(message);
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * Getter for <code>lineNumber</code>
+         * @return lineNumber
+         */
+        protected int getLineNumber() {
+            return this.lineNumber;
+        }
+    }
+
+    // Declarations
+    protected static final ParseLimits UNLIMITED = new ParseLimits(Long.MAX_VALUE,
+        Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE,
+        Integer.MAX_VALUE, Integer.MAX_VALUE);
+    private long maxInputBytes, maxWidgets;
+    private int maxTokens, maxTokenLength, maxNestingDepth, maxWindowSize, maxGridSize;
+
+    /**
+     * Default constructor, using the default limits save those overridden by system properties
+     */
+    protected ParseLimits() {
+        this(Long.getLong("rdp.maxInputBytes", 64L * 1024 * 1024),
+            Integer.getInteger("rdp.maxTokens", 4_000_000),
+            Integer.getInteger("rdp.maxTokenLength", 65536),
+            Integer.getInteger("rdp.maxNestingDepth", 128),
+            Long.getLong("rdp.maxWidgets", 1_000_000),
+            Integer.getInteger("rdp.maxWindowSize", 16384),
+            Integer.getInteger("rdp.maxGridSize", 1024));
+    }
+
+    /**
+     * Parameterized constructor
+     * @param maxInputBytes <code>long</code> most bytes of input, after decompression
+     * @param maxTokens <code>int</code> most tokens
+     * @param maxTokenLength <code>int</code> most bytes of a single token, such as a string
+     * @param maxNestingDepth <code>int</code> most levels of panels, groups, repetitions, and
+     *     templates within one another
+     * @param maxWidgets <code>long</code> most widgets, counted as realized
+     * @param maxWindowSize <code>int</code> greatest width or height of a window, and greatest gap
+     *     between the cells of a grid, in pixels
+     * @param maxGridSize <code>int</code> most rows or columns of a grid
+     */
+    protected ParseLimits(long maxInputBytes, int maxTokens, int maxTokenLength,
+            int maxNestingDepth, long maxWidgets, int maxWindowSize, int maxGridSize) {
+        this.maxInputBytes = maxInputBytes;
+        this.maxTokens = maxTokens;
+        this.maxTokenLength = maxTokenLength;
+        this.maxNestingDepth = maxNestingDepth;
+        this.maxWidgets = maxWidgets;
+        this.maxWindowSize = maxWindowSize;
+        this.maxGridSize = maxGridSize;
+    }
+
+    // Getters
+
+    /**
+     * Getter for <code>maxInputBytes</code>
+     * @return maxInputBytes
+     */
+    protected long getMaxInputBytes() {
+        return this.maxInputBytes;
+    }
+
+    /**
+     * Getter for <code>maxTokens</code>
+     * @return maxTokens
+     */
+    protected int getMaxTokens() {
+        return this.maxTokens;
+    }
+
+    /**
+     * Getter for <code>maxTokenLength</code>
+     * @return maxTokenLength
+     */
+    protected int getMaxTokenLength() {
+        return this.maxTokenLength;
+    }
+
+    /**
+     * Getter for <code>maxNestingDepth</code>
+     * @return maxNestingDepth
+     */
+    protected int getMaxNestingDepth() {
+        return this.maxNestingDepth;
+    }
+
+    /**
+     * Getter for <code>maxWidgets</code>
+     * @return maxWidgets
+     */
+    protected long getMaxWidgets() {
+        return this.maxWidgets;
+    }
+
+    /**
+     * Getter for <code>maxWindowSize</code>
+     * @return maxWindowSize
+     */
+    protected int getMaxWindowSize() {
+        return this.maxWindowSize;
+    }
+
+    /**
+     * Getter for <code>maxGridSize</code>
+     * @return maxGridSize
+     */
+    protected int getMaxGridSize() {
+        return this.maxGridSize;
+    }
+
+    /**
+     * Returns each of the limits by name, such that results produced under different limits,
+     * which may differ in whether the file passed, can be told apart by the
+     * <code>ParseCache</code> and <code>ModuleCache</code>.
+     *
+     * @return <code>String</code>
+     */
+    @Override
+    public String toString() {
+        return "maxInputBytes=" + this.maxInputBytes + ",maxTokens=" + this.maxTokens
+            + ",maxTokenLength=" + this.maxTokenLength + ",maxNestingDepth="
+            + this.maxNestingDepth + ",maxWidgets=" + this.maxWidgets + ",maxWindowSize="
+            + this.maxWindowSize + ",maxGridSize=" + this.maxGridSize;
+    }
+}
\ No newline at end of file
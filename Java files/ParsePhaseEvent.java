@@ -0,0 +1,55 @@
+/**
+ * ParsePhaseEvent.java - JDK Flight Recorder event recorded for each phase of processing a file
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import jdk.jfr.*;
+
+/**
+ * This class is the custom JDK Flight Recorder event committed by <code>PhaseTimer</code> at the
+ * end of each phase of processing a file, those being reading, lexing, parsing, realization, and
+ * the showing of the resultant dialog. Each event carries the phase's duration along with the name
+ * of the file, its size in bytes, its number of tokens, and the nesting depth and number of
+ * widgets of its widget tree, where known by the end of the phase in question.
+ * <br />
+ * <br />
+ * As with all JFR events, an event that is not enabled costs little more than its allocation,
+ * which the JIT compiler is usually able to remove, so the events may be left in place at all
+ * times. Stack traces are disabled, as the phase name already identifies where the event was
+ * recorded. Events may be recorded by starting the program with a flag like
+ * <code>-XX:StartFlightRecording=filename=parser.jfr</code> and inspected with
+ * <code>jfr print --events recursivedescentparser.ParsePhase parser.jfr</code>.
+ * <br />
+ * <br />
+ * @see jdk.jfr.Event
+ * @author Andrew Eissen
+ */
+@Name("recursivedescentparser.ParsePhase")
+@Label("Parse Phase")
+@Category("Recursive Descent Parser")
+@Description("A single phase of reading, lexing, parsing, realizing, or showing a file")
+@StackTrace(false)
+final class ParsePhaseEvent extends Event {
+
+    // Declarations
+    @Label("Phase")
+    protected String phase;
+
+    @Label("File")
+    protected String fileName;
+
+    @Label("Bytes")
+    @DataAmount
+    protected long bytes;
+
+    @Label("Tokens")
+    protected int tokens;
+
+    @Label("Nesting Depth")
+    protected int nestingDepth;
+
+    @Label("Widgets")
+    protected int widgets;
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+/**
+ * ParseResult.java - Class for the outcome of a headless parse
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.Serializable;
+
+/**
+ * This simple class is used to carry the outcome of a file parsed without a status GUI back to the
+ * caller. A successful parse provides the root <code>Widget</code> of the widget tree, while a
+ * failed parse instead provides the first error message encountered, as per the project rubric
+ * requirement to report only the first error. The number of tokens lexed from the file is included
+ * in both cases for reporting purposes. A parse stopped by its <code>CancellationToken</code>
+ * provides neither, being marked as cancelled instead, with the reason as its message.
+ * <br />
+ * <br />
+ * @author Andrew Eissen
+ */
+final class ParseResult implements Serializable {
+
+    // Declarations
+    private static final long serialVersionUID = 1L;
+    private Widget windowWidget;
+    private String errorMessage;
+    private int errorLineNumber;
+    private int tokenCount;
+    private boolean isCancelled;
+
+    /**
+     * Parameterized constructor
+     * @param windowWidget <code>Widget</code>, or <code>null</code> if parsing failed
+     * @param errorMessage <code>String</code>, or <code>null</code> if parsing succeeded
+     * @param errorLineNumber <code>int</code> line number of the error, if any
+     * @param tokenCount <code>int</code>
+     */
+    protected ParseResult(Widget windowWidget, String errorMessage, int errorLineNumber,
+            int tokenCount) {
+        this(windowWidget, errorMessage, errorLineNumber, tokenCount, false);
+    }
+
+    /**
+     * Parameterized constructor
+     * @param windowWidget <code>Widget</code>, or <code>null</code> if parsing failed
+     * @param errorMessage <code>String</code>, or <code>null</code> if parsing succeeded
+     * @param errorLineNumber <code>int</code> line number of the error, if any
+     * @param tokenCount <code>int</code>
+     * @param isCancelled <code>boolean</code> whether parsing was cancelled before completion
+     */
+    protected ParseResult(Widget windowWidget, String errorMessage, int errorLineNumber,
+            int tokenCount, boolean isCancelled) {
+        this.setWindowWidget(windowWidget);
+        this.setErrorMessage(errorMessage);
+        this.setErrorLineNumber(errorLineNumber);
+        this.setTokenCount(tokenCount);
+        this.setIsCancelled(isCancelled);
+    }
+
+    // Setters
+
+    /**
+     * Setter for <code>windowWidget</code>
+     * @param windowWidget <code>Widget</code>
+     * @return void
+     */
+    private void setWindowWidget(Widget windowWidget) {
+        this.windowWidget = windowWidget;
+    }
+
+    /**
+     * Setter for <code>errorMessage</code>
+     * @param errorMessage <code>String</code>
+     * @return void
+     */
+    private void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Setter for <code>errorLineNumber</code>
+     * @param errorLineNumber <code>int</code>
+     * @return void
+     */
+    private void setErrorLineNumber(int errorLineNumber) {
+        this.errorLineNumber = errorLineNumber;
+    }
+
+    /**
+     * Setter for <code>tokenCount</code>
+     * @param tokenCount <code>int</code>
+     * @return void
+     */
+    private void setTokenCount(int tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+
+    /**
+     * Setter for <code>isCancelled</code>
+     * @param isCancelled <code>boolean</code>
+     * @return void
+     */
+    private void setIsCancelled(boolean isCancelled) {
+        this.isCancelled = isCancelled;
+    }
+
+    // Getters
+
+    /**
+     * Getter for <code>windowWidget</code>
+     * @return windowWidget
+     */
+    protected Widget getWindowWidget() {
+        return this.windowWidget;
+    }
+
+    /**
+     * Getter for <code>errorMessage</code>
+     * @return errorMessage
+     */
+    protected String getErrorMessage() {
+        return this.errorMessage;
+    }
+
+    /**
+     * Getter for <code>errorLineNumber</code>
+     * @return errorLineNumber
+     */
+    protected int getErrorLineNumber() {
+        return this.errorLineNumber;
+    }
+
+    /**
+     * Getter for <code>tokenCount</code>
+     * @return tokenCount
+     */
+    protected int getTokenCount() {
+        return this.tokenCount;
+    }
+
+    /**
+     * Getter for <code>isCancelled</code>, whether the parse was stopped before completion, in
+     * which case the file was neither found well formed nor malformed
+     *
+     * @return isCancelled
+     */
+    protected boolean isCancelled() {
+        return this.isCancelled;
+    }
+
+    // Helper methods
+
+    /**
+     * Determines whether the file was parsed successfully.
+     * @return <code>boolean</code>
+     */
+    protected boolean isSuccessful() {
+        return this.getWindowWidget() != null;
+    }
+}
\ No newline at end of file
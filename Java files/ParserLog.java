@@ -0,0 +1,44 @@
+/**
+ * ParserLog.java - Destination of the messages logged while parsing
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+/**
+ * This interface receives the messages logged by a <code>RecursiveDescentParser</code> as it
+ * parses, namely the tokens and types of the file when details are shown and the first error
+ * message found. It was split from <code>Application</code>, which remains its principal
+ * implementation, so that parsers may log without a status GUI, as when run by a
+ * <code>SpecParser</code> on behalf of a service. Implementations used by a <code>SpecParser</code>
+ * shared between threads may be called from any number of threads at once.
+ * <br />
+ * <br />
+ * @see SpecParser
+ * @author Andrew Eissen
+ */
+interface ParserLog {
+
+    /**
+     * Discards every message, used when a parser has nowhere to log.
+     */
+    ParserLog DISCARD = (String message) -> { };
+
+    /**
+     * Adds a single message to the log.
+     * @param message <code>String</code> message contents
+     * @return void
+     */
+    void addLogEntry(String message);
+
+    /**
+     * Determines whether detailed messages, being the tokens and types of the file and the names of
+     * the methods in which errors were found, should be logged as well as errors. Defaults to
+     * <code>false</code>, as these amount to several messages per token.
+     *
+     * @return <code>boolean</code>
+     */
+    default boolean isShowingDetails() {
+        return false;
+    }
+}
\ No newline at end of file
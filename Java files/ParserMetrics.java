@@ -0,0 +1,254 @@
+/**
+ * ParserMetrics.java - Process-wide running totals of files parsed, exposed as a platform MBean
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+/**
+ * This class keeps running totals of the work done by every parser in the process, for inspection
+ * over JMX while the program runs, whether as the GUI or headlessly in batch, bundle, or daemon
+ * mode. Whereas <code>PhaseTimer</code> reports on a single file, this class counts files parsed,
+ * successes, failures by the type of token expected at the first error, and tokens processed, and
+ * keeps the greatest nesting depth and widget count seen along with a
+ * <code>LatencyHistogram</code> of the durations of each phase.
+ * <br />
+ * <br />
+ * As batch mode parses many files at once, counters are <code>LongAdder</code>s and maxima
+ * <code>LongAccumulator</code>s, which spread contended updates across cells rather than making
+ * threads retry on a single value. Failures by type are kept in an array indexed by the
+ * <code>Type</code>'s ordinal, so no map is touched when recording. A single instance is shared by
+ * the whole process, and is registered with the platform MBean server under the name
+ * <code>recursivedescentparser:type=ParserMetrics</code> by the main method of each entry point.
+ * <br />
+ * <br />
+ * @see ParserMetricsMXBean
+ * @author Andrew Eissen
+ */
+final class ParserMetrics implements ParserMetricsMXBean {
+
+    // Declarations
+    private static final String OBJECT_NAME = "recursivedescentparser:type=ParserMetrics";
+    private static final ParserMetrics INSTANCE = new ParserMetrics();
+    private LongAdder filesParsed, successes, tokensProcessed;
+    private LongAdder[] failuresByType;
+    private LongAccumulator maxNestingDepth, maxWidgetCount;
+    private LatencyHistogram[] phaseLatencies;
+
+    /**
+     * Default constructor, private as the only instance is <code>INSTANCE</code>
+     */
+    private ParserMetrics() {
+        this.filesParsed = new LongAdder();
+        this.successes = new LongAdder();
+        this.tokensProcessed = new LongAdder();
+        this.maxNestingDepth = new LongAccumulator(Math::max, 0);
+        this.maxWidgetCount = new LongAccumulator(Math::max, 0);
+
+        this.failuresByType = new LongAdder[Type.values().length];
+        for (int index = 0; index < this.failuresByType.length; index++) {
+            this.failuresByType[index] = new LongAdder();
+        }
+
+        this.phaseLatencies = new LatencyHistogram[PhaseTimer.Phase.values().length];
+        for (int index = 0; index < this.phaseLatencies.length; index++) {
+            this.phaseLatencies[index] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Getter for the process-wide instance
+     * @return <code>ParserMetrics</code>
+     */
+    protected static ParserMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This method registers the process-wide instance with the platform MBean server, doing
+     * nothing if it has already been registered. Failure to register is reported to the standard
+     * error stream rather than thrown, as metrics are never worth refusing to start over.
+     *
+     * @return void
+     */
+    protected static synchronized void register() {
+
+        // Declarations
+        MBeanServer server;
+        ObjectName name;
+
+        try {
+            server = ManagementFactory.getPlatformMBeanServer();
+            name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException | SecurityException exception) {
+            System.err.println("Unable to register " + OBJECT_NAME + ": " + exception);
+        }
+    }
+
+    // Recording methods
+
+    /**
+     * Records the outcome of parsing a single file. The nesting depth and widget count are those
+     * kept by the parser as it enforces its <code>ParseLimits</code>, and are measured as those
+     * limits are, so that the maxima may be compared against the limits directly.
+     *
+     * @param tokens <code>int</code> number of tokens parsed
+     * @param isWellFormed <code>boolean</code> whether the file was well formed
+     * @param nestingDepth <code>int</code> deepest level of nesting reached
+     * @param widgets <code>long</code> number of widgets as realized
+     * @param errorType <code>Type</code> expected at the first error, ignored if well formed
+     * @return void
+     */
+    protected void recordParse(int tokens, boolean isWellFormed, int nestingDepth, long widgets,
+            Type errorType) {
+        this.filesParsed.increment();
+        this.tokensProcessed.add(tokens);
+
+        if (isWellFormed) {
+            this.successes.increment();
+            this.maxNestingDepth.accumulate(nestingDepth);
+            this.maxWidgetCount.accumulate(widgets);
+        } else {
+            this.failuresByType[((errorType != null) ? errorType : Type.UNKNOWN).ordinal()]
+                .increment();
+        }
+    }
+
+    /**
+     * Records the duration of a single phase of processing a file.
+     * @param phase <code>PhaseTimer.Phase</code>
+     * @param nanos <code>long</code>
+     * @return void
+     */
+    protected void recordPhase(PhaseTimer.Phase phase, long nanos) {
+        this.phaseLatencies[phase.ordinal()].record(nanos);
+    }
+
+    // MXBean attributes
+
+    @Override
+    public long getFilesParsed() {
+        return this.filesParsed.sum();
+    }
+
+    @Override
+    public long getSuccesses() {
+        return this.successes.sum();
+    }
+
+    @Override
+    public long getFailures() {
+
+        // Declaration
+        long failures;
+
+        failures = 0;
+        for (LongAdder failuresOfType : this.failuresByType) {
+            failures += failuresOfType.sum();
+        }
+        return failures;
+    }
+
+    @Override
+    public Map<String, Long> getFailuresByType() {
+
+        // Declarations
+        TreeMap<String, Long> failures;
+        long count;
+
+        failures = new TreeMap<>();
+        for (Type type : Type.values()) {
+            count = this.failuresByType[type.ordinal()].sum();
+            if (count > 0) {
+                failures.put(type.name(), count);
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public long getTokensProcessed() {
+        return this.tokensProcessed.sum();
+    }
+
+    @Override
+    public int getMaxNestingDepth() {
+        return this.maxNestingDepth.intValue();
+    }
+
+    @Override
+    public int getMaxWidgetCount() {
+        return (int) Math.min(this.maxWidgetCount.get(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Map<String, Double> getP50LatencyMillis() {
+        return this.getPhaseLatencies(0.50);
+    }
+
+    @Override
+    public Map<String, Double> getP99LatencyMillis() {
+        return this.getPhaseLatencies(0.99);
+    }
+
+    @Override
+    public Map<String, Double> getMaxLatencyMillis() {
+        return this.getPhaseLatencies(1.0);
+    }
+
+    // MXBean operations
+
+    @Override
+    public void reset() {
+        this.filesParsed.reset();
+        this.successes.reset();
+        this.tokensProcessed.reset();
+        this.maxNestingDepth.reset();
+        this.maxWidgetCount.reset();
+
+        for (LongAdder failuresOfType : this.failuresByType) {
+            failuresOfType.reset();
+        }
+        for (LatencyHistogram histogram : this.phaseLatencies) {
+            histogram.reset();
+        }
+    }
+
+    // Helper methods
+
+    /**
+     * Returns the parameter percentile of each phase recorded thus far, in milliseconds, with
+     * <code>1.0</code> giving the exact maximum rather than a bucket's bound.
+     *
+     * @param fraction <code>double</code>
+     * @return <code>Map</code> of phase names to milliseconds, in the order of the phases
+     */
+    private Map<String, Double> getPhaseLatencies(double fraction) {
+
+        // Declarations
+        LinkedHashMap<String, Double> latencies;
+        LatencyHistogram histogram;
+        long nanos;
+
+        latencies = new LinkedHashMap<>();
+        for (PhaseTimer.Phase phase : PhaseTimer.Phase.values()) {
+            histogram = this.phaseLatencies[phase.ordinal()];
+            if (histogram.getCount() > 0) {
+                nanos = (fraction >= 1.0)
+                    ? histogram.getMaximum()
+                    : histogram.getPercentile(fraction);
+                latencies.put(phase.toString(), nanos / 1e6);
+            }
+        }
+        return latencies;
+    }
+}
\ No newline at end of file
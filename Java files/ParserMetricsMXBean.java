@@ -0,0 +1,48 @@
+/**
+ * ParserMetricsMXBean.java - Management interface of the parser's running totals
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.util.Map;
+
+/**
+ * This interface defines the attributes and operations of <code>ParserMetrics</code> as exposed to
+ * JMX clients like <tt>JConsole</tt> and <tt>VisualVM</tt>. It must be public for the platform
+ * MBean server to accept it, unlike the rest of the program. As an MXBean, its maps are presented
+ * as tabular data using only standard types, so clients need none of the program's classes.
+ * <br />
+ * <br />
+ * Latency maps are keyed by phase name, such as <code>"parse"</code>, with values in milliseconds.
+ * Failure counts are keyed by the name of the token type the parser expected when it found the
+ * first error of a file, or <code>"UNKNOWN"</code> for errors not tied to a single type.
+ * <br />
+ * <br />
+ * @see ParserMetrics
+ * @author Andrew Eissen
+ */
+public interface ParserMetricsMXBean {
+
+    long getFilesParsed();
+
+    long getSuccesses();
+
+    long getFailures();
+
+    Map<String, Long> getFailuresByType();
+
+    long getTokensProcessed();
+
+    int getMaxNestingDepth();
+
+    int getMaxWidgetCount();
+
+    Map<String, Double> getP50LatencyMillis();
+
+    Map<String, Double> getP99LatencyMillis();
+
+    Map<String, Double> getMaxLatencyMillis();
+
+    void reset();
+}
\ No newline at end of file
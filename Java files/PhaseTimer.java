@@ -0,0 +1,163 @@
+/**
+ * PhaseTimer.java - Times the phases of processing a file and records them as JFR events
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+/**
+ * This class is used to see where time goes when a file is processed. Each parser owns an instance
+ * into which the lexer, parser, and realizer record the duration of their phases, with
+ * <code>Application.class.selectFile</code> recording the reading of the file as well. The total
+ * time of each phase is kept for the summary line added to the status log, and a
+ * <code>ParsePhaseEvent</code> is committed for each phase for inspection in JDK Flight Recorder.
+ * Each duration is also added to the process-wide <code>ParserMetrics</code>.
+ * <br />
+ * <br />
+ * Phases are timed via <code>System.nanoTime</code> and stored in an array indexed by the
+ * <code>Phase</code>'s ordinal, so recording a phase allocates nothing beyond the event itself.
+ * The nesting depth and widget count of the widget tree are those kept by the parser as it
+ * enforces its <code>ParseLimits</code>, so recording them requires no walk of the tree.
+ * <br />
+ * <br />
+ * @see ParsePhaseEvent
+ * @author Andrew Eissen
+ */
+final class PhaseTimer {
+
+    /**
+     * The phases of processing a file, in the order in which they occur.
+     */
+    protected enum Phase {
+        READ("read"),
+        LEX("lex"),
+        PARSE("parse"),
+        REALIZE("realize"),
+        SHOW("show");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return this.label;
+        }
+    }
+
+    // Declarations
+    private String fileName;
+    private long[] phaseNanos;
+    private boolean[] isRecorded;
+    private ParsePhaseEvent event;
+    private Phase currentPhase;
+    private long startTime;
+
+    /**
+     * Parameterized constructor
+     * @param fileName <code>String</code> name of the file being processed, or <code>null</code>
+     */
+    protected PhaseTimer(String fileName) {
+        this.fileName = fileName;
+        this.phaseNanos = new long[Phase.values().length];
+        this.isRecorded = new boolean[Phase.values().length];
+    }
+
+    /**
+     * Setter for <code>fileName</code>, used once the name of the file being processed is known
+     * @param fileName <code>String</code>
+     * @return void
+     */
+    protected void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Getter for the total number of nanoseconds recorded for the parameter phase
+     * @param phase <code>Phase</code>
+     * @return <code>long</code>
+     */
+    protected long getPhaseNanos(Phase phase) {
+        return this.phaseNanos[phase.ordinal()];
+    }
+
+    // Timing methods
+
+    /**
+     * Begins timing the parameter phase.
+     * @param phase <code>Phase</code>
+     * @return void
+     */
+    protected void begin(Phase phase) {
+        this.currentPhase = phase;
+        this.event = new ParsePhaseEvent();
+        this.event.begin();
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Ends timing the phase begun most recently, committing its event with the parameter details.
+     * @param bytes <code>long</code> size of the file, or <code>0</code> if unknown
+     * @param tokens <code>int</code> number of tokens, or <code>0</code> if unknown
+     * @param nestingDepth <code>int</code> deepest level of nesting, or <code>0</code> if unknown
+     * @param widgets <code>long</code> number of widgets as realized, or <code>0</code> if unknown
+     * @return void
+     */
+    protected void end(long bytes, int tokens, int nestingDepth, long widgets) {
+
+        // Declaration
+        long elapsedNanos;
+
+        elapsedNanos = System.nanoTime() - this.startTime;
+        this.phaseNanos[this.currentPhase.ordinal()] += elapsedNanos;
+        ParserMetrics.getInstance().recordPhase(this.currentPhase, elapsedNanos);
+        this.isRecorded[this.currentPhase.ordinal()] = true;
+        this.event.end();
+
+        if (this.event.shouldCommit()) {
+            this.event.phase = this.currentPhase.toString();
+            this.event.fileName = this.fileName;
+            this.event.bytes = bytes;
+            this.event.tokens = tokens;
+            this.event.nestingDepth = nestingDepth;
+            this.event.widgets = (int) Math.min(widgets, Integer.MAX_VALUE);
+            this.event.commit();
+        }
+        this.event = null;
+    }
+
+    /**
+     * Returns a single line summary of the time taken by each recorded phase along with the rate
+     * at which tokens were lexed and parsed, if they were, suitable for the status log.
+     *
+     * @param tokens <code>int</code> number of tokens in the file
+     * @return <code>String</code>
+     */
+    protected String getSummary(int tokens) {
+
+        // Declarations
+        StringBuilder summary;
+        String separator;
+        long tokenNanos;
+
+        summary = new StringBuilder("Timing:");
+        separator = " ";
+        for (Phase phase : Phase.values()) {
+            if (this.isRecorded[phase.ordinal()]) {
+                summary.append(separator).append(String.format("%s %.2f ms", phase,
+                    this.getPhaseNanos(phase) / 1e6));
+                separator = ", ";
+            }
+        }
+
+        // Only lexing and parsing handle tokens, neither of which occur for cached results
+        tokenNanos = this.getPhaseNanos(Phase.LEX) + this.getPhaseNanos(Phase.PARSE);
+        if (tokenNanos > 0) {
+            summary.append(String.format("; %d tokens at %.0f tokens/sec", tokens,
+                tokens / (tokenNanos / 1e9)));
+        }
+        return summary.toString();
+    }
+}
\ No newline at end of file
@@ -6,9 +6,10 @@
 //package recursivedescentparser;
 
 import java.awt.*;
+import java.io.*;
 import javax.swing.*;
 import java.util.*;
-import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
@@ -37,28 +38,48 @@ final class RecursiveDescentParser {
 
     /*
      * Class table of contents
-     * - Setters                                    (line 74)
-     * - Getters                                    (line 103)
+     * - Setters                                    (line 113)
+     * - Getters                                    (line 164)
      * - Lexer
-     *   - Lexer methods                            (line 129)
-     *   - Lexer helper methods                     (line 220)
+     *   - Lexer methods                            (line 303)
+     *   - Lexer helper methods                     (line 486)
      * - Parser
-     *   - Printing/logging helper methods          (line 341)
-     *   - Token-related getter helper methods      (line 438)
-     *   - Format progression-checking methods      (line 491)
-     *   - Reflection methods (for recursion)       (line 878)
-     *   - Reflection helper methods                (line 1014)
+     *   - Printing/logging helper methods          (line 805)
+     *   - Token-related getter helper methods      (line 916)
+     *   - Limit-checking methods                   (line 987)
+     *   - Cancellation methods                     (line 1127)
+     *   - Format progression-checking methods      (line 1193)
+     *   - Reflection methods (for recursion)       (line 1937)
+     *   - Reflection helper methods                (line 2066)
      */
 
     // Declarations
+    protected static final int PARSER_VERSION = 4;  // Increment whenever the widget tree changes
+    private static final Map<String, Method> ELEMENT_METHODS = new ConcurrentHashMap<>();
+    private static final int CANCELLATION_CHECK_INTERVAL = 256; // Elements or lines per check
     private Application parent;
+    private ParserLog log;
     private ArrayList<Token> tokensList;
+    private ByteLexer lexer;
     private int tokenIndex;
-    private boolean isFirstErrorFound;
+    private boolean isFirstErrorFound, isWellFormed, isInterning, isAborted, isCancelled;
+    private String firstErrorMessage;
+    private int firstErrorLineNumber;
+    private Type firstErrorType;
     private JDialog resultsDialog;
-    private ButtonGroup radioGroup;
+    private Widget windowWidget;
     private Type currentTokenType;
-    private Container currentElement;
+    private Widget currentElement;
+    private HashMap<String, Widget> templates;
+    private File sourceFile;
+    private Map<String, ParseResult> includes;
+    private PhaseTimer phaseTimer;
+    private ParseLimits limits;
+    private int nestingDepth, maxNestingDepth;
+    private long widgetCount;
+    private IdentityHashMap<Widget, long[]> subtreeMeasures;
+    private CancellationToken cancellationToken;
+    private int cancellationCountdown;
 
     /**
      * Standard constructor
@@ -66,9 +87,27 @@ final class RecursiveDescentParser {
      */
     protected RecursiveDescentParser(Application parent) {
         this.setParent(parent);
+        this.setLog((parent != null) ? parent : ParserLog.DISCARD);
         this.setTokensList(new ArrayList<>());
         this.setIsFirstErrorFound(false);
         this.tokenIndex = 0;
+        this.templates = new HashMap<>();
+        this.includes = Collections.emptyMap();
+        this.phaseTimer = new PhaseTimer(null);
+        this.isInterning = Boolean.getBoolean("rdp.internWidgets");
+        this.limits = new ParseLimits();
+        this.subtreeMeasures = new IdentityHashMap<>();
+        this.cancellationToken = CancellationToken.NONE;
+        this.cancellationCountdown = CANCELLATION_CHECK_INTERVAL;
+    }
+
+    /**
+     * Headless constructor, used when no status GUI exists to which messages may be logged. Token
+     * details are not logged, though the first error message remains available via
+     * <code>RecursiveDescentParser.class.getFirstErrorMessage</code>.
+     */
+    protected RecursiveDescentParser() {
+        this(null);
     }
 
     // Setters
@@ -82,6 +121,17 @@ final class RecursiveDescentParser {
         this.parent = parent;
     }
 
+    /**
+     * Setter for <code>log</code>, to which messages are logged while parsing. Defaults to the
+     * parent <code>Application</code>, or to discarding every message if there is none.
+     *
+     * @param log <code>ParserLog</code>
+     * @return void
+     */
+    protected void setLog(ParserLog log) {
+        this.log = log;
+    }
+
     /**
      * Setter for <code>tokensList</code>
      * @param tokensList <code>ArrayList</code>
@@ -100,6 +150,17 @@ final class RecursiveDescentParser {
         this.isFirstErrorFound = isFirstErrorFound;
     }
 
+    /**
+     * Setter for <code>firstErrorMessage</code> and <code>firstErrorLineNumber</code>
+     * @param firstErrorMessage <code>String</code>
+     * @param firstErrorLineNumber <code>int</code>
+     * @return void
+     */
+    private void setFirstError(String firstErrorMessage, int firstErrorLineNumber) {
+        this.firstErrorMessage = firstErrorMessage;
+        this.firstErrorLineNumber = firstErrorLineNumber;
+    }
+
     // Getters
 
     /**
@@ -126,6 +187,119 @@ final class RecursiveDescentParser {
         return this.isFirstErrorFound;
     }
 
+    // Getters for cross-class usage
+
+    /**
+     * Getter for <code>resultsDialog</code>, <code>null</code> until a file is successfully parsed
+     * @return resultsDialog
+     */
+    protected JDialog getResultsDialog() {
+        return this.resultsDialog;
+    }
+
+    /**
+     * Getter for <code>windowWidget</code>, the root of the parsed widget tree
+     * @return windowWidget
+     */
+    protected Widget getWindowWidget() {
+        return this.windowWidget;
+    }
+
+    /**
+     * Getter for <code>firstErrorMessage</code>, <code>null</code> if no error has been found
+     * @return firstErrorMessage
+     */
+    protected String getFirstErrorMessage() {
+        return this.firstErrorMessage;
+    }
+
+    /**
+     * Getter for <code>phaseTimer</code>, into which the duration of each phase is recorded
+     * @return phaseTimer
+     */
+    protected PhaseTimer getPhaseTimer() {
+        return this.phaseTimer;
+    }
+
+    /**
+     * Setter for <code>sourceFile</code>, the file being parsed, against whose directory included
+     * paths are resolved. Included paths are resolved against the working directory if unset.
+     *
+     * @param sourceFile <code>File</code>
+     * @return void
+     */
+    protected void setSourceFile(File sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    /**
+     * Setter for <code>isInterning</code>, which determines whether identical subtrees of the
+     * widget tree are shared once parsed, as done by the <code>WidgetInterner</code>. Defaults to
+     * the value of the <code>rdp.internWidgets</code> system property.
+     *
+     * @param isInterning <code>boolean</code>
+     * @return void
+     */
+    protected void setInterning(boolean isInterning) {
+        this.isInterning = isInterning;
+    }
+
+    /**
+     * Setter for <code>limits</code>, the <code>ParseLimits</code> placed upon the file. Defaults
+     * to the default limits, as overridden by any system properties.
+     *
+     * @param limits <code>ParseLimits</code>
+     * @return void
+     */
+    protected void setLimits(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Setter for <code>cancellationToken</code>, by which the parse may be stopped before it
+     * completes. Defaults to <code>CancellationToken.NONE</code>, which is never cancelled.
+     *
+     * @param cancellationToken <code>CancellationToken</code>
+     * @return void
+     */
+    protected void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Supplies the lexer and token list used in place of new ones, as done by the
+     * <code>SpecParser</code>, which keeps one of each per thread for reuse across parses. The
+     * list must be empty, and is left holding the tokens of the parse until cleared by the caller.
+     *
+     * @param lexer <code>ByteLexer</code> reset prior to lexing
+     * @param tokensList <code>ArrayList</code> empty list of <code>Token</code>s
+     * @return void
+     */
+    protected void setBuffers(ByteLexer lexer, ArrayList<Token> tokensList) {
+        this.lexer = lexer;
+        this.setTokensList(tokensList);
+    }
+
+    /**
+     * Determines whether the most recent parse included any other files, in which case its result
+     * depends on more than the contents of the file and should not be cached by those contents.
+     *
+     * @return <code>boolean</code>
+     */
+    protected boolean hasIncludes() {
+        return !this.includes.isEmpty();
+    }
+
+    /**
+     * Getter for a <code>ParseResult</code> summarizing the outcome of the most recent parse
+     * @return <code>ParseResult</code>
+     */
+    protected ParseResult getParseResult() {
+        return new ParseResult((this.isWellFormed) ? this.getWindowWidget() : null,
+            this.getFirstErrorMessage(), this.firstErrorLineNumber, this.getTokensList().size(),
+            this.isCancelled);
+    }
+
     // Lexer methods
 
     /**
@@ -154,54 +328,259 @@ final class RecursiveDescentParser {
      * @return void
      */
     protected void processScannerContents(Scanner scannerContents) {
+        this.lexScannerContents(scannerContents);
+        this.printArrayListToConsole();
+        this.parseContents();
+    }
+
+    /**
+     * This method is used to build the widget tree of the parameter <code>Scanner</code> contents
+     * without realizing it into a <tt>Swing</tt> GUI. It is used when a file is re-parsed after it
+     * has changed on disk, allowing the new tree to be compared against the one behind the open
+     * <code>JDialog</code> rather than building a whole new dialog. Tokens and error messages are
+     * logged just as they are in <code>RecursiveDescentParser.class.processScannerContents</code>.
+     *
+     * @param scannerContents <code>Scanner</code> contents from text file
+     * @return <code>Widget</code> of <code>Type.WINDOW</code>, or <code>null</code> if malformed
+     */
+    protected Widget buildWidgetTree(Scanner scannerContents) {
+        this.lexScannerContents(scannerContents);
+        return this.buildWidgetTreeFromTokens();
+    }
+
+    /**
+     * This method is the headless counterpart of
+     * <code>RecursiveDescentParser.class.processScannerContents</code>, used when files are parsed
+     * without a status GUI (as by the <code>SnapshotRenderer</code>). Rather than displaying the
+     * resultant GUI, the widget tree or first error message is returned in a
+     * <code>ParseResult</code> for the caller to handle as it sees fit.
+     *
+     * @param scannerContents <code>Scanner</code> contents from text file
+     * @return <code>ParseResult</code>
+     */
+    protected ParseResult parseScannerContents(Scanner scannerContents) {
+        this.buildWidgetTree(scannerContents);
+        return this.getParseResult();
+    }
+
+    /**
+     * This method is the equivalent of
+     * <code>RecursiveDescentParser.class.processScannerContents</code> for UTF-8 encoded file
+     * contents read from an <code>InputStream</code>. The contents are lexed by a
+     * <code>ByteLexer</code>, which works upon the raw bytes rather than decoded characters but
+     * otherwise produces identical tokens, after which they are parsed and displayed as before.
+     *
+     * @param inputContents <code>InputStream</code> contents from text file
+     * @return void
+     * @throws IOException if the contents cannot be read
+     */
+    protected void processInputStream(InputStream inputContents) throws IOException {
+        this.lexInputStream(inputContents);
+        this.printArrayListToConsole();
+        this.parseContents();
+    }
+
+    /**
+     * <code>InputStream</code> counterpart of
+     * <code>RecursiveDescentParser.class.buildWidgetTree(Scanner)</code>, lexing the contents via
+     * a <code>ByteLexer</code>.
+     *
+     * @param inputContents <code>InputStream</code> contents from text file
+     * @return <code>Widget</code> of <code>Type.WINDOW</code>, or <code>null</code> if malformed
+     * @throws IOException if the contents cannot be read
+     */
+    protected Widget buildWidgetTree(InputStream inputContents) throws IOException {
+        this.lexInputStream(inputContents);
+        return this.buildWidgetTreeFromTokens();
+    }
+
+    /**
+     * <code>InputStream</code> counterpart of
+     * <code>RecursiveDescentParser.class.parseScannerContents</code>, lexing the contents via a
+     * <code>ByteLexer</code>.
+     *
+     * @param inputContents <code>InputStream</code> contents from text file
+     * @return <code>ParseResult</code>
+     * @throws IOException if the contents cannot be read
+     */
+    protected ParseResult parseInputStream(InputStream inputContents) throws IOException {
+        this.buildWidgetTree(inputContents);
+        return this.getParseResult();
+    }
+
+    /**
+     * This method parses a list of tokens lexed elsewhere, as by the <code>BundleRunner</code>,
+     * which pulls the tokens of each window definition in a bundle from a single
+     * <code>ByteLexer</code> and hands them to a new parser one definition at a time. The list is
+     * used as is rather than copied.
+     *
+     * @param tokens <code>ArrayList</code> of <code>Token</code>s of a single window definition
+     * @return <code>ParseResult</code>
+     */
+    protected ParseResult parseTokens(ArrayList<Token> tokens) {
+        this.setTokensList(tokens);
+        this.buildWidgetTreeFromTokens();
+        return this.getParseResult();
+    }
+
+    /**
+     * This method parses the tokens of a file included by another, as done by the
+     * <code>ModuleCache</code>. Such files consist solely of widgets, which are returned as the
+     * children of a <code>Type.INCLUDE</code> widget in place of a window. The files the tokens
+     * themselves include must already have been resolved by the cache.
+     *
+     * @param tokens <code>ArrayList</code> of the included file's <code>Token</code>s
+     * @param includes <code>Map</code> of canonical paths to results of the files it includes
+     * @return <code>ParseResult</code>
+     */
+    protected ParseResult parseFragment(ArrayList<Token> tokens,
+            Map<String, ParseResult> includes) {
+        this.setTokensList(tokens);
+        this.includes = includes;
+        this.windowWidget = new Widget(Type.INCLUDE,
+            (this.sourceFile != null) ? this.sourceFile.getName() : null, 1);
+        this.currentElement = this.windowWidget;
+        this.checkTokenLimit();
+        this.isWellFormed = !this.isAborted && this.hasWellFormedFragment();
+        if (this.isWellFormed && this.isInterning) {
+            this.internWidgetTree();
+        }
+        if (this.isCancelled) {
+            this.releasePartialTree();
+        }
+        return this.getParseResult();
+    }
+
+    /**
+     * Parses the already lexed tokens into a widget tree, shared by the above entry points.
+     * @return <code>Widget</code> of <code>Type.WINDOW</code>, or <code>null</code> if malformed
+     */
+    private Widget buildWidgetTreeFromTokens() {
+        this.printArrayListToConsole();
+        this.parseTokensList();
+        return (this.isWellFormed) ? this.getWindowWidget() : null;
+    }
+
+    /**
+     * This method is used in place of
+     * <code>RecursiveDescentParser.class.processScannerContents</code> when the outcome of parsing
+     * a file is already known, as when an unchanged file is found in the <code>ParseCache</code>.
+     * Lexing and parsing are skipped entirely, with the cached widget tree displayed or the cached
+     * error message logged just as though the file had been parsed.
+     *
+     * @param cachedResult <code>ParseResult</code> of an earlier parse of identical contents
+     * @return void
+     */
+    protected void processCachedResult(ParseResult cachedResult) {
+        this.windowWidget = cachedResult.getWindowWidget();
+        this.isWellFormed = cachedResult.isSuccessful();
+
+        if (!this.isWellFormed) {
+            this.setFirstError(cachedResult.getErrorMessage(), cachedResult.getErrorLineNumber());
+            this.setIsFirstErrorFound(true);
+            this.addLogEntry(cachedResult.getErrorMessage());
+        }
+        this.displayResults();
+    }
+
+    // Lexer helper methods
+
+    /**
+     * Lexes the parameter UTF-8 encoded contents via a <code>ByteLexer</code>, recording the time
+     * taken as the lex phase. Should the contents exceed the limits enforced by the lexer, lexing
+     * stops there and parsing is abandoned with the limit exceeded as the first error, as it is
+     * should the lexer find the parse cancelled.
+     *
+     * @param inputContents <code>InputStream</code> contents from text file
+     * @return void
+     * @throws IOException if the contents cannot be read
+     */
+    private void lexInputStream(InputStream inputContents) throws IOException {
+
+        if (this.lexer == null) {
+            this.lexer = new ByteLexer(inputContents);
+        } else {
+            this.lexer.reset(inputContents);
+        }
+
+        this.lexer.setLimits(this.limits);
+        this.lexer.setCancellationToken(this.cancellationToken);
+
+        this.phaseTimer.begin(PhaseTimer.Phase.LEX);
+        try {
+            this.lexer.lexInto(this.getTokensList());
+        } catch (ParseLimits.ExceededException ex) {
+            this.abort(ex.getMessage(), ex.getLineNumber(), "lexInputStream");
+        } catch (CancellationToken.CancelledException ex) {
+            this.cancel("lexInputStream");
+        }
+        this.phaseTimer.end(this.lexer.getByteCount(), this.getTokensList().size(), 0, 0);
+    }
+
+    /**
+     * This method contains the character-by-character lexer loop formerly located in the body of
+     * <code>RecursiveDescentParser.class.processScannerContents</code>. It was moved to a method of
+     * its own once the contents of a file needed to be lexed without necessarily being displayed.
+     *
+     * @param scannerContents <code>Scanner</code> contents from text file
+     * @return void
+     */
+    private void lexScannerContents(Scanner scannerContents) {
 
         // Declarations
-        String scannedLine, compositeString;
+        String scannedLine;
+        StringBuilder composite;
         ArrayList<Token> tokens;
         boolean isWithinQuotes;
-        char[] splitLine;
         int lineCounter;
+        char character;
         Token newToken;
         Type tokenType;
 
         // Definitions
         tokens = this.getTokensList();
+        composite = new StringBuilder();
         lineCounter = 0;
+        this.phaseTimer.begin(PhaseTimer.Phase.LEX);
 
         while (scannerContents.hasNextLine()) {
+            if (!this.pollCancellation("lexScannerContents")) {
+                break;
+            }
 
             // Definitions
             lineCounter++;
             scannedLine = scannerContents.nextLine().trim();
-            compositeString = "";
+            composite.setLength(0);
             isWithinQuotes = false;
-            splitLine = scannedLine.toCharArray();
 
-            for (char character : splitLine) {
+            for (int index = 0; index < scannedLine.length(); index++) {
+                character = scannedLine.charAt(index);
                 if (isWithinQuotes) { // if part of a String
                     if (character == '\"') {
-                        newToken = new Token(Type.STRING, compositeString, lineCounter);
+                        newToken = new Token(Type.STRING, composite.toString(), lineCounter);
                         tokens.add(newToken);
-                        compositeString = "";
+                        composite.setLength(0);
                     } else {
-                        compositeString += character;
+                        composite.append(character);
                     }
                 } else {
                     if ("(),:;.".indexOf(character) != -1) {
-                        // Clear out compositeString and make its contents a new Token
-                        compositeString = this.createNewToken(compositeString.trim(), lineCounter);
+                        // Clear out composite and make its contents a new Token
+                        this.createNewToken(composite, lineCounter);
 
                         // Make new Type symbol a Token as well
                         tokenType = this.determineSymbol(character);
-                        newToken = new Token(tokenType, String.valueOf(character), lineCounter);
+                        newToken = new Token(tokenType, this.getSymbolString(tokenType),
+                            lineCounter);
                         tokens.add(newToken);
-                    } else if (Character.isWhitespace(character) &&
-                            compositeString.trim().length() > 0) {
-                        compositeString = this.createNewToken(compositeString, lineCounter);
+                    } else if (Character.isWhitespace(character) && !this.isBlank(composite)) {
+                        this.createNewToken(composite, lineCounter);
                     } else {
                         if (character != '\"') {
                             // Handle excess spacing not in Strings
-                            compositeString = compositeString.trim() + character;
+                            this.trimComposite(composite);
+                            composite.append(character);
                         }
                     }
                 }
@@ -210,40 +589,77 @@ final class RecursiveDescentParser {
                     isWithinQuotes = !isWithinQuotes;
                 }
             }
-            this.createNewToken(compositeString, lineCounter);
+            this.createNewToken(composite, lineCounter);
         }
-
-        this.printArrayListToConsole();
-        this.parseContents();
+        this.phaseTimer.end(0, tokens.size(), 0, 0);
     }
 
-    // Lexer helper methods
-
     /**
      * This helper method was created to simplify three cases of copy/pasta in the above method,
      * <code>RecursiveDescentParser.class.processScannerContents</code>. Rather than reuse the same
      * code three times, this method was added to reduce such instances and enhance readability. It
      * determines token's <code>Type</code> and assembles a new <code>Token</code> instance if the
-     * included parameter <code>String</code> is not empty. It returns an empty <code>String</code>
-     * in all cases to help clear the above <code>compositeString</code> field.
+     * trimmed composite is not empty. The composite is cleared in all cases, as was formerly done
+     * by returning an empty <code>String</code> back into the old <code>compositeString</code>.
      *
-     * @param composite <code>String</code> <code>char</code> composite word
+     * @param composite <code>StringBuilder</code> <code>char</code> composite word
      * @param lineCounter <code>int</code> line counter for use in status GUI log
-     * @return empty <code>String</code>
+     * @return void
      */
-    private String createNewToken(String composite, int lineCounter) {
+    private void createNewToken(StringBuilder composite, int lineCounter) {
 
         // Declarations
         Type tokenType;
         Token newToken;
+        String token;
 
-        composite = composite.trim();
+        this.trimComposite(composite);
         if (composite.length() > 0) {
-            tokenType = this.determineType(composite);
-            newToken = new Token(tokenType, composite, lineCounter);
+            token = composite.toString();
+            tokenType = this.determineType(token);
+            newToken = new Token(tokenType, token, lineCounter);
             this.getTokensList().add(newToken);
         }
-        return "";
+        composite.setLength(0);
+    }
+
+    /**
+     * Determines whether the parameter composite consists solely of characters that
+     * <code>String.trim</code> would remove, without creating the trimmed <code>String</code>.
+     *
+     * @param composite <code>StringBuilder</code>
+     * @return <code>boolean</code>
+     */
+    private boolean isBlank(StringBuilder composite) {
+        for (int index = 0; index < composite.length(); index++) {
+            if (composite.charAt(index) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes leading and trailing characters from the parameter composite in place, exactly as
+     * <code>String.trim</code> would have removed them from the old <code>compositeString</code>.
+     *
+     * @param composite <code>StringBuilder</code>
+     * @return void
+     */
+    private void trimComposite(StringBuilder composite) {
+
+        // Declaration
+        int start;
+
+        while (composite.length() > 0 && composite.charAt(composite.length() - 1) <= ' ') {
+            composite.setLength(composite.length() - 1);
+        }
+
+        start = 0;
+        while (start < composite.length() && composite.charAt(start) <= ' ') {
+            start++;
+        }
+        composite.delete(0, start);
     }
 
     /**
@@ -275,13 +691,39 @@ final class RecursiveDescentParser {
         }
     }
 
+    /**
+     * Returns the shared <code>String</code> constant of the parameter symbol <code>Type</code>,
+     * sparing the lexer a new <code>String</code> for every symbol encountered.
+     *
+     * @param symbolType <code>Type</code>
+     * @return <code>String</code>
+     */
+    private String getSymbolString(Type symbolType) {
+        switch (symbolType) {
+            case COLON:
+                return ":";
+            case COMMA:
+                return ",";
+            case LPAREN:
+                return "(";
+            case PERIOD:
+                return ".";
+            case RPAREN:
+                return ")";
+            default:
+                return ";";
+        }
+    }
+
     /**
      * This method, like that above it, is largely lifted from the CMSC 335 module entitled
      * "C Program Formatter Written in Java." Like the aforementioned method, this method is used to
      * determine which <code>Type</code> the included assembled token is, which is then returned
      * from the <code>switch</code> body. If the token in question is not one of the types, the
      * token is checked to see if it is an integer, in which case <code>Type.NUMBER</code> type is
-     * returned instead. Else, <code>Type.UNKNOWN</code> is returned.
+     * returned instead. Else, <code>Type.UNKNOWN</code> is returned. Tokens that plainly cannot be
+     * integers are rejected before <code>Integer.parseInt</code> is tried, as the exception it
+     * throws otherwise costs far more than the rest of the lexing of the token.
      *
      * @param token <code>String</code> assembled token
      * @return <code>Type</code>
@@ -292,6 +734,11 @@ final class RecursiveDescentParser {
                 if (token.equals("Button")) {
                     return Type.BUTTON;
                 }
+            case 'D':
+                if (token.equals("Define")) {
+                    return Type.DEFINE;
+                }
+                return Type.UNKNOWN; // No other keyword or number begins thus
             case 'E':
                 if (token.equals("End")) {
                     return Type.END;
@@ -306,6 +753,11 @@ final class RecursiveDescentParser {
                 } else if (token.equals("Group")) {
                     return Type.GROUP;
                 }
+            case 'I':
+                if (token.equals("Include")) {
+                    return Type.INCLUDE;
+                }
+                return Type.UNKNOWN; // No other keyword or number begins thus
             case 'L':
                 if (token.equals("Label")) {
                     return Type.LABEL;
@@ -319,16 +771,28 @@ final class RecursiveDescentParser {
             case 'R':
                 if (token.equals("Radio")) {
                     return Type.RADIO;
+                } else if (token.equals("Repeat")) {
+                    return Type.REPEAT;
                 }
             case 'T':
                 if (token.equals("Textfield")) {
                     return Type.TEXTFIELD;
                 }
+            case 'U':
+                if (token.equals("Use")) {
+                    return Type.USE;
+                }
+                return Type.UNKNOWN; // No other keyword or number begins thus
             case 'W':
                 if (token.equals("Window")) {
                     return Type.WINDOW;
                 }
             default:
+                if (token.charAt(0) < 0x80 && token.charAt(0) != '+' && token.charAt(0) != '-'
+                        && (token.charAt(0) < '0' || token.charAt(0) > '9')) {
+                    return Type.UNKNOWN;
+                }
+
                 try { // Check if integer
                     Integer.parseInt(token);
                     return Type.NUMBER;
@@ -341,17 +805,27 @@ final class RecursiveDescentParser {
     // Printing/logging helper methods
 
     /**
-     * This helper method simply accepts a <code>String</code> log message and calls the parent
-     * <code>Application.class</code> instance's <code>Application.class.addLogEntry</code> method,
-     * passing along the message and enabling it to be posted to the log. Method is used on its own
-     * and in the below derivative <code>RecursiveDescentParser.class.logErrorMessage</code> methods
-     * and friends.
+     * This helper method simply accepts a <code>String</code> log message and passes it to the
+     * <code>ParserLog</code>, by default the parent <code>Application.class</code> instance,
+     * enabling it to be posted to the log. Method is used on its own and in the below derivative
+     * <code>RecursiveDescentParser.class.logErrorMessage</code> methods and friends.
      *
      * @param message <code>String</code>
      * @return void
      */
     private void addLogEntry(String message) {
-        this.getParent().addLogEntry(message);
+        this.log.addLogEntry(message);
+    }
+
+    /**
+     * Determines whether detailed messages (tokens, types, and the names of methods in which errors
+     * were found) should be logged, as determined by the <code>ParserLog</code>. For the parent
+     * <code>Application</code>, this is the case while its "Hide details" button is unselected.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean isShowingDetails() {
+        return this.log.isShowingDetails();
     }
 
     /**
@@ -379,7 +853,9 @@ final class RecursiveDescentParser {
         if (!this.getIsFirstErrorFound()) {
             errorMessage = "Error: Expected " + expected + ", encountered " + encountered
                 + " (line " + lineNumber + ")";
-            if (!this.getParent().getHideDetailsButton().isSelected()) {
+            this.setFirstError(errorMessage, lineNumber);
+            this.firstErrorType = expected;
+            if (this.isShowingDetails()) {
                 errorMessage += " [" + methodName + "]";
             }
             this.addLogEntry(errorMessage);
@@ -406,7 +882,9 @@ final class RecursiveDescentParser {
     private boolean logErrorMessage(String customMessage, int lineNumber, String methodName) {
         if (!this.getIsFirstErrorFound()) {
             customMessage += " (line " + lineNumber + ")";
-            if (!this.getParent().getHideDetailsButton().isSelected()) {
+            this.setFirstError(customMessage, lineNumber);
+            this.firstErrorType = Type.UNKNOWN; // No single expected type
+            if (this.isShowingDetails()) {
                 customMessage += " [" + methodName + "]";
             }
             this.addLogEntry(customMessage);
@@ -426,7 +904,7 @@ final class RecursiveDescentParser {
      * @return void
      */
     private void printArrayListToConsole() {
-        if (!this.getParent().getHideDetailsButton().isSelected()) {
+        if (this.isShowingDetails()) {
             this.getTokensList().forEach((entry) -> {
                 String details = "Line " + entry.getLineNumber() + ": " + entry.getType() + " -> "
                     + entry.getToken();
@@ -440,13 +918,15 @@ final class RecursiveDescentParser {
     /**
      * This is one of four parser helper methods used to progress through the <code>ArrayList</code>
      * tokens listing at <code>RecursiveDescentParser.class.tokensList</code>. This particular
-     * method returns a <code>Type</code> corresponding to the next token to be viewed.
+     * method returns a <code>Type</code> corresponding to the next token to be viewed. Once
+     * parsing has been abandoned, every remaining token is treated as the end of the file, so that
+     * the methods below fail and return in turn without reading any further.
      *
      * @return <code>Type</code>
      */
     private Type getNextTokenType() {
-        if (this.tokenIndex == this.getTokensList().size()) {
-            return Type.EOF; // End of file, precaution
+        if (this.isAborted || this.tokenIndex == this.getTokensList().size()) {
+            return Type.EOF; // End of file, precaution, or no further tokens to be read
         } else {
             return this.getTokensList().get(this.tokenIndex++).getType();
         }
@@ -456,36 +936,258 @@ final class RecursiveDescentParser {
      * This is one of four parser helper methods used to progress through the <code>ArrayList</code>
      * tokens listing at <code>RecursiveDescentParser.class.tokensList</code>. This particular
      * method returns the <code>Type</code> corresponding to the previous (technically current)
-     * token in the listing. This is used primarily in error messages to aid in debugging.
+     * token in the listing. This is used primarily in error messages to aid in debugging. Should
+     * no token have been read, as is the case for an empty or blank file, the end of the file is
+     * returned instead, such that the file is reported as expecting a <code>Window</code>.
      *
      * @return <code>Type</code>
      */
     private Type getTokenType() {
-        return this.getTokensList().get(this.tokenIndex - 1).getType();
+        if (this.tokenIndex == 0) {
+            return Type.EOF; // No token read, as for an empty file
+        } else {
+            return this.getTokensList().get(this.tokenIndex - 1).getType();
+        }
     }
 
     /**
      * This is one of four parser helper methods used to progress through the <code>ArrayList</code>
      * tokens listing at <code>RecursiveDescentParser.class.tokensList</code>. This method is used
      * to return the specific line number at which the previous (technically current) token was
-     * found in the text file, used for debugging purposes in the status log.
+     * found in the text file, used for debugging purposes in the status log. Should no token have
+     * been read, the first line is returned.
      *
      * @return <code>int</code> line number
      */
     private int getTokenLineNumber() {
-        return this.getTokensList().get(this.tokenIndex - 1).getLineNumber();
+        if (this.tokenIndex == 0) {
+            return 1;
+        } else {
+            return this.getTokensList().get(this.tokenIndex - 1).getLineNumber();
+        }
     }
 
     /**
      * This is one of four parser helper methods used to progress through the <code>ArrayList</code>
      * tokens listing at <code>RecursiveDescentParser.class.tokensList</code>. This particular
      * method returns the <code>String</code> lexeme value associated with the index, corresponding
-     * to the previous (technically current depending on its placement) token.
+     * to the previous (technically current depending on its placement) token, or an empty
+     * <code>String</code> should no token have been read.
      *
      * @return <code>String</code>
      */
     private String getToken() {
-        return this.getTokensList().get(this.tokenIndex - 1).getToken();
+        if (this.tokenIndex == 0) {
+            return "";
+        } else {
+            return this.getTokensList().get(this.tokenIndex - 1).getToken();
+        }
+    }
+
+    // Limit-checking methods
+
+    /**
+     * This method logs the parameter message as the first error, if none has been found, and
+     * abandons the parse, used upon exceeding one of the <code>ParseLimits</code>. Unlike the
+     * errors logged above, after which the parser may yet try other alternatives, no further
+     * tokens are read once the parse is abandoned.
+     *
+     * @param message <code>String</code> error message
+     * @param lineNumber <code>int</code> line at which the limit was exceeded
+     * @param methodName <code>String</code> name of method in which this method is called
+     * @return false <code>boolean</code> always returns false to aid in method exiting
+     */
+    private boolean abort(String message, int lineNumber, String methodName) {
+        this.logErrorMessage(message, lineNumber, methodName);
+        this.isAborted = true;
+        return false;
+    }
+
+    /**
+     * Abandons the parse if there are more tokens than permitted, as may be the case for tokens
+     * lexed elsewhere or by the original <code>Scanner</code> lexer.
+     *
+     * @return void
+     */
+    private void checkTokenLimit() {
+        if (!this.isAborted && this.getTokensList().size() > this.limits.getMaxTokens()) {
+            this.abort("Error: Input exceeds the limit of " + this.limits.getMaxTokens()
+                + " tokens", this.getTokensList().get(this.limits.getMaxTokens()).getLineNumber(),
+                "checkTokenLimit");
+        }
+    }
+
+    /**
+     * This method is called upon entering a panel, group, repetition, or template, and abandons
+     * the parse if doing so would nest widgets more deeply than permitted. Each successful call is
+     * paired with a decrement of <code>nestingDepth</code> upon leaving, while
+     * <code>maxNestingDepth</code> keeps the deepest level reached for <code>ParserMetrics</code>.
+     *
+     * @param methodName <code>String</code> name of method in which this method is called
+     * @return <code>boolean</code> whether the new level is within the limit
+     */
+    private boolean enterNestingLevel(String methodName) {
+        if (this.nestingDepth >= this.limits.getMaxNestingDepth()) {
+            return this.abort("Error: Nesting exceeds the limit of "
+                + this.limits.getMaxNestingDepth() + " levels", this.getTokenLineNumber(),
+                methodName);
+        }
+        this.nestingDepth++;
+        this.maxNestingDepth = Math.max(this.maxNestingDepth, this.nestingDepth);
+        return true;
+    }
+
+    /**
+     * This method adds the parameter number of widgets to the count of those realized thus far,
+     * abandoning the parse if the count then exceeds the limit. Negative counts remove widgets, as
+     * when a repetition turns out to be repeated no times at all.
+     *
+     * @param count <code>long</code> number of widgets
+     * @param methodName <code>String</code> name of method in which this method is called
+     * @return <code>boolean</code> whether the count remains within the limit
+     */
+    private boolean addWidgets(long count, String methodName) {
+        this.widgetCount = (count > 0 && this.widgetCount > Long.MAX_VALUE - count)
+            ? Long.MAX_VALUE
+            : this.widgetCount + count;
+        if (this.widgetCount > this.limits.getMaxWidgets()) {
+            return this.abort("Error: Window exceeds the limit of " + this.limits.getMaxWidgets()
+                + " widgets", this.getTokenLineNumber(), methodName);
+        }
+        return true;
+    }
+
+    /**
+     * This method adds the widgets of an already parsed subtree, being a template used or a file
+     * included, to the count of those realized, and checks that placing them at the current level
+     * nests them no more deeply than permitted.
+     *
+     * @param subtree <code>Widget</code> of <code>Type.DEFINE</code> or <code>Type.INCLUDE</code>
+     * @param methodName <code>String</code> name of method in which this method is called
+     * @return <code>boolean</code> whether the subtree is within the limits
+     */
+    private boolean addSubtree(Widget subtree, String methodName) {
+
+        // Declaration
+        long[] measures;
+
+        // The template or file itself stands in for the current level, so is not counted as one
+        measures = this.measureSubtree(subtree);
+        if (this.nestingDepth + measures[1] - 1 > this.limits.getMaxNestingDepth()) {
+            return this.abort("Error: Nesting exceeds the limit of "
+                + this.limits.getMaxNestingDepth() + " levels", this.getTokenLineNumber(),
+                methodName);
+        }
+        this.maxNestingDepth = (int) Math.max(this.maxNestingDepth,
+            this.nestingDepth + measures[1] - 1);
+        return this.addWidgets(measures[0], methodName);
+    }
+
+    /**
+     * Returns the number of widgets realized beneath the parameter widget, counting each
+     * repetition, and the number of levels of widgets beneath it. As templates may use others, a
+     * subtree may be shared by many, so each is measured once and remembered thereafter, its
+     * widgets never changing once parsed.
+     *
+     * @param widget <code>Widget</code>
+     * @return <code>long[]</code> widget count and nesting depth
+     */
+    private long[] measureSubtree(Widget widget) {
+
+        // Declarations
+        long[] measures, childMeasures;
+        long count, childCount;
+
+        measures = this.subtreeMeasures.get(widget);
+        if (measures != null) {
+            return measures;
+        }
+
+        measures = new long[2];
+        for (Widget child : widget.getChildren()) {
+            childMeasures = this.measureSubtree(child);
+            if (child.getType() != Type.REPEAT) {
+                childCount = childMeasures[0] + 1;
+            } else {
+                count = child.getNumbers()[0];
+                childCount = (count != 0 && childMeasures[0] > Long.MAX_VALUE / count)
+                    ? Long.MAX_VALUE
+                    : childMeasures[0] * count;
+            }
+            measures[0] = (measures[0] > Long.MAX_VALUE - childCount)
+                ? Long.MAX_VALUE
+                : measures[0] + childCount;
+            measures[1] = Math.max(measures[1], childMeasures[1] + 1);
+        }
+
+        this.subtreeMeasures.put(widget, measures);
+        return measures;
+    }
+
+    // Cancellation methods
+
+    /**
+     * Checks the cancellation token only once every <code>CANCELLATION_CHECK_INTERVAL</code>
+     * calls, as reading the clock for each of the many widgets of a large file would cost more
+     * than parsing them. Called once per element of each widget list and line of the
+     * <code>Scanner</code> lexer, such that a cancelled parse stops within a few hundred of either.
+     *
+     * @param methodName <code>String</code> name of method in which this method is called
+     * @return <code>boolean</code> whether the parse may continue
+     */
+    private boolean pollCancellation(String methodName) {
+        if (--this.cancellationCountdown > 0) {
+            return !this.isCancelled;
+        }
+        this.cancellationCountdown = CANCELLATION_CHECK_INTERVAL;
+        return this.checkCancellation(methodName);
+    }
+
+    /**
+     * Checks the cancellation token at once, stopping the parse if it has been cancelled.
+     * @param methodName <code>String</code> name of method in which this method is called
+     * @return <code>boolean</code> whether the parse may continue
+     */
+    private boolean checkCancellation(String methodName) {
+        return !this.isCancelled
+            && (!this.cancellationToken.isCancelled() || this.cancel(methodName));
+    }
+
+    /**
+     * Stops the parse upon its cancellation, logging the reason given by the cancellation token.
+     * The reason replaces any error already found, as a cancelled parse may have stopped before
+     * reaching the true first error of the file, and is reported with no line number, as it
+     * concerns no line of the file.
+     *
+     * @param methodName <code>String</code> name of method in which this method is called
+     * @return false <code>boolean</code> always returns false to aid in method exiting
+     */
+    private boolean cancel(String methodName) {
+
+        // Declaration
+        String message;
+
+        message = this.cancellationToken.getMessage();
+        this.setFirstError(message, 0);
+        this.firstErrorType = Type.UNKNOWN;
+        this.setIsFirstErrorFound(true);
+        this.addLogEntry((this.isShowingDetails()) ? message + " [" + methodName + "]" : message);
+        this.isCancelled = true;
+        this.isAborted = true;
+        return false;
+    }
+
+    /**
+     * Releases the partly built widget tree and the measures taken of its subtrees once the parse
+     * has been cancelled, such that only the tokens remain until the parser itself is released.
+     *
+     * @return void
+     */
+    private void releasePartialTree() {
+        this.windowWidget = null;
+        this.currentElement = null;
+        this.templates.clear();
+        this.subtreeMeasures.clear();
     }
 
     // Format progression-checking methods (aka, the "spaghetti code collection")
@@ -497,29 +1199,107 @@ final class RecursiveDescentParser {
      * accordance with the grammar's own restrictions. Thus, the testing method in question,
      * <code>RecursiveDescentParser.class.hasWellFormedGUI</code> is called to see if the main
      * part of the GUI is well formed. If it is, and all parts have been properly assembled, the
+     * resultant widget tree is realized by a <code>SwingRealizer</code> and the
      * <code>JDialog</code> (originally <code>JFrame</code> until the author learned having two
      * <code>JFrame</code>s is bad form) is displayed and a success message is added to the log.
      *
      * @return void
      */
     private void parseContents() {
+        this.parseTokensList();
+        this.displayResults();
+    }
+
+    /**
+     * Checks whether the tokens are well formed, building the widget tree as it goes, and records
+     * the time taken as the parse phase and the outcome in the process-wide
+     * <code>ParserMetrics</code>. Any files included by the tokens are loaded first, within the
+     * parse phase. Parsing is skipped entirely if lexing was abandoned upon exceeding a limit.
+     * Cancelled parses are not recorded in the metrics, as nothing was learned of their files.
+     *
+     * @return void
+     */
+    private void parseTokensList() {
+        this.phaseTimer.begin(PhaseTimer.Phase.PARSE);
+        this.checkTokenLimit();
+        this.includes = (this.isAborted)
+            ? Collections.emptyMap()
+            : ModuleCache.getInstance().resolve(this.sourceFile, this.getTokensList(),
+                this.limits, this.cancellationToken);
+        this.isWellFormed = !this.isAborted && this.checkCancellation("parseTokensList")
+            && this.hasWellFormedGUI();
+        if (this.isWellFormed && this.isInterning) {
+            this.internWidgetTree();
+        }
+        this.phaseTimer.end(0, this.getTokensList().size(), this.maxNestingDepth,
+            this.widgetCount);
+        if (this.isCancelled) {
+            this.releasePartialTree();
+        } else {
+            ParserMetrics.getInstance().recordParse(this.getTokensList().size(), this.isWellFormed,
+                this.maxNestingDepth, this.widgetCount, this.firstErrorType);
+        }
+    }
+
+    /**
+     * Replaces the window, or the included file, with a tree in which each subtree is the single
+     * shared instance of its equivalents. The tree as parsed is left unchanged, as it may contain
+     * the widgets of included files shared with other trees.
+     *
+     * @return void
+     */
+    private void internWidgetTree() {
+        this.windowWidget = new WidgetInterner().intern(this.windowWidget);
+    }
+
+    /**
+     * This method was split from <code>RecursiveDescentParser.class.parseContents</code> so that
+     * cached results could be displayed without parsing. If the file was well formed, the widget
+     * tree is realized and displayed and a success message logged; otherwise, a failure message is
+     * logged instead.
+     *
+     * @return void
+     */
+    private void displayResults() {
 
         // Declaration
         Application appParent;
+        boolean isRealized;
 
         // Cache calls to parent getter
         appParent = this.getParent();
+        isRealized = false;
+
+        if (this.isWellFormed) {
+            this.phaseTimer.begin(PhaseTimer.Phase.REALIZE);
+            try {
+                this.resultsDialog = new SwingRealizer().realizeWindow(this.getWindowWidget());
+                isRealized = true;
+            } catch (ReflectiveOperationException ex) {
+                this.logErrorMessage("Error: " + ex, this.getWindowWidget().getLineNumber(),
+                    "displayResults");
+            }
+            this.phaseTimer.end(0, this.getTokensList().size(), this.maxNestingDepth,
+                this.widgetCount);
+        }
 
-        if (this.hasWellFormedGUI()){
+        if (isRealized) {
+            this.phaseTimer.begin(PhaseTimer.Phase.SHOW);
             this.resultsDialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
             this.resultsDialog.setLocationRelativeTo(appParent.getMainFrame());
             this.resultsDialog.setVisible(true);
+            this.phaseTimer.end(0, this.getTokensList().size(), this.maxNestingDepth,
+                this.widgetCount);
             this.addLogEntry("Success: File '" + appParent.getFileName()
                 + "' successfully parsed!");
         } else {
             this.addLogEntry("Error: File '" + appParent.getFileName()
                 + "' parsing failed.");
         }
+
+        if (this.isShowingDetails()) {
+            this.addLogEntry(this.phaseTimer.getSummary(this.getTokensList().size()));
+        }
     }
 
     /**
@@ -547,7 +1327,7 @@ final class RecursiveDescentParser {
         String methodName;
 
         // Definitions
-        methodName = Thread.currentThread().getStackTrace()[1].getMethodName();
+        methodName = "hasWellFormedGUI";
         this.currentTokenType = this.getNextTokenType();
 
         // WINDOW
@@ -560,9 +1340,8 @@ final class RecursiveDescentParser {
 
         // STRING - WINDOW TITLE
         if (this.currentTokenType == Type.STRING) {
-            this.resultsDialog = new JDialog();
-            this.resultsDialog.setTitle(this.getToken());
-            this.currentElement = this.resultsDialog;
+            this.windowWidget = new Widget(Type.WINDOW, this.getToken(), this.getTokenLineNumber());
+            this.currentElement = this.windowWidget;
             this.currentTokenType = this.getNextTokenType();
         } else {
             return this.logErrorMessage(Type.STRING, this.getTokenType(), this.getTokenLineNumber(),
@@ -615,6 +1394,11 @@ final class RecursiveDescentParser {
 
         // RIGHT PARENTHESIS OF DIMENSIONS
         if (this.currentTokenType == Type.RPAREN) {
+            if (Math.max(resultsWidth, resultsHeight) > this.limits.getMaxWindowSize()) {
+                return this.abort("Error: Window size of " + resultsWidth + " x " + resultsHeight
+                    + " exceeds the limit of " + this.limits.getMaxWindowSize(),
+                    this.getTokenLineNumber(), methodName);
+            }
             this.currentTokenType = this.getNextTokenType();
         } else {
             return this.logErrorMessage(Type.RPAREN, this.getTokenType(), this.getTokenLineNumber(),
@@ -642,7 +1426,7 @@ final class RecursiveDescentParser {
 
         // PERIOD - FINAL TOKEN
         if (this.currentTokenType == Type.PERIOD) {
-            this.resultsDialog.setSize(resultsWidth, resultsHeight);
+            this.windowWidget.setNumbers(resultsWidth, resultsHeight);
             return true;
         } else {
             return this.logErrorMessage(Type.PERIOD, this.getTokenType(), this.getTokenLineNumber(),
@@ -665,7 +1449,7 @@ final class RecursiveDescentParser {
         String methodName;
 
         // Definition
-        methodName= Thread.currentThread().getStackTrace()[1].getMethodName();
+        methodName = "hasWellFormedLayout";
 
         // LAYOUT
         if (this.currentTokenType == Type.LAYOUT) {
@@ -706,7 +1490,7 @@ final class RecursiveDescentParser {
     private boolean hasWellFormedLayoutManager() {
         switch(this.currentTokenType) {
             case FLOW:
-                this.currentElement.setLayout(new FlowLayout());
+                this.currentElement.setLayout(Type.FLOW);
                 return true;
             case GRID:
                 return this.hasWellFormedGridLayout();
@@ -732,7 +1516,7 @@ final class RecursiveDescentParser {
         String methodName;
 
         // Definition
-        methodName = Thread.currentThread().getStackTrace()[1].getMethodName();
+        methodName = "hasWellFormedGridLayout";
 
         this.currentTokenType = this.getNextTokenType();
 
@@ -780,10 +1564,16 @@ final class RecursiveDescentParser {
                 methodName);
         }
 
+        if (Math.max(rows, cols) > this.limits.getMaxGridSize()) {
+            return this.abort("Error: Grid of " + rows + " x " + cols + " exceeds the limit of "
+                + this.limits.getMaxGridSize() + " rows or columns", this.getTokenLineNumber(),
+                methodName);
+        }
+
         // RIGHT PARENTHESIS OR COMMA OF GRID DIMENSIONS
         switch(this.currentTokenType) {
             case RPAREN:
-                this.currentElement.setLayout(new GridLayout(rows, cols));
+                this.currentElement.setLayout(Type.GRID, rows, cols);
                 return true;
             case COMMA:
                 this.currentTokenType = this.getNextTokenType();
@@ -830,9 +1620,15 @@ final class RecursiveDescentParser {
                 methodName);
         }
 
+        if (Math.max(hgap, vgap) > this.limits.getMaxWindowSize()) {
+            return this.abort("Error: Grid gaps of " + hgap + " x " + vgap
+                + " exceed the limit of " + this.limits.getMaxWindowSize(),
+                this.getTokenLineNumber(), methodName);
+        }
+
         // RIGHT PARENTHESIS
         if (this.currentTokenType == Type.RPAREN) {
-            this.currentElement.setLayout(new GridLayout(rows, cols, hgap, vgap));
+            this.currentElement.setLayout(Type.GRID, rows, cols, hgap, vgap);
             return true;
         } else {
             return this.logErrorMessage(Type.RPAREN, this.getTokenType(), this.getTokenLineNumber(),
@@ -857,7 +1653,7 @@ final class RecursiveDescentParser {
         String methodName;
 
         // Definition
-        methodName = Thread.currentThread().getStackTrace()[1].getMethodName();
+        methodName = "isWellFormedWidgetEnding";
 
         this.hasAdditionalTokens(method);
         if (this.currentTokenType == Type.END) {
@@ -875,6 +1671,269 @@ final class RecursiveDescentParser {
         }
     }
 
+    /**
+     * This method checks a template definition of the form
+     * <code>Define STRING widgets End ;</code>, which allows a block of widgets repeated throughout
+     * a file to be written once and instantiated by name wherever needed via
+     * <code>Use STRING ;</code>. The body is parsed and
+     * validated once, just as a panel's widgets are, into a <code>Type.DEFINE</code> widget held
+     * in <code>RecursiveDescentParser.class.templates</code> rather than added to the tree. As
+     * templates are only registered once their definitions are complete, a template cannot use
+     * itself, and names may not be redefined.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean hasWellFormedDefinition() {
+
+        // Declarations
+        Widget parentElement, template;
+        String methodName, templateName;
+        boolean isWellFormed;
+        long widgetsBefore;
+
+        // Definition
+        methodName = "hasWellFormedDefinition";
+
+        this.currentTokenType = this.getNextTokenType();
+
+        // STRING - TEMPLATE NAME
+        if (this.currentTokenType == Type.STRING) {
+            templateName = this.getToken();
+            if (this.templates.containsKey(templateName)) {
+                return this.logErrorMessage("Error: Template \"" + templateName
+                    + "\" is already defined", this.getTokenLineNumber(), methodName);
+            }
+            template = new Widget(Type.DEFINE, templateName, this.getTokenLineNumber());
+            this.currentTokenType = this.getNextTokenType();
+        } else {
+            return this.logErrorMessage(Type.STRING, this.getTokenType(), this.getTokenLineNumber(),
+                methodName);
+        }
+
+        // WIDGETS OF THE TEMPLATE BODY, END, SEMICOLON (realized only where used)
+        if (!this.enterNestingLevel(methodName)) {
+            return false;
+        }
+        widgetsBefore = this.widgetCount;
+        parentElement = this.currentElement;
+        this.currentElement = template;
+        isWellFormed = this.isWellFormedWidgetEnding("hasWellFormedWidget");
+        this.currentElement = parentElement;
+        this.widgetCount = widgetsBefore;
+        this.nestingDepth--;
+
+        if (isWellFormed) {
+            this.templates.put(templateName, template);
+        }
+        return isWellFormed;
+    }
+
+    /**
+     * This method checks a template instantiation of the form <code>Use STRING ;</code>, adding
+     * the widgets of the named template to the current panel or window. The template's widgets are
+     * shared rather than copied, as the widget tree is never modified once parsed, so each use
+     * costs only as many additions as the template has top-level widgets regardless of how large
+     * the template is.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean isWellFormedUse() {
+
+        // Declarations
+        Widget template;
+        String methodName;
+
+        // Definition
+        methodName = "isWellFormedUse";
+
+        this.currentTokenType = this.getNextTokenType();
+
+        // STRING - NAME OF A DEFINED TEMPLATE
+        if (this.currentTokenType == Type.STRING) {
+            template = this.templates.get(this.getToken());
+            if (template == null) {
+                return this.logErrorMessage("Error: Undefined template \"" + this.getToken()
+                    + "\"", this.getTokenLineNumber(), methodName);
+            }
+            this.currentTokenType = this.getNextTokenType();
+        } else {
+            return this.logErrorMessage(Type.STRING, this.getTokenType(), this.getTokenLineNumber(),
+                methodName);
+        }
+
+        // SEMICOLON
+        if (this.currentTokenType == Type.SEMICOLON) {
+            if (!this.addSubtree(template, methodName)) {
+                return false;
+            }
+            for (int index = 0; index < template.getChildren().size(); index++) {
+                this.currentElement.addChild(template.getChildren().get(index));
+            }
+            return true;
+        } else {
+            return this.logErrorMessage(Type.SEMICOLON, this.getTokenType(),
+                this.getTokenLineNumber(), methodName);
+        }
+    }
+
+    /**
+     * This method checks a repetition of the form <code>Repeat NUMBER : widgets End ;</code>, used
+     * to produce many identical (or nearly identical) widgets without writing each out by hand.
+     * The repetition is kept as a single <code>Type.REPEAT</code> widget holding its count and
+     * the widgets to be repeated, which are only expanded by the <code>SwingRealizer</code>, so
+     * the tokens and time taken to parse it do not depend upon the count. Any <code>{i}</code>
+     * within the text of the repeated widgets is replaced by the index of each repetition.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean hasWellFormedRepeat() {
+
+        // Declarations
+        Widget parentElement, repeatElement;
+        String methodName;
+        boolean isWellFormed;
+        long widgetsBefore, repeatedWidgets;
+        int count;
+
+        // Definition
+        methodName = "hasWellFormedRepeat";
+
+        repeatElement = new Widget(Type.REPEAT, null, this.getTokenLineNumber());
+        this.currentTokenType = this.getNextTokenType();
+
+        // NUMBER - REPEAT COUNT
+        if (this.currentTokenType == Type.NUMBER) {
+            try {
+                count = Integer.parseInt(this.getToken());
+                if (count < 0) {
+                    throw new NumberFormatException();
+                }
+                repeatElement.setNumbers(count);
+                this.currentTokenType = this.getNextTokenType();
+            } catch (NumberFormatException ex) {
+                return this.logErrorMessage("Error: Illegitimate repeat count of "
+                    + this.getToken(), this.getTokenLineNumber(), methodName);
+            }
+        } else {
+            return this.logErrorMessage(Type.NUMBER, this.getTokenType(), this.getTokenLineNumber(),
+                methodName);
+        }
+
+        // COLON
+        if (this.currentTokenType == Type.COLON) {
+            this.currentTokenType = this.getNextTokenType();
+        } else {
+            return this.logErrorMessage(Type.COLON, this.getTokenType(), this.getTokenLineNumber(),
+                methodName);
+        }
+
+        // WIDGETS TO BE REPEATED, END, SEMICOLON
+        if (!this.enterNestingLevel(methodName)) {
+            return false;
+        }
+        widgetsBefore = this.widgetCount;
+        parentElement = this.currentElement;
+        parentElement.addChild(repeatElement);
+        this.currentElement = repeatElement;
+        isWellFormed = this.isWellFormedWidgetEnding("hasWellFormedWidget");
+        this.currentElement = parentElement;
+        this.nestingDepth--;
+
+        // Count the body once per repetition, it having been counted once already
+        repeatedWidgets = this.widgetCount - widgetsBefore;
+        if (count == 0) {
+            this.widgetCount = widgetsBefore;
+        } else if (isWellFormed) {
+            isWellFormed = this.addWidgets((repeatedWidgets > Long.MAX_VALUE / count)
+                ? Long.MAX_VALUE
+                : repeatedWidgets * (count - 1), methodName);
+        }
+        return isWellFormed;
+    }
+
+    /**
+     * This method checks an include of the form <code>Include STRING ;</code>, adding the widgets
+     * of the included file to the current panel or window. Included files are loaded and parsed by
+     * the <code>ModuleCache</code> before parsing begins, so this method merely looks up the
+     * result by the file's canonical path, reporting the first error of the included file if it
+     * was itself malformed.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean isWellFormedInclude() {
+
+        // Declarations
+        ParseResult fragment;
+        String methodName, errorMessage;
+
+        // Definition
+        methodName = "isWellFormedInclude";
+
+        this.currentTokenType = this.getNextTokenType();
+
+        // STRING - PATH OF THE INCLUDED FILE
+        if (this.currentTokenType == Type.STRING) {
+            fragment = this.includes.get(ModuleCache.resolvePath(
+                ModuleCache.getBaseDirectory(this.sourceFile), this.getToken()));
+            if (fragment == null) {
+                return this.logErrorMessage("Error: Unable to load included file '"
+                    + this.getToken() + "'", this.getTokenLineNumber(), methodName);
+            } else if (!fragment.isSuccessful()) {
+                errorMessage = fragment.getErrorMessage();
+                return this.logErrorMessage("Error: In included file '" + this.getToken() + "', "
+                    + ((errorMessage.startsWith("Error: ")) ? errorMessage.substring(7)
+                    : errorMessage), this.getTokenLineNumber(), methodName);
+            }
+            this.currentTokenType = this.getNextTokenType();
+        } else {
+            return this.logErrorMessage(Type.STRING, this.getTokenType(), this.getTokenLineNumber(),
+                methodName);
+        }
+
+        // SEMICOLON
+        if (this.currentTokenType == Type.SEMICOLON) {
+            if (!this.addSubtree(fragment.getWindowWidget(), methodName)) {
+                return false;
+            }
+            for (int index = 0; index < fragment.getWindowWidget().getChildren().size(); index++) {
+                this.currentElement.addChild(fragment.getWindowWidget().getChildren().get(index));
+            }
+            return true;
+        } else {
+            return this.logErrorMessage(Type.SEMICOLON, this.getTokenType(),
+                this.getTokenLineNumber(), methodName);
+        }
+    }
+
+    /**
+     * This method checks the tokens of an included file, which consist solely of widgets, adding
+     * each to the <code>Type.INCLUDE</code> widget standing in for the window.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean hasWellFormedFragment() {
+
+        // Declaration
+        String methodName;
+
+        // Definition
+        methodName = "hasWellFormedFragment";
+
+        this.currentTokenType = this.getNextTokenType();
+        while (this.currentTokenType != Type.EOF) {
+            if (!this.pollCancellation(methodName)) {
+                return false;
+            } else if (this.currentTokenType == Type.END) {
+                return this.logErrorMessage(Type.WIDGET, this.getTokenType(),
+                    this.getTokenLineNumber(), methodName);
+            } else if (!this.hasWellFormedWidget()) {
+                return false; // Error already logged
+            }
+            this.currentTokenType = this.getNextTokenType();
+        }
+        return true;
+    }
+
     // Reflection methods (for recursion purposes)
 
     /**
@@ -894,6 +1953,14 @@ final class RecursiveDescentParser {
      * check for further widgets/buttons. The author is sure there is a better way to go about this
      * process, but due to the one week timeframe of construction, further research was unable to be
      * conducted.
+     * <br />
+     * <br />
+     * Though the method once recursed into itself after each well formed element, it now loops
+     * instead, as a window of many thousands of widgets would otherwise overflow the stack; each
+     * nested panel or group still recurses through the element methods as the grammar does. The
+     * <code>Method</code> of each name is looked up once and kept in <code>ELEMENT_METHODS</code>,
+     * as <code>Class.getDeclaredMethod</code> returns a new copy on every call. The loop stops
+     * should the parse be cancelled, this being where the parser spends its time on large files.
      *
      * @see java.lang.reflect
      * @param methodName <tt>String</tt>, hasWellFormedRadioButton or hasWellFormedWidget
@@ -903,26 +1970,34 @@ final class RecursiveDescentParser {
 
         // Declarations
         int currentIndex;
-        boolean hasWellFormedResult;
+        boolean hasWellFormedResult, hasAnyElement;
         Method hasWellFormedElement;
 
-        // Preserve current tokenIndex in case of no further proper widgets
-        currentIndex = this.tokenIndex;
+        hasAnyElement = false;
 
         try {
             // Either hasWellFormedRadioButton() or hasWellFormedWidget()
-            hasWellFormedElement = RecursiveDescentParser.class.getDeclaredMethod(methodName);
-            hasWellFormedResult = (boolean) hasWellFormedElement.invoke(this);
+            hasWellFormedElement = ELEMENT_METHODS.get(methodName);
+            if (hasWellFormedElement == null) {
+                hasWellFormedElement = RecursiveDescentParser.class.getDeclaredMethod(methodName);
+                ELEMENT_METHODS.put(methodName, hasWellFormedElement);
+            }
 
-            if (hasWellFormedResult) {
-                this.currentTokenType = this.getNextTokenType();
-                this.hasAdditionalTokens(methodName);
-                return true;
-            } else {
-                // Revert to preserved index
-                this.tokenIndex = currentIndex;
-                return false;
+            while (this.pollCancellation(methodName)) {
+                // Preserve current tokenIndex in case of no further proper widgets
+                currentIndex = this.tokenIndex;
+                hasWellFormedResult = (boolean) hasWellFormedElement.invoke(this);
+
+                if (hasWellFormedResult) {
+                    this.currentTokenType = this.getNextTokenType();
+                    hasAnyElement = true;
+                } else {
+                    // Revert to preserved index
+                    this.tokenIndex = currentIndex;
+                    return hasAnyElement;
+                }
             }
+            return false; // Cancelled
         } catch (
             NoSuchMethodException |
             SecurityException |
@@ -935,60 +2010,43 @@ final class RecursiveDescentParser {
     }
 
     /**
-     * The other main method making use of the Java reflection technique, this method is used by
-     * <code>RecursiveDescentParser.class.hasWellFormedWidget</code> to handle the
-     * creation and placement of various <tt>Swing</tt> class objects (like <code>JButton</code>s,
-     * <code>JTextField</code>s, <code>JLabel</code>s, <code>JRadioButton</code>s) that may need to
-     * be added to the GUI. The method finally checks to ensure the widget ends with the appropriate
-     * <code>Type.SEMICOLON</code> as expected.
-     *
-     * This method resulted in a much more readable widgets method and cleaned up a lot of
-     * duplicate code. It is admittedly a bit difficult to divine if the reader is unfamiliar with
-     * reflection, but the author has tried to elucidate the nature of each field by naming them as
-     * explicitly as possible.
+     * Formerly the other main method making use of the Java reflection technique, this method is
+     * used by <code>RecursiveDescentParser.class.hasWellFormedWidget</code> to handle the creation
+     * and placement of the various simple widgets (buttons, textfields, labels, and radio buttons)
+     * that may need to be added to the GUI. The reflective creation of the related <tt>Swing</tt>
+     * class objects has since moved to <code>SwingRealizer.class.createSimpleComponent</code>, with
+     * this method now adding a new <code>Widget</code> node to the widget tree instead. The method
+     * finally checks to ensure the widget ends with the appropriate <code>Type.SEMICOLON</code> as
+     * expected.
      *
-     * @see java.lang.reflect
-     * @param className <code>String</code> name of the Swing class to create
+     * @param widgetType <code>Type</code> of the widget to create
      * @param type <code>Type</code> expected within widget grammar
      * @return <code>boolean</code>
      */
-    private boolean isWellFormedWidget(String className, Type type) {
+    private boolean isWellFormedWidget(Type widgetType, Type type) {
 
         // Declarations
-        Constructor constructor;
-        Class<?> swingClass, expectedParameterClass;
-        Object param;
-        Container newSwingClassInstance;
+        Widget newWidget;
         String methodName;
 
-        // Use for logging purposes
-        methodName = Thread.currentThread().getStackTrace()[1].getMethodName();
+        // Use for logging purposes (a literal, as capturing the stack trace allocated heavily)
+        methodName = "isWellFormedWidget";
 
         // Shoehorned in to allow use of method for JRadioButtons too (last-minute hack)
-        if (!className.equals("JRadioButton")) {
+        if (widgetType != Type.RADIO) {
             this.currentTokenType = this.getNextTokenType();
         }
 
         if (this.currentTokenType == type) {
             try {
-                // Set parameter likely to appear in Swing class's constructor
-                expectedParameterClass = (type == Type.NUMBER) ? Integer.TYPE : String.class;
-                param = (type == Type.NUMBER) ? Integer.parseInt(this.getToken()) : this.getToken();
-
-                // Grabs Swing class, gets proper constructor, creates new instance, passes param
-                swingClass = Class.forName("javax.swing." + className);
-                constructor = swingClass.getConstructor(expectedParameterClass);
-                newSwingClassInstance = (Container) constructor.newInstance(param);
+                newWidget = new Widget(widgetType, (type == Type.STRING) ? this.getToken() : null,
+                    this.getTokenLineNumber());
+                if (type == Type.NUMBER) {
+                    newWidget.setNumbers(Integer.parseInt(this.getToken()));
+                }
 
                 this.currentTokenType = this.getNextTokenType();
-            } catch (
-                ClassNotFoundException |
-                InstantiationException |
-                NoSuchMethodException |
-                IllegalAccessException |
-                NumberFormatException |
-                InvocationTargetException ex
-            ) {
+            } catch (NumberFormatException ex) {
                 return this.logErrorMessage("Error: " + ex, this.getTokenLineNumber(), methodName);
             }
         } else {
@@ -997,14 +2055,8 @@ final class RecursiveDescentParser {
         }
 
         if (this.currentTokenType == Type.SEMICOLON) {
-            this.currentElement.add(newSwingClassInstance);
-
-            // Shoehorned in to allow use of method for JRadioButtons too (last-minute hack)
-            if (className.equals("JRadioButton")) {
-                this.radioGroup.add((JRadioButton) newSwingClassInstance);
-            }
-
-            return true;
+            this.currentElement.addChild(newWidget);
+            return this.addWidgets(1, methodName);
         } else {
             return this.logErrorMessage(Type.SEMICOLON, this.getTokenType(),
                 this.getTokenLineNumber(), methodName);
@@ -1025,46 +2077,56 @@ final class RecursiveDescentParser {
     private boolean hasWellFormedWidget() {
 
         // Declarations
-        Container parentElement;
-        JPanel newPanel;
+        Widget parentElement, newElement;
+        boolean isWellFormed;
 
         switch (this.currentTokenType) {
             case PANEL:
-                this.currentTokenType = this.getNextTokenType();
+            case GROUP:
+                if (!this.addWidgets(1, "hasWellFormedWidget")
+                        || !this.enterNestingLevel("hasWellFormedWidget")) {
+                    return false;
+                }
 
                 // Definitions
                 parentElement = this.currentElement;
-                newPanel = new JPanel();
-                parentElement.add(newPanel);
-                this.currentElement = newPanel;
+                newElement = new Widget(this.currentTokenType, null, this.getTokenLineNumber());
+                parentElement.addChild(newElement);
+                this.currentElement = newElement;
 
-                if (this.hasWellFormedLayout()) {
+                if (this.currentTokenType == Type.PANEL) {
                     this.currentTokenType = this.getNextTokenType();
-                }
-
-                if (this.isWellFormedWidgetEnding("hasWellFormedWidget")) {
-                    this.currentElement = parentElement;
-                    return true;
+                    if (this.hasWellFormedLayout()) {
+                        this.currentTokenType = this.getNextTokenType();
+                    }
+                    isWellFormed = this.isWellFormedWidgetEnding("hasWellFormedWidget");
                 } else {
-                    return false;
+                    this.currentTokenType = this.getNextTokenType();
+                    isWellFormed = this.isWellFormedWidgetEnding("hasWellFormedRadioButton");
                 }
-            case GROUP:
-                this.currentTokenType = this.getNextTokenType();
-                this.radioGroup = new ButtonGroup();
 
-                return this.isWellFormedWidgetEnding("hasWellFormedRadioButton");
+                this.currentElement = parentElement;
+                this.nestingDepth--;
+                return isWellFormed;
             case BUTTON:
-                return this.isWellFormedWidget("JButton", Type.STRING);
+                return this.isWellFormedWidget(Type.BUTTON, Type.STRING);
             case TEXTFIELD:
-                return this.isWellFormedWidget("JTextField", Type.NUMBER);
+                return this.isWellFormedWidget(Type.TEXTFIELD, Type.NUMBER);
             case LABEL:
-                return this.isWellFormedWidget("JLabel", Type.STRING);
+                return this.isWellFormedWidget(Type.LABEL, Type.STRING);
+            case DEFINE:
+                return this.hasWellFormedDefinition();
+            case USE:
+                return this.isWellFormedUse();
+            case INCLUDE:
+                return this.isWellFormedInclude();
+            case REPEAT:
+                return this.hasWellFormedRepeat();
             case END:
                 return false;
             default: // Catchall WIDGET term used here to simplify logged error message
                 return this.logErrorMessage(Type.WIDGET, this.getTokenType(),
-                    this.getTokenLineNumber(),
-                    Thread.currentThread().getStackTrace()[1].getMethodName());
+                    this.getTokenLineNumber(), "hasWellFormedWidget");
         }
     }
 
@@ -1079,13 +2141,12 @@ final class RecursiveDescentParser {
         switch(this.currentTokenType) {
             case RADIO:
                 this.currentTokenType = this.getNextTokenType();
-                return this.isWellFormedWidget("JRadioButton", Type.STRING);
+                return this.isWellFormedWidget(Type.RADIO, Type.STRING);
             case END:
                 return false;
             default:
                 return this.logErrorMessage(Type.RADIO, this.getTokenType(),
-                    this.getTokenLineNumber(),
-                    Thread.currentThread().getStackTrace()[1].getMethodName());
+                    this.getTokenLineNumber(), "hasWellFormedRadioButton");
         }
     }
 }
\ No newline at end of file
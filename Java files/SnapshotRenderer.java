@@ -0,0 +1,288 @@
+/**
+ * SnapshotRenderer.java - Renders parsed files to PNG images without a display
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class is used to produce visual baselines of properly formatted files without requiring
+ * someone to open each file through the status GUI and take a screenshot by hand, as was done for
+ * the images in the <code>Images</code> folder. Each file is parsed headlessly, its widget tree
+ * realized into a <code>JPanel</code> laid out at the size given in the file's
+ * <code>Window STRING (NUMBER, NUMBER)</code> header, and the panel painted into a
+ * <code>BufferedImage</code> saved as a <code>.png</code> file of the same name. Images are saved
+ * at the same path relative to the output directory as their files have relative to the working
+ * directory, such that files of the same name in different directories do not overwrite one
+ * another's images.
+ * <br />
+ * <br />
+ * Files are parsed in parallel using the executor provided by
+ * <code>BatchRunner.class.createExecutor</code>, with the time taken to parse and render each file
+ * printed alongside its result. As <tt>Swing</tt> components are not thread-safe even when
+ * headless, each widget tree is realized and painted on the Event Dispatch Thread, one at a time,
+ * while the workers go on parsing and saving. Directories and glob patterns are expanded as in
+ * the batch mode. Usage is as follows:
+ * <pre>
+ * java -Djava.awt.headless=true SnapshotRenderer output_directory file_directory_or_glob...
+ * </pre>
+ * <br />
+ * @author Andrew Eissen
+ */
+final class SnapshotRenderer {
+
+    // Declarations
+    private File outputDirectory;
+    private SwingRealizer realizer;
+
+    /**
+     * Parameterized constructor
+     * @param outputDirectory <code>File</code> in which images are saved
+     */
+    protected SnapshotRenderer(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+        this.realizer = new SwingRealizer();
+    }
+
+    /**
+     * This method parses and renders the parameter file, returning a single line summary of the
+     * outcome along with the time taken by each of the two phases. Parsing failures are reported
+     * with the first error message encountered.
+     *
+     * @param file <code>File</code> to be rendered
+     * @return <code>String</code> summary
+     */
+    protected String renderFile(File file) {
+
+        // Declarations
+        RecursiveDescentParser parser;
+        ParseResult result;
+        BufferedImage image;
+        File imageFile;
+        long startTime, parseTime;
+
+        startTime = System.nanoTime();
+        try (InputStream inputContents = SpecInput.open(file)) {
+            parser = new RecursiveDescentParser();
+            parser.setSourceFile(file);
+            result = parser.parseInputStream(inputContents);
+            parseTime = System.nanoTime();
+
+            if (!result.isSuccessful()) {
+                return "FAIL " + file.getName() + ": " + result.getErrorMessage()
+                    + this.formatTimes(startTime, parseTime);
+            }
+
+            image = this.paintOnEventDispatchThread(result.getWindowWidget());
+            imageFile = this.getImageFile(file);
+            imageFile.getParentFile().mkdirs();
+            ImageIO.write(image, "png", imageFile);
+
+            return "OK   " + file.getName() + " -> " + imageFile.getPath()
+                + this.formatTimes(startTime, parseTime);
+        } catch (IOException | ReflectiveOperationException | RuntimeException ex) {
+            return "FAIL " + file.getName() + ": Error: " + ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return "FAIL " + file.getName() + ": Error: " + ex;
+        }
+    }
+
+    /**
+     * Returns the image file of the parameter file, found at the file's path relative to the
+     * working directory within the output directory, or at its absolute path therein should it lie
+     * outside the working directory. Any <code>.gz</code> and other extension is replaced by
+     * <code>.png</code>.
+     *
+     * @param file <code>File</code> to be rendered
+     * @return <code>File</code>
+     */
+    private File getImageFile(File file) {
+
+        // Declarations
+        Path workingDirectory, path;
+
+        workingDirectory = Paths.get("").toAbsolutePath().normalize();
+        path = file.toPath().toAbsolutePath().normalize();
+        path = (path.startsWith(workingDirectory))
+            ? workingDirectory.relativize(path)
+            : path.subpath(0, path.getNameCount());
+
+        return new File(this.outputDirectory, path.toString()
+            .replaceFirst("(\\.gz)?$", "").replaceFirst("\\.[^.\\\\/]*$", "") + ".png");
+    }
+
+    /**
+     * Realizes and paints the parameter window widget on the Event Dispatch Thread, waiting for
+     * the image to be painted.
+     *
+     * @param window <code>Widget</code> of <code>Type.WINDOW</code>
+     * @return <code>BufferedImage</code>
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private BufferedImage paintOnEventDispatchThread(Widget window)
+            throws ReflectiveOperationException, InterruptedException {
+
+        // Declarations
+        BufferedImage[] image;
+        ReflectiveOperationException[] failure;
+
+        image = new BufferedImage[1];
+        failure = new ReflectiveOperationException[1];
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                try {
+                    image[0] = this.paintWindow(window);
+                } catch (ReflectiveOperationException ex) {
+                    failure[0] = ex;
+                }
+            });
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return image[0];
+    }
+
+    /**
+     * This method realizes the parameter window widget, lays it out at the window's dimensions,
+     * and paints it into a new <code>BufferedImage</code>. Must be called on the Event Dispatch
+     * Thread. As headless components are never made displayable, the layout of each nested
+     * container is performed explicitly via
+     * <code>SnapshotRenderer.class.layoutComponentTree</code>.
+     *
+     * @param window <code>Widget</code> of <code>Type.WINDOW</code>
+     * @return <code>BufferedImage</code>
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    private BufferedImage paintWindow(Widget window) throws ReflectiveOperationException {
+
+        // Declarations
+        JPanel contentPanel;
+        BufferedImage image;
+        Graphics2D graphics;
+        int width, height;
+
+        width = Math.max(1, window.getNumbers()[0]);
+        height = Math.max(1, window.getNumbers()[1]);
+
+        contentPanel = this.realizer.realizeContents(window);
+        contentPanel.setSize(width, height);
+        this.layoutComponentTree(contentPanel);
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        try {
+            graphics.setColor(contentPanel.getBackground());
+            graphics.fillRect(0, 0, width, height);
+            contentPanel.printAll(graphics);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Recursively lays out the parameter container and all containers nested within it.
+     * @param container <code>Container</code>
+     * @return void
+     */
+    private void layoutComponentTree(Container container) {
+        container.doLayout();
+        for (Component component : container.getComponents()) {
+            if (component instanceof Container) {
+                this.layoutComponentTree((Container) component);
+            }
+        }
+    }
+
+    /**
+     * Formats the parse and render times of a file for inclusion in its summary line.
+     * @param startTime <code>long</code> time at which parsing began
+     * @param parseTime <code>long</code> time at which parsing ended
+     * @return <code>String</code>
+     */
+    private String formatTimes(long startTime, long parseTime) {
+        return String.format(" (parse %.2f ms, render %.2f ms)", (parseTime - startTime) / 1e6,
+            (System.nanoTime() - parseTime) / 1e6);
+    }
+
+    /**
+     * The main method renders each of the files named in the command line arguments in parallel,
+     * printing the summary of each file in the order given along with the total time taken. The
+     * program exits with status <code>1</code> should any file fail to parse or render.
+     *
+     * @param args <code>String[]</code> output directory followed by files, directories, or globs
+     * @return void
+     * @throws IOException if the files cannot be listed
+     * @throws InterruptedException if interrupted while awaiting results
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        // Declarations
+        SnapshotRenderer renderer;
+        ExecutorService executor;
+        ArrayList<Future<String>> summaries;
+        File outputDirectory;
+        String line;
+        long startTime;
+        int failures;
+
+        if (args.length < 2) {
+            System.err.println("Usage: SnapshotRenderer output_directory file_or_directory...");
+            System.exit(2);
+        }
+
+        System.setProperty("java.awt.headless", "true");
+        ParserMetrics.register();
+        outputDirectory = new File(args[0]);
+        outputDirectory.mkdirs();
+
+        renderer = new SnapshotRenderer(outputDirectory);
+        executor = BatchRunner.createExecutor();
+        summaries = new ArrayList<>();
+        startTime = System.nanoTime();
+
+        for (String pathOrGlob : Arrays.copyOfRange(args, 1, args.length)) {
+            for (File file : BatchRunner.collectFiles(pathOrGlob)) {
+                summaries.add(executor.submit(() -> renderer.renderFile(file)));
+            }
+        }
+
+        failures = 0;
+        for (Future<String> summary : summaries) {
+            try {
+                line = summary.get();
+            } catch (ExecutionException ex) {
+                line = "FAIL Error: " + ex.getCause();
+            }
+            if (line.startsWith("FAIL ")) {
+                failures++;
+            }
+            System.out.println(line);
+        }
+        executor.shutdown();
+
+        System.out.printf("Rendered %d file(s), %d failed, in %.2f ms%n", summaries.size(),
+            failures, (System.nanoTime() - startTime) / 1e6);
+        System.exit((failures == 0) ? 0 : 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,507 @@
+/**
+ * SourceGenerator.java - Compiles a parsed file into Java source that builds the same GUI
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.awt.event.*;
+import javax.swing.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * This class is used to translate a properly formatted file into the source of a Java class that
+ * builds the very same GUI without lexing, parsing, or making use of reflection at runtime. Each
+ * widget in the parsed <code>Widget</code> tree is emitted as a straight-line statement such as
+ * <code>panel.add(new JButton("7"));</code>, and each repetition as a loop rather than expanded
+ * in full, with each panel assembled in a static method of its own. Panels of more widgets than
+ * fit within the JVM's limit on the size of a method are split across as many methods as needed,
+ * though a file of tens of thousands of distinct texts may still exceed the limit of 65,535
+ * constants per class. Files that never change may thus be compiled alongside the rest of a
+ * project, paying the parse cost at build time.
+ * <br />
+ * <br />
+ * The generated class includes a <code>main</code> method that displays the dialog and prints the
+ * time elapsed between JVM startup and the dialog becoming visible. The same measurement is made
+ * for the interpreted path (lexing, parsing, and reflective realization) by running this class with
+ * the <code>--interpret</code> option, allowing the two approaches to be compared. Usage is as
+ * follows:
+ * <pre>
+ * java SourceGenerator file ClassName [output_directory]
+ * java SourceGenerator --interpret file
+ * </pre>
+ * <br />
+ * @author Andrew Eissen
+ */
+final class SourceGenerator {
+
+    // Declarations
+    private static final int MAX_METHOD_LINES = 1000; // Well under 64 KB of bytecode
+    private StringBuilder methods;
+    private int panelCounter, repeatCounter, groupCounter, chunkCounter;
+    private boolean hasGroups;
+
+    /**
+     * Standard constructor
+     */
+    protected SourceGenerator() {
+        this.methods = new StringBuilder();
+        this.panelCounter = 0;
+        this.repeatCounter = 0;
+        this.groupCounter = 0;
+        this.chunkCounter = 0;
+        this.hasGroups = false;
+    }
+
+    // Generation methods
+
+    /**
+     * This method generates the complete source of a class of the parameter name that builds the
+     * GUI described by the parameter window widget.
+     *
+     * @param window <code>Widget</code> of <code>Type.WINDOW</code>
+     * @param className <code>String</code> name of the generated class
+     * @param sourceName <code>String</code> name of the file from which the widget was parsed
+     * @return <code>String</code> Java source
+     */
+    protected String generateClass(Widget window, String className, String sourceName) {
+
+        // Declarations
+        StringBuilder source;
+        String contentMethod;
+
+        contentMethod = this.generatePanelMethod(window, false);
+
+        source = new StringBuilder();
+        source.append("/**\n")
+            .append(" * ").append(className).append(".java - Generated by SourceGenerator from ")
+            .append(sourceName).append("\n")
+            .append(" * Do not edit; regenerate from the source file instead.\n")
+            .append(" */\n\n")
+            .append("import java.awt.*;\n")
+            .append("import java.awt.event.*;\n")
+            .append("import javax.swing.*;\n")
+            .append("import java.lang.management.ManagementFactory;\n\n")
+            .append("final class ").append(className).append(" {\n\n")
+            .append("    static JDialog createDialog() {\n")
+            .append("        JDialog dialog = new JDialog();\n")
+            .append("        dialog.setTitle(").append(this.quote(window.getText())).append(");\n")
+            .append("        dialog.setContentPane(").append(contentMethod).append("());\n")
+            .append("        dialog.setSize(").append(window.getNumbers()[0]).append(", ")
+            .append(window.getNumbers()[1]).append(");\n")
+            .append("        return dialog;\n")
+            .append("    }\n")
+            .append(this.methods);
+        if (this.hasGroups) {
+            source.append("\n    private static void addRadioButton(JPanel panel, ")
+                .append("ButtonGroup group, String text) {\n")
+                .append("        JRadioButton radio = new JRadioButton(text);\n")
+                .append("        group.add(radio);\n")
+                .append("        panel.add(radio);\n")
+                .append("    }\n");
+        }
+        source.append("\n    public static void main(String[] args) {\n")
+            .append("        SwingUtilities.invokeLater(() -> {\n")
+            .append("            JDialog dialog = createDialog();\n")
+            .append("            dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);\n")
+            .append("            dialog.addWindowListener(new WindowAdapter() {\n")
+            .append("                @Override\n")
+            .append("                public void windowOpened(WindowEvent e) {\n")
+            .append("                    System.out.println(\"Startup-to-visible: \" + (System")
+            .append(".currentTimeMillis()\n")
+            .append("                        - ManagementFactory.getRuntimeMXBean()")
+            .append(".getStartTime()) + \" ms\");\n")
+            .append("                }\n")
+            .append("            });\n")
+            .append("            dialog.setVisible(true);\n")
+            .append("        });\n")
+            .append("    }\n")
+            .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * This method generates a static method building the <code>JPanel</code> of the parameter
+     * window or panel widget, returning the name of the generated method. Nested panels are given
+     * methods of their own, which are generated before that of their parent. Panels within a
+     * repetition take the index of the repetition as a parameter, with which to replace the index
+     * placeholder of their widgets' text.
+     *
+     * @param widget <code>Widget</code> window or panel
+     * @param isRepeated <code>boolean</code> whether the widget is within a repetition
+     * @return <code>String</code> name of the generated method
+     */
+    private String generatePanelMethod(Widget widget, boolean isRepeated) {
+
+        // Declarations
+        ArrayList<String> statements;
+        String methodName;
+
+        methodName = "createPanel" + this.panelCounter++;
+        statements = this.splitStatements(this.generateChildren(widget.getChildren(), isRepeated),
+            "JPanel panel" + ((isRepeated) ? ", int index" : ""),
+            "panel" + ((isRepeated) ? ", index" : ""));
+
+        this.methods.append("\n    private static JPanel ").append(methodName)
+            .append((isRepeated) ? "(int index)" : "()").append(" {\n")
+            .append("        JPanel panel = new JPanel(").append(this.generateLayout(widget))
+            .append(");\n");
+        statements.forEach(this.methods::append);
+        this.methods.append("        return panel;\n")
+            .append("    }\n");
+        return methodName;
+    }
+
+    /**
+     * This method generates a static method adding the widgets of the parameter repetition to a
+     * panel once, for the repetition whose index is passed to it, returning the name of the
+     * generated method. Repetitions are generated as loops calling such a method rather than
+     * being expanded, so that the size of the generated source does not depend on their counts.
+     *
+     * @param widget <code>Widget</code> of <code>Type.REPEAT</code>
+     * @return <code>String</code> name of the generated method
+     */
+    private String generateRepeatMethod(Widget widget) {
+
+        // Declarations
+        ArrayList<String> statements;
+        String methodName;
+
+        methodName = "addRepetition" + this.repeatCounter++;
+        statements = this.splitStatements(this.generateChildren(widget.getChildren(), true),
+            "JPanel panel, int index", "panel, index");
+
+        this.methods.append("\n    private static void ").append(methodName)
+            .append("(JPanel panel, int index) {\n");
+        statements.forEach(this.methods::append);
+        this.methods.append("    }\n");
+        return methodName;
+    }
+
+    /**
+     * Generates the statements adding each of the parameter widgets to the panel named
+     * <code>panel</code>, one statement per widget. The statements of a group are generated as
+     * one, as they share the group's <code>ButtonGroup</code>, though its radio buttons are split
+     * off into methods of their own should there be too many.
+     *
+     * @param children <code>ArrayList</code> of child <code>Widget</code>s
+     * @param isRepeated <code>boolean</code> whether the widgets are within a repetition
+     * @return <code>ArrayList</code> of <code>String</code> statements, each ending in a newline
+     */
+    private ArrayList<String> generateChildren(ArrayList<Widget> children, boolean isRepeated) {
+
+        // Declarations
+        ArrayList<String> statements, radioStatements;
+        StringBuilder groupStatement;
+        String groupName;
+
+        statements = new ArrayList<>(children.size());
+        for (Widget child : children) {
+            switch (child.getType()) {
+                case PANEL:
+                    statements.add("        panel.add("
+                        + this.generatePanelMethod(child, isRepeated)
+                        + ((isRepeated) ? "(index)" : "()") + ");\n");
+                    break;
+                case REPEAT:
+                    statements.add("        for (int repetition = 1; repetition <= "
+                        + child.getNumbers()[0] + "; repetition++) {\n"
+                        + "            " + this.generateRepeatMethod(child)
+                        + "(panel, repetition);\n"
+                        + "        }\n");
+                    break;
+                case GROUP:
+                    groupName = "group" + this.groupCounter++;
+                    radioStatements = new ArrayList<>(child.getChildren().size());
+                    for (Widget radio : child.getChildren()) {
+                        radioStatements.add("        addRadioButton(panel, " + groupName + ", "
+                            + this.generateText(radio.getText(), isRepeated) + ");\n");
+                    }
+                    radioStatements = this.splitStatements(radioStatements,
+                        "JPanel panel, ButtonGroup " + groupName
+                            + ((isRepeated) ? ", int index" : ""),
+                        "panel, " + groupName + ((isRepeated) ? ", index" : ""));
+
+                    groupStatement = new StringBuilder("        ButtonGroup ").append(groupName)
+                        .append(" = new ButtonGroup();\n");
+                    radioStatements.forEach(groupStatement::append);
+                    statements.add(groupStatement.toString());
+                    this.hasGroups = true;
+                    break;
+                case TEXTFIELD:
+                    statements.add("        panel.add(new JTextField(" + child.getNumbers()[0]
+                        + "));\n");
+                    break;
+                case LABEL:
+                    statements.add("        panel.add(new JLabel("
+                        + this.generateText(child.getText(), isRepeated) + "));\n");
+                    break;
+                default:
+                    statements.add("        panel.add(new JButton("
+                        + this.generateText(child.getText(), isRepeated) + "));\n");
+                    break;
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * This method keeps the generated methods within the JVM's limit of 64 KB of bytecode per
+     * method. Should the parameter statements amount to more than <code>MAX_METHOD_LINES</code>
+     * lines, they are moved into as many methods of that many lines as are needed, and the
+     * statements calling these methods are returned in their place, themselves split again should
+     * there be too many of them. Otherwise, the statements are returned as they are.
+     *
+     * @param statements <code>ArrayList</code> of <code>String</code> statements
+     * @param parameters <code>String</code> parameter list of the methods, such as
+     *     <code>JPanel panel, int index</code>
+     * @param arguments <code>String</code> argument list passing the parameters on
+     * @return <code>ArrayList</code> of <code>String</code> statements
+     */
+    private ArrayList<String> splitStatements(ArrayList<String> statements, String parameters,
+            String arguments) {
+
+        // Declarations
+        ArrayList<String> calls;
+        StringBuilder chunk;
+        int lines, chunkLines;
+
+        lines = 0;
+        for (String statement : statements) {
+            lines += countLines(statement);
+        }
+        if (lines <= MAX_METHOD_LINES) {
+            return statements;
+        }
+
+        calls = new ArrayList<>();
+        chunk = new StringBuilder();
+        chunkLines = 0;
+        for (String statement : statements) {
+            lines = countLines(statement);
+            if (chunkLines > 0 && chunkLines + lines > MAX_METHOD_LINES) {
+                calls.add(this.generateChunkMethod(chunk, parameters, arguments));
+                chunk.setLength(0);
+                chunkLines = 0;
+            }
+            chunk.append(statement);
+            chunkLines += lines;
+        }
+        calls.add(this.generateChunkMethod(chunk, parameters, arguments));
+        return this.splitStatements(calls, parameters, arguments);
+    }
+
+    /**
+     * Generates a static method of the parameter statements, returning the statement calling it.
+     * @param body <code>StringBuilder</code> statements of the method
+     * @param parameters <code>String</code> parameter list of the method
+     * @param arguments <code>String</code> argument list of the call
+     * @return <code>String</code> statement
+     */
+    private String generateChunkMethod(StringBuilder body, String parameters, String arguments) {
+
+        // Declaration
+        String methodName;
+
+        methodName = "addWidgets" + this.chunkCounter++;
+        this.methods.append("\n    private static void ").append(methodName).append("(")
+            .append(parameters).append(") {\n")
+            .append(body)
+            .append("    }\n");
+        return "        " + methodName + "(" + arguments + ");\n";
+    }
+
+    /**
+     * Counts the lines of the parameter statement.
+     * @param statement <code>String</code> ending in a newline
+     * @return <code>int</code>
+     */
+    private static int countLines(String statement) {
+
+        // Declaration
+        int lines;
+
+        lines = 0;
+        for (int index = 0; index < statement.length(); index++) {
+            if (statement.charAt(index) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Generates the expression of the parameter widget text, replacing its index placeholder by
+     * the <code>index</code> parameter of the generated method if within a repetition.
+     *
+     * @param text <code>String</code>
+     * @param isRepeated <code>boolean</code> whether the widget is within a repetition
+     * @return <code>String</code> Java expression
+     */
+    private String generateText(String text, boolean isRepeated) {
+        return (isRepeated && text.contains(Widget.INDEX_PLACEHOLDER))
+            ? this.quote(text) + ".replace(" + this.quote(Widget.INDEX_PLACEHOLDER)
+                + ", Integer.toString(index))"
+            : this.quote(text);
+    }
+
+    /**
+     * Generates the layout manager constructor expression for the parameter widget.
+     * @param widget <code>Widget</code> window or panel
+     * @return <code>String</code> Java expression
+     */
+    private String generateLayout(Widget widget) {
+
+        // Declarations
+        StringBuilder expression;
+        int[] layoutNumbers;
+        int index;
+
+        if (widget.getLayoutType() != Type.GRID) {
+            return "new FlowLayout()";
+        }
+
+        layoutNumbers = widget.getLayoutNumbers();
+        expression = new StringBuilder("new GridLayout(");
+        for (index = 0; index < layoutNumbers.length; index++) {
+            expression.append((index == 0) ? "" : ", ").append(layoutNumbers[index]);
+        }
+        return expression.append(")").toString();
+    }
+
+    /**
+     * Converts the parameter text into a quoted Java string literal, escaping quotes, backslashes,
+     * and any characters outside of printable ASCII so that the generated source compiles
+     * regardless of the compiler's source encoding.
+     *
+     * @param text <code>String</code>
+     * @return <code>String</code> Java string literal
+     */
+    private String quote(String text) {
+
+        // Declaration
+        StringBuilder literal;
+
+        literal = new StringBuilder("\"");
+        for (char character : text.toCharArray()) {
+            if (character == '"' || character == '\\') {
+                literal.append('\\').append(character);
+            } else if (character < 0x20 || character > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) character));
+            } else {
+                literal.append(character);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    // Command line methods
+
+    /**
+     * Parses the parameter file headlessly, printing the first error encountered and exiting
+     * should the file not be properly formatted. Any files it includes are resolved against its
+     * own directory, wherever the generator is run from.
+     *
+     * @param file <code>File</code>
+     * @return <code>Widget</code> of <code>Type.WINDOW</code>
+     * @throws IOException if the file cannot be read
+     */
+    private static Widget parseFile(File file) throws IOException {
+
+        // Declarations
+        RecursiveDescentParser parser;
+        ParseResult result;
+
+        parser = new RecursiveDescentParser();
+        parser.setSourceFile(file);
+        try (InputStream inputContents = SpecInput.open(file)) {
+            result = parser.parseInputStream(inputContents);
+        }
+
+        if (!result.isSuccessful()) {
+            System.err.println(file.getName() + ": " + result.getErrorMessage());
+            System.exit(1);
+        }
+        return result.getWindowWidget();
+    }
+
+    /**
+     * This method displays the parameter file's GUI via the interpreted path, printing the time
+     * elapsed between JVM startup and the dialog becoming visible for comparison with that printed
+     * by a generated class.
+     *
+     * @param file <code>File</code>
+     * @return void
+     * @throws IOException if the file cannot be read
+     */
+    private static void interpretFile(File file) throws IOException {
+
+        // Declaration
+        Widget window;
+
+        window = parseFile(file);
+        SwingUtilities.invokeLater(() -> {
+
+            // Declaration
+            JDialog dialog;
+
+            try {
+                dialog = new SwingRealizer().realizeWindow(window);
+            } catch (ReflectiveOperationException ex) {
+                System.err.println("Error: " + ex);
+                return;
+            }
+
+            dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+            dialog.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    System.out.println("Startup-to-visible: " + (System.currentTimeMillis()
+                        - ManagementFactory.getRuntimeMXBean().getStartTime()) + " ms");
+                }
+            });
+            dialog.setVisible(true);
+        });
+    }
+
+    /**
+     * The main method either generates the source of a class building the GUI of the parameter
+     * file or, if the <code>--interpret</code> option is supplied, displays the GUI via the
+     * interpreted path for timing purposes.
+     *
+     * @param args <code>String[]</code> command line arguments
+     * @return void
+     * @throws IOException if the file cannot be read or the source cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Declarations
+        File file, outputFile;
+        String className;
+
+        if (args.length == 2 && args[0].equals("--interpret")) {
+            interpretFile(new File(args[1]));
+            return;
+        } else if (args.length < 2) {
+            System.err.println("Usage: SourceGenerator file ClassName [output_directory]\n"
+                + "       SourceGenerator --interpret file");
+            System.exit(2);
+        }
+
+        file = new File(args[0]);
+        className = args[1];
+        if (!className.matches("[A-Za-z_$][A-Za-z0-9_$]*")) {
+            System.err.println("Error: Illegitimate class name " + className);
+            System.exit(2);
+        }
+
+        outputFile = new File((args.length > 2) ? args[2] : ".", className + ".java");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8")) {
+            writer.write(new SourceGenerator().generateClass(parseFile(file), className,
+                file.getName()));
+        }
+        System.out.println("Generated " + outputFile.getPath());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,280 @@
+/**
+ * SpecFormatter.java - Streaming formatter rewriting files with canonical spacing and indentation
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class implements the program's format mode, invoked by passing the <code>--format</code>
+ * option to <code>Application.class.main</code> along with the path of a file or bundle (or
+ * <code>-</code> for standard input). The contents are rewritten to standard output in the style
+ * of the sample files, with one widget per line, two spaces of indentation per level of nesting
+ * within windows, panels, groups, templates, and repetitions, and a single space between tokens
+ * except before punctuation.
+ * <br />
+ * <br />
+ * Much like <code>BundleRunner</code>, tokens are pulled from a <code>ByteLexer</code> one at a
+ * time and each is written as soon as it is read, with the formatter keeping only the current
+ * nesting depth and the types of the last two tokens. Memory use is therefore constant however
+ * large the input, and multi-gigabyte bundles may be formatted as readily as single files.
+ * <br />
+ * <br />
+ * Formatting never changes the sequence of tokens, meaning the output lexes to exactly the same
+ * types and contents as the input, with only line numbers differing. This holds for malformed
+ * files as well, which are formatted as far as their tokens allow rather than rejected. As the
+ * lexer ends an unterminated string at the end of its line, a token whose contents would be split
+ * apart if written bare is written as just such a string, followed by a line break.
+ * <br />
+ * <br />
+ * @see BundleRunner
+ * @author Andrew Eissen
+ */
+final class SpecFormatter {
+
+    // Declarations
+    private static final String INDENT = "  ";
+    private Writer output;
+    private Type previousType, earlierType;
+    private int depth;
+    private boolean isAtLineStart, isLineBreakRequired;
+
+    /**
+     * Parameterized constructor
+     * @param output <code>Writer</code> to which formatted contents are written
+     */
+    protected SpecFormatter(Writer output) {
+        this.output = output;
+        this.previousType = Type.UNKNOWN;
+        this.earlierType = Type.UNKNOWN;
+        this.depth = 0;
+        this.isAtLineStart = true;
+        this.isLineBreakRequired = false;
+    }
+
+    // Formatting methods
+
+    /**
+     * This method formats the whole of the parameter input, ending the output with a line break.
+     *
+     * @param input <code>InputStream</code> of UTF-8 encoded contents
+     * @return <code>long</code> number of tokens formatted
+     * @throws IOException if the input cannot be read or the output written
+     */
+    protected long format(InputStream input) throws IOException {
+
+        // Declarations
+        ByteLexer lexer;
+        Token token;
+        long tokenCount;
+
+        lexer = new ByteLexer(input);
+        tokenCount = 0;
+        while ((token = lexer.nextToken()) != null) {
+            this.write(token);
+            tokenCount++;
+        }
+
+        if (!this.isAtLineStart) {
+            this.output.write('\n');
+            this.isAtLineStart = true;
+        }
+        this.output.flush();
+        return tokenCount;
+    }
+
+    /**
+     * This method writes a single token, preceded by a line break and indentation if the previous
+     * token ended a line, or otherwise by whatever spacing the pair of tokens calls for. Blocks are
+     * opened by the line-ending token of their header and closed by their <code>End</code>.
+     *
+     * @param token <code>Token</code>
+     * @return void
+     * @throws IOException if the output cannot be written
+     */
+    private void write(Token token) throws IOException {
+
+        // Declaration
+        Type type;
+
+        type = token.getType();
+        if (type == Type.END) {
+            this.depth = Math.max(0, this.depth - 1);
+        }
+
+        if (!this.isAtLineStart && (this.isLineBreakRequired || this.endsLine())) {
+            this.output.write('\n');
+            this.isAtLineStart = true;
+        }
+
+        if (this.isAtLineStart) {
+            for (int level = 0; level < this.depth; level++) {
+                this.output.write(INDENT);
+            }
+        } else if (this.isSpaceRequired(type)) {
+            this.output.write(' ');
+        }
+
+        this.isLineBreakRequired = false;
+        if (type == Type.STRING) {
+            this.output.write('"');
+            this.output.write(token.getToken());
+            this.output.write('"');
+        } else if (isSymbol(type) || isBare(token.getToken())) {
+            this.output.write(token.getToken());
+        } else {
+            this.output.write('"');
+            this.output.write(token.getToken());
+            this.isLineBreakRequired = true;
+        }
+
+        if (this.opensBlock(type)) {
+            this.depth++;
+        }
+        this.isAtLineStart = false;
+        this.earlierType = this.previousType;
+        this.previousType = type;
+    }
+
+    // Helper methods
+
+    /**
+     * Determines whether the previous token ended its line, which is the case for the semicolon
+     * ending each widget, the colon ending each header, the <code>Group</code> keyword, the name of
+     * a template, and the period ending each window.
+     *
+     * @return <code>boolean</code>
+     */
+    private boolean endsLine() {
+        switch (this.previousType) {
+            case SEMICOLON:
+            case COLON:
+            case GROUP:
+            case PERIOD:
+                return true;
+            case STRING:
+                return this.earlierType == Type.DEFINE;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Determines whether the parameter token, having just been written, opens a block whose
+     * contents are indented. Every colon ends the header of a window, panel, or repetition.
+     *
+     * @param type <code>Type</code> of the token just written
+     * @return <code>boolean</code>
+     */
+    private boolean opensBlock(Type type) {
+        return type == Type.COLON || type == Type.GROUP
+            || (type == Type.STRING && this.previousType == Type.DEFINE);
+    }
+
+    /**
+     * This method determines whether a space separates the previous token from the parameter
+     * token on the same line. No space precedes punctuation, follows an opening parenthesis, or
+     * separates <code>Grid</code> from its parenthesis. Neither may a space separate punctuation
+     * or another string from a following string, as the lexer would include the space in the
+     * string.
+     *
+     * @param type <code>Type</code> of the token about to be written
+     * @return <code>boolean</code>
+     */
+    private boolean isSpaceRequired(Type type) {
+        switch (type) {
+            case SEMICOLON:
+            case COMMA:
+            case RPAREN:
+            case PERIOD:
+            case COLON:
+                return false;
+            case LPAREN:
+                return this.previousType != Type.GRID;
+            case STRING:
+                return !isSymbol(this.previousType) && this.previousType != Type.STRING;
+            default:
+                return this.previousType != Type.LPAREN;
+        }
+    }
+
+    /**
+     * Determines whether the parameter token contents would be lexed back as the same single
+     * token if written bare, meaning they contain no whitespace, control characters, punctuation,
+     * or quotes. Control characters are excluded as the lexer trims them from the end of a token
+     * each time another character is added, keeping them only within quotes.
+     *
+     * @param contents <code>String</code> non-empty token contents
+     * @return <code>boolean</code>
+     */
+    private static boolean isBare(String contents) {
+
+        // Declaration
+        char character;
+
+        for (int index = 0; index < contents.length(); index++) {
+            character = contents.charAt(index);
+            switch (character) {
+                case ':':
+                case ',':
+                case '(':
+                case '.':
+                case ')':
+                case ';':
+                case '"':
+                    return false;
+                default:
+                    if (character <= ' ' || Character.isWhitespace(character)) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether the parameter <code>Type</code> is that of a punctuation symbol.
+     * @param type <code>Type</code>
+     * @return <code>boolean</code>
+     */
+    private static boolean isSymbol(Type type) {
+        switch (type) {
+            case COLON:
+            case COMMA:
+            case LPAREN:
+            case PERIOD:
+            case RPAREN:
+            case SEMICOLON:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * This method formats the parameter file, or standard input if <code>-</code>, to standard
+     * output, decompressing gzip contents transparently.
+     *
+     * @param fileName <code>String</code> file path, or <code>-</code> for standard input
+     * @return <code>int</code> exit status
+     * @throws IOException if the input cannot be read or the output written
+     */
+    protected static int run(String fileName) throws IOException {
+
+        // Declaration
+        Writer writer;
+
+        writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+            65536);
+        try (InputStream inputContents = (fileName.equals("-"))
+                ? SpecInput.open(System.in)
+                : SpecInput.open(new File(fileName))) {
+            new SpecFormatter(writer).format(inputContents);
+        }
+        return 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,396 @@
+/**
+ * SpecGenerator.java - Generates synthetic files from the grammar for load and stress testing
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class generates files following the grammar included in the <code>README.md</code>, used to
+ * see how the program behaves on inputs far larger or more deeply nested than the handful of files
+ * in the <code>Text files</code> folder. Generation is seeded, meaning that the same seed and
+ * options always produce the same files, and is driven by the following options:
+ * <ul>
+ * <li><code>--size</code> - approximate size of each file, with an optional <code>k</code> or
+ *     <code>m</code> suffix</li>
+ * <li><code>--depth</code> - maximum nesting depth of panels</li>
+ * <li><code>--fanout</code> - maximum number of widgets per panel or radio buttons per group</li>
+ * <li><code>--grid</code> - ratio of <code>Grid</code> to <code>Flow</code> layouts, from 0 to 1
+ *     </li>
+ * <li><code>--string-length</code> - maximum length of generated strings</li>
+ * <li><code>--error-rate</code> - chance, from 0 to 1, of each widget being made malformed</li>
+ * </ul>
+ * <br />
+ * The first widget of every panel (and of the window) is itself a panel until the maximum depth
+ * is reached, so that each file reaches the maximum depth as soon as possible, with later widgets
+ * being panels only some of the time. Once a file has reached its target size, the open panels
+ * are closed and the window ended. Files are written as they are generated rather than assembled
+ * in memory, so there is no practical limit on their size, and indentation stops growing beyond a
+ * depth of 32 so that deeply nested files are not dominated by whitespace.
+ * <br />
+ * <br />
+ * Injected errors are limited to mistakes a person might make (a missing semicolon, a misspelt
+ * keyword, or a comma in place of a semicolon), each of which the parser must report. Usage is
+ * as follows, with <code>-</code> writing to standard output and an output path ending in
+ * <code>.gz</code> being compressed:
+ * <pre>
+ * java SpecGenerator [options] [--seed n] [--count n] output_file_or_directory_or_-
+ * </pre>
+ * <br />
+ * @author Andrew Eissen
+ */
+final class SpecGenerator {
+
+    // Declarations
+    private static final String STRING_CHARACTERS =
+        "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+    private static final String UNICODE_CHARACTERS = "\u00e9\u00fc\u00f1\u00df\u03a9\u65e5\u672c";
+    private static final int MAX_INDENTATION = 32;
+    private Random random;
+    private long targetSize, generatedSize;
+    private int maxDepth, fanout, maxStringLength, injectedErrors;
+    private double gridRatio, errorRate;
+    private Writer writer;
+
+    /**
+     * Parameterized constructor
+     * @param seed <code>long</code> seed of the random number generator
+     * @param targetSize <code>long</code> approximate size of the file in characters
+     * @param maxDepth <code>int</code> maximum nesting depth of panels
+     * @param fanout <code>int</code> maximum number of widgets per panel
+     * @param gridRatio <code>double</code> chance of a layout being a grid layout
+     * @param maxStringLength <code>int</code> maximum length of strings
+     * @param errorRate <code>double</code> chance of each widget being made malformed
+     */
+    protected SpecGenerator(long seed, long targetSize, int maxDepth, int fanout, double gridRatio,
+            int maxStringLength, double errorRate) {
+        this.random = new Random(seed);
+        this.targetSize = targetSize;
+        this.maxDepth = maxDepth;
+        this.fanout = Math.max(1, fanout);
+        this.gridRatio = gridRatio;
+        this.maxStringLength = Math.max(1, maxStringLength);
+        this.errorRate = errorRate;
+    }
+
+    // Generation methods
+
+    /**
+     * This method writes a single generated file to the parameter <code>Writer</code>. Rather than
+     * recursing once per panel, which would limit the nesting depth to that of the generator's own
+     * stack, the number of widgets written and required at each open depth are tracked in arrays.
+     *
+     * @param writer <code>Writer</code> to which the file is written
+     * @return <code>int</code> number of errors injected into the file
+     * @throws IOException if the file cannot be written
+     */
+    protected int generate(Writer writer) throws IOException {
+
+        // Declarations
+        int[] widgetCounts, widgetTargets;
+        int depth;
+
+        this.writer = writer;
+        this.generatedSize = 0;
+        this.injectedErrors = 0;
+        widgetCounts = new int[this.maxDepth + 1];
+        widgetTargets = new int[this.maxDepth + 1];
+        widgetTargets[0] = Integer.MAX_VALUE; // Window continues until the target size is reached
+        depth = 0;
+
+        this.writeLine(0, "Window \"" + this.createString() + "\" (" + (100 + this.random
+            .nextInt(900)) + ", " + (100 + this.random.nextInt(900)) + ") " + this.createLayout()
+            + ":");
+
+        while (true) {
+            // Close the current panel once it has enough widgets
+            if (widgetCounts[depth] >= widgetTargets[depth]
+                    || (this.generatedSize >= this.targetSize && widgetCounts[depth] > 0)) {
+                if (depth == 0) {
+                    break;
+                }
+                this.writeLine(depth, "End;");
+                depth--;
+                widgetCounts[depth]++;
+            } else if (depth < this.maxDepth
+                    && (widgetCounts[depth] == 0 || this.random.nextInt(4) == 0)) {
+                this.writeLine(depth + 1, "Panel " + this.createLayout() + ":");
+                depth++;
+                widgetCounts[depth] = 0;
+                widgetTargets[depth] = 1 + this.random.nextInt(this.fanout);
+            } else {
+                this.writeSimpleWidget(depth + 1);
+                widgetCounts[depth]++;
+            }
+        }
+
+        this.writeLine(0, "End.");
+        this.writer.flush();
+        return this.injectedErrors;
+    }
+
+    /**
+     * Writes a single button, label, text field, or group of radio buttons at the parameter
+     * indentation level, possibly making the widget malformed.
+     *
+     * @param level <code>int</code> indentation level
+     * @return void
+     * @throws IOException if the file cannot be written
+     */
+    private void writeSimpleWidget(int level) throws IOException {
+
+        // Declaration
+        int radioButtons;
+
+        switch (this.random.nextInt(4)) {
+            case 0:
+                this.writeWidgetLine(level, "Button \"" + this.createString() + "\";");
+                break;
+            case 1:
+                this.writeWidgetLine(level, "Label \"" + this.createString() + "\";");
+                break;
+            case 2:
+                this.writeWidgetLine(level, "Textfield " + (1 + this.random.nextInt(40)) + ";");
+                break;
+            default:
+                radioButtons = 1 + this.random.nextInt(this.fanout);
+                this.writeLine(level, "Group");
+                for (int index = 0; index < radioButtons; index++) {
+                    this.writeWidgetLine(level + 1, "Radio \"" + this.createString() + "\";");
+                }
+                this.writeWidgetLine(level, "End;");
+                break;
+        }
+    }
+
+    /**
+     * Writes the parameter widget line, first making it malformed should the error rate call for
+     * it by dropping its semicolon, misspelling its keyword, or replacing its semicolon.
+     *
+     * @param level <code>int</code> indentation level
+     * @param line <code>String</code> well formed widget line
+     * @return void
+     * @throws IOException if the file cannot be written
+     */
+    private void writeWidgetLine(int level, String line) throws IOException {
+        if (this.random.nextDouble() < this.errorRate) {
+            this.injectedErrors++;
+            switch (this.random.nextInt(3)) {
+                case 0:
+                    line = line.substring(0, line.length() - 1);
+                    break;
+                case 1:
+                    line = Character.toLowerCase(line.charAt(0)) + line.substring(1);
+                    break;
+                default:
+                    line = line.substring(0, line.length() - 1) + ",";
+                    break;
+            }
+        }
+        this.writeLine(level, line);
+    }
+
+    // Helper methods
+
+    /**
+     * Creates a layout, which is a grid layout (with or without gaps) as often as the grid ratio
+     * calls for, and a flow layout otherwise.
+     *
+     * @return <code>String</code>
+     */
+    private String createLayout() {
+        if (this.random.nextDouble() >= this.gridRatio) {
+            return "Layout Flow";
+        } else if (this.random.nextBoolean()) {
+            return "Layout Grid(" + (1 + this.random.nextInt(this.fanout)) + ", "
+                + (1 + this.random.nextInt(this.fanout)) + ")";
+        } else {
+            return "Layout Grid(" + (1 + this.random.nextInt(this.fanout)) + ", "
+                + (1 + this.random.nextInt(this.fanout)) + ", " + this.random.nextInt(10) + ", "
+                + this.random.nextInt(10) + ")";
+        }
+    }
+
+    /**
+     * Creates a string of random length made up mostly of ASCII letters, digits, and spaces, with
+     * the occasional non-ASCII character so that multi-byte UTF-8 sequences are exercised.
+     *
+     * @return <code>String</code>
+     */
+    private String createString() {
+
+        // Declarations
+        StringBuilder string;
+        int length;
+
+        length = 1 + this.random.nextInt(this.maxStringLength);
+        string = new StringBuilder(length);
+        for (int index = 0; index < length; index++) {
+            string.append((this.random.nextInt(50) == 0)
+                ? UNICODE_CHARACTERS.charAt(this.random.nextInt(UNICODE_CHARACTERS.length()))
+                : STRING_CHARACTERS.charAt(this.random.nextInt(STRING_CHARACTERS.length())));
+        }
+        return string.toString();
+    }
+
+    /**
+     * Writes the parameter line indented by two spaces per level, up to the maximum indentation.
+     * @param level <code>int</code> indentation level
+     * @param line <code>String</code>
+     * @return void
+     * @throws IOException if the file cannot be written
+     */
+    private void writeLine(int level, String line) throws IOException {
+
+        // Declaration
+        int indentation;
+
+        indentation = Math.min(level, MAX_INDENTATION);
+        for (int index = 0; index < indentation; index++) {
+            this.writer.write("  ");
+        }
+        this.writer.write(line);
+        this.writer.write('\n');
+        this.generatedSize += indentation * 2 + line.length() + 1;
+    }
+
+    /**
+     * Parses a size option such as <code>512</code>, <code>64k</code> or <code>10m</code>.
+     * @param size <code>String</code>
+     * @return <code>long</code> size in characters
+     */
+    private static long parseSize(String size) {
+
+        // Declaration
+        char suffix;
+
+        suffix = Character.toLowerCase(size.charAt(size.length() - 1));
+        if (suffix == 'k') {
+            return Long.parseLong(size.substring(0, size.length() - 1)) * 1024;
+        } else if (suffix == 'm') {
+            return Long.parseLong(size.substring(0, size.length() - 1)) * 1024 * 1024;
+        }
+        return Long.parseLong(size);
+    }
+
+    /**
+     * Opens a <code>Writer</code> for the parameter output path, compressing the output if the
+     * path ends in <code>.gz</code> and writing to standard output if the path is <code>-</code>.
+     *
+     * @param output <code>String</code>
+     * @return <code>Writer</code>
+     * @throws IOException if the file cannot be created
+     */
+    private static Writer openWriter(String output) throws IOException {
+
+        // Declaration
+        OutputStream outputStream;
+
+        outputStream = (output.equals("-")) ? System.out : new FileOutputStream(output);
+        if (output.endsWith(".gz")) {
+            outputStream = new GZIPOutputStream(outputStream, 65536);
+        }
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The main method parses the command line options and generates the requested number of
+     * files. A single file is written to the output path itself, while multiple files are written
+     * into the output path as a directory. Each file is generated from the seed plus the file's
+     * index, so any one file may be regenerated without generating those before it.
+     *
+     * @param args <code>String[]</code> command line arguments
+     * @return void
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Declarations
+        long seed, targetSize;
+        int maxDepth, fanout, maxStringLength, count, injectedErrors, index;
+        double gridRatio, errorRate;
+        String output, fileName;
+        Writer writer;
+
+        seed = 1;
+        targetSize = 4096;
+        maxDepth = 3;
+        fanout = 4;
+        gridRatio = 0.5;
+        maxStringLength = 16;
+        errorRate = 0;
+        count = 1;
+        output = null;
+
+        try {
+            for (index = 0; index < args.length; index++) {
+                switch (args[index]) {
+                    case "--seed":
+                        seed = Long.parseLong(args[++index]);
+                        break;
+                    case "--size":
+                        targetSize = parseSize(args[++index]);
+                        break;
+                    case "--depth":
+                        maxDepth = Integer.parseInt(args[++index]);
+                        break;
+                    case "--fanout":
+                        fanout = Integer.parseInt(args[++index]);
+                        break;
+                    case "--grid":
+                        gridRatio = Double.parseDouble(args[++index]);
+                        break;
+                    case "--string-length":
+                        maxStringLength = Integer.parseInt(args[++index]);
+                        break;
+                    case "--error-rate":
+                        errorRate = Double.parseDouble(args[++index]);
+                        break;
+                    case "--count":
+                        count = Integer.parseInt(args[++index]);
+                        break;
+                    default:
+                        output = args[index];
+                        break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+            output = null;
+        }
+
+        if (output == null) {
+            System.err.println("Usage: SpecGenerator [--seed n] [--size n[k|m]] [--depth n] "
+                + "[--fanout n] [--grid ratio]\n       [--string-length n] [--error-rate rate] "
+                + "[--count n] output_file_or_directory_or_-");
+            System.exit(2);
+        }
+
+        if (count > 1 && !output.equals("-")) {
+            new File(output).mkdirs();
+        }
+
+        injectedErrors = 0;
+        for (index = 0; index < count; index++) {
+            fileName = (count == 1 || output.equals("-"))
+                ? output
+                : new File(output, String.format("spec-%04d.txt", index + 1)).getPath();
+
+            writer = openWriter(fileName);
+            injectedErrors += new SpecGenerator(seed + index, targetSize, maxDepth, fanout,
+                gridRatio, maxStringLength, errorRate).generate(writer);
+            if (output.equals("-")) {
+                writer.flush();
+            } else {
+                writer.close();
+            }
+        }
+
+        System.err.println("Generated " + count + " file(s) with " + injectedErrors
+            + " injected error(s)");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+/**
+ * SpecInput.java - Opens file contents for lexing, decompressing gzip contents transparently
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * This utility class is used wherever file contents are opened for lexing, allowing files to be
+ * stored compressed with gzip (as <code>Calculator.txt.gz</code>, for example) and parsed without
+ * being decompressed beforehand. Compressed contents are detected by the two magic bytes beginning
+ * every gzip stream rather than by the file's extension, so that compressed contents arriving via
+ * standard input or a socket are handled as well. The magic bytes are peeked via a
+ * <code>PushbackInputStream</code>, and compressed contents are wrapped in a streaming
+ * <code>GZIPInputStream</code>, meaning the decompressed contents are never held in memory in full.
+ * <br />
+ * <br />
+ * Since decompression happens beneath the <code>ByteLexer</code>, line numbers in error messages
+ * are those of the decompressed contents, exactly as though the file had never been compressed.
+ * <br />
+ * <br />
+ * @see java.util.zip.GZIPInputStream
+ * @author Andrew Eissen
+ */
+final class SpecInput {
+
+    // Declaration
+    private static final int DECOMPRESSION_BUFFER_SIZE = 65536;
+
+    /**
+     * Private constructor, as the class is not meant to be instantiated
+     */
+    private SpecInput() {
+    }
+
+    /**
+     * Opens the parameter file for lexing, decompressing its contents if compressed.
+     * @param file <code>File</code>
+     * @return <code>InputStream</code> of uncompressed contents
+     * @throws IOException if the file cannot be opened or its gzip header is malformed
+     */
+    protected static InputStream open(File file) throws IOException {
+
+        // Declaration
+        InputStream fileInput;
+
+        fileInput = new FileInputStream(file);
+        try {
+            return open(fileInput);
+        } catch (IOException ex) {
+            fileInput.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * This method peeks at the first two bytes of the parameter stream, returning a stream of the
+     * decompressed contents should they match the gzip magic number and a stream of the contents as
+     * they are otherwise. Closing the returned stream closes the parameter stream.
+     *
+     * @param input <code>InputStream</code> of possibly compressed contents
+     * @return <code>InputStream</code> of uncompressed contents
+     * @throws IOException if the stream cannot be read or its gzip header is malformed
+     */
+    protected static InputStream open(InputStream input) throws IOException {
+
+        // Declarations
+        PushbackInputStream pushbackInput;
+        byte[] magic;
+        int length, count;
+
+        pushbackInput = new PushbackInputStream(input, 2);
+        magic = new byte[2];
+        length = 0;
+
+        while (length < magic.length
+                && (count = pushbackInput.read(magic, length, magic.length - length)) != -1) {
+            length += count;
+        }
+        pushbackInput.unread(magic, 0, length);
+
+        if (length == magic.length && ((magic[0] & 0xFF) | ((magic[1] & 0xFF) << 8))
+                == GZIPInputStream.GZIP_MAGIC) {
+            return new GZIPInputStream(pushbackInput, DECOMPRESSION_BUFFER_SIZE);
+        }
+        return pushbackInput;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+/**
+ * SpecParser.java - Stateless and thread-safe entry point for parsing files headlessly
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * This class is a facade over <code>RecursiveDescentParser</code> for services parsing files on
+ * behalf of others, such as the <code>ParseDaemon</code> and <code>LanguageServer</code>. The
+ * parser keeps the whole of its state in its own fields, from the token list and index to the
+ * element under construction and the first error found, so each instance may parse but once and
+ * on one thread. This class instead holds no state of its own, taking everything particular to a
+ * parse in a <code>ParseContext</code>, so that a single instance may serve any number of
+ * concurrent requests.
+ * <br />
+ * <br />
+ * Each call is carried out by a new parser, which is cheap to create, while the costly parts of a
+ * parse that can be reused are pooled. These are the <code>ByteLexer</code>, with its read buffer
+ * and the composite in which tokens are assembled, and the list of tokens, which would otherwise
+ * be grown from nothing by repeated copying on every parse. Neither is part of the
+ * <code>ParseResult</code>, so both are released for reuse as soon as the parse is complete, with
+ * the list being emptied and discarded outright if grown by an unusually large file. The same is
+ * done for parses stopped by the <code>CancellationToken</code> of their context, which return a
+ * cancelled result in place of a partly built widget tree.
+ * <br />
+ * <br />
+ * The pool is shared by all threads rather than kept per thread, as the services using this class
+ * may run each request on a virtual thread of its own, as <code>BatchRunner</code> does where
+ * supported, which would leave a per-thread pool holding buffers that are never reused. The pool
+ * keeps as many sets of buffers as there are cores, that being the most that can be in use at
+ * once by threads that are not blocked, while any further sets are simply left to be collected.
+ * <br />
+ * <br />
+ * @see ParseContext
+ * @author Andrew Eissen
+ */
+final class SpecParser {
+
+    /**
+     * A pooled lexer and token list, used by one parse at a time.
+     */
+    private static final class Buffers {
+
+        // Declarations
+        private ByteLexer lexer;
+        private ArrayList<Token> tokens;
+
+        /**
+         * Default constructor
+         */
+        private Buffers() {
+            this.lexer = new ByteLexer(null);
+            this.tokens = new ArrayList<>();
+        }
+    }
+
+    // Declarations
+    private static final int MAX_RETAINED_TOKENS = 1 << 16;
+    private static final ArrayBlockingQueue<Buffers> POOL =
+        new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Default constructor
+     */
+    protected SpecParser() {
+    }
+
+    // Parsing methods
+
+    /**
+     * This method parses the UTF-8 encoded contents of the parameter input, which is neither
+     * closed nor read beyond its end.
+     *
+     * @param inputContents <code>InputStream</code>
+     * @param context <code>ParseContext</code> of this parse alone
+     * @return <code>ParseResult</code>
+     * @throws IOException if the contents cannot be read
+     */
+    protected ParseResult parse(InputStream inputContents, ParseContext context)
+            throws IOException {
+
+        // Declarations
+        Buffers buffers;
+        RecursiveDescentParser parser;
+
+        buffers = acquireBuffers();
+        try {
+            parser = createParser(context);
+            parser.setBuffers(buffers.lexer, buffers.tokens);
+            return complete(parser, parser.parseInputStream(inputContents), context);
+        } finally {
+            releaseBuffers(buffers);
+        }
+    }
+
+    /**
+     * This method parses a list of tokens lexed elsewhere, as by the <code>LanguageServer</code>,
+     * which keeps the tokens of each open document. The list is neither copied nor modified.
+     *
+     * @param tokens <code>ArrayList</code> of <code>Token</code>s of a single window definition
+     * @param context <code>ParseContext</code> of this parse alone
+     * @return <code>ParseResult</code>
+     */
+    protected ParseResult parse(ArrayList<Token> tokens, ParseContext context) {
+
+        // Declaration
+        RecursiveDescentParser parser;
+
+        parser = createParser(context);
+        return complete(parser, parser.parseTokens(tokens), context);
+    }
+
+    // Helper methods
+
+    /**
+     * Creates the parser carrying out a single parse, configured by the parameter context.
+     * @param context <code>ParseContext</code>
+     * @return <code>RecursiveDescentParser</code>
+     */
+    private static RecursiveDescentParser createParser(ParseContext context) {
+
+        // Declaration
+        RecursiveDescentParser parser;
+
+        parser = new RecursiveDescentParser();
+        parser.setLog(context.getLog());
+        parser.setLimits(context.getLimits());
+        parser.setCancellationToken(context.getCancellationToken());
+        parser.setInterning(context.isInterning());
+        parser.setSourceFile(context.getSourceFile());
+        if (context.getSourceFile() != null) {
+            parser.getPhaseTimer().setFileName(context.getSourceFile().getPath());
+        }
+        return parser;
+    }
+
+    /**
+     * Records the details of the parse not found in its result in the context.
+     * @param parser <code>RecursiveDescentParser</code> having parsed
+     * @param result <code>ParseResult</code>
+     * @param context <code>ParseContext</code>
+     * @return <code>ParseResult</code> the parameter result
+     */
+    private static ParseResult complete(RecursiveDescentParser parser, ParseResult result,
+            ParseContext context) {
+        context.setHasIncludes(parser.hasIncludes());
+        return result;
+    }
+
+    /**
+     * Takes a set of buffers from the pool, or creates a new set if none are free.
+     * @return <code>Buffers</code>
+     */
+    private static Buffers acquireBuffers() {
+
+        // Declaration
+        Buffers buffers;
+
+        buffers = POOL.poll();
+        return (buffers != null) ? buffers : new Buffers();
+    }
+
+    /**
+     * Returns the parameter buffers to the pool unless it is full, first dropping the input and
+     * tokens of the last parse so that neither is kept alive by the pool.
+     *
+     * @param buffers <code>Buffers</code>
+     * @return void
+     */
+    private static void releaseBuffers(Buffers buffers) {
+        buffers.lexer.reset(null);
+        if (buffers.tokens.size() > MAX_RETAINED_TOKENS) {
+            buffers.tokens = new ArrayList<>();
+        } else {
+            buffers.tokens.clear();
+        }
+        POOL.offer(buffers);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,260 @@
+/**
+ * SwingRealizer.java - Converts a parsed widget tree into Swing components
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.awt.*;
+import javax.swing.*;
+import java.util.*;
+import java.lang.reflect.Constructor;
+
+/**
+ * This class is used to realize the <code>Widget</code> tree assembled by the
+ * <code>RecursiveDescentParser</code> into actual <tt>Swing</tt> components. This work was
+ * previously undertaken by the parser itself as each widget was encountered, but was moved here
+ * once the widget tree needed to be realized more than once (as when patching an open dialog after
+ * its file has changed). The reflection approach of the parser's original
+ * <code>RecursiveDescentParser.class.isWellFormedWidget</code> method has been retained for the
+ * creation of the simple widgets.
+ * <br />
+ * <br />
+ * @see javax.swing
+ * @author Andrew Eissen
+ */
+final class SwingRealizer {
+
+    /**
+     * This method creates a new <code>JDialog</code> from the parameter <code>Type.WINDOW</code>
+     * widget, setting its title and size and making use of the panel assembled by
+     * <code>SwingRealizer.class.realizeContents</code> as its content pane. The dialog is returned
+     * without being made visible.
+     *
+     * @param window <code>Widget</code> of <code>Type.WINDOW</code>
+     * @return <code>JDialog</code>
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    protected JDialog realizeWindow(Widget window) throws ReflectiveOperationException {
+
+        // Declaration
+        JDialog resultsDialog;
+
+        resultsDialog = new JDialog();
+        resultsDialog.setTitle(window.getText());
+        resultsDialog.setContentPane(this.realizeContents(window));
+        resultsDialog.setSize(window.getNumbers()[0], window.getNumbers()[1]);
+        return resultsDialog;
+    }
+
+    /**
+     * This method creates the <code>JPanel</code> holding the contents of the parameter
+     * <code>Type.WINDOW</code> widget, applying the window's layout and adding all of its child
+     * widgets. As no top-level window is created, this method may also be used in headless
+     * environments, as by the <code>SnapshotRenderer</code>.
+     *
+     * @param window <code>Widget</code> of <code>Type.WINDOW</code>
+     * @return <code>JPanel</code>
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    protected JPanel realizeContents(Widget window) throws ReflectiveOperationException {
+
+        // Declaration
+        JPanel contentPanel;
+
+        contentPanel = new JPanel();
+        this.applyLayout(contentPanel, window);
+
+        for (Widget child : window.getChildren()) {
+            this.addWidget(contentPanel, child, -1);
+        }
+        return contentPanel;
+    }
+
+    /**
+     * Sets the layout manager described by the parameter widget on the parameter container. Only
+     * <code>Type.FLOW</code> and <code>Type.GRID</code> layouts are permitted by the grammar, with
+     * the latter accepting either two or four numbers.
+     *
+     * @param container <code>Container</code>
+     * @param widget <code>Widget</code> window or panel with layout details
+     * @return void
+     */
+    protected void applyLayout(Container container, Widget widget) {
+
+        // Declaration
+        int[] layoutNumbers;
+
+        layoutNumbers = widget.getLayoutNumbers();
+        if (widget.getLayoutType() == Type.GRID) {
+            container.setLayout((layoutNumbers.length == 4)
+                ? new GridLayout(layoutNumbers[0], layoutNumbers[1], layoutNumbers[2],
+                    layoutNumbers[3])
+                : new GridLayout(layoutNumbers[0], layoutNumbers[1]));
+        } else {
+            container.setLayout(new FlowLayout());
+        }
+    }
+
+    /**
+     * This method realizes the parameter widget and adds the resultant component(s) to the parent
+     * container at the specified index, or at the end of the container if the index is
+     * <code>-1</code>. As radio button groups contribute one component per radio button, the
+     * number of components added is returned so that the caller can keep track of the index.
+     *
+     * @param parent <code>Container</code>
+     * @param widget <code>Widget</code>
+     * @param index <code>int</code> component index, or <code>-1</code> to append
+     * @return <code>int</code> number of components added
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    protected int addWidget(Container parent, Widget widget, int index)
+            throws ReflectiveOperationException {
+        return this.addWidget(parent, widget, index, 0);
+    }
+
+    /**
+     * Realizes the parameter widget as part of the parameter repetition, adding the resultant
+     * component(s) to the parent container at the specified index.
+     *
+     * @param parent <code>Container</code>
+     * @param widget <code>Widget</code>
+     * @param index <code>int</code> component index, or <code>-1</code> to append
+     * @param repetition <code>int</code> index of the innermost enclosing repetition, or
+     *     <code>0</code> if there is none
+     * @return <code>int</code> number of components added
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    private int addWidget(Container parent, Widget widget, int index, int repetition)
+            throws ReflectiveOperationException {
+
+        // Declarations
+        ArrayList<Component> components;
+        int offset;
+
+        components = this.createComponents(widget, repetition);
+        offset = 0;
+
+        for (Component component : components) {
+            parent.add(component, (index == -1) ? -1 : index + offset++);
+        }
+        return components.size();
+    }
+
+    /**
+     * This method creates the <tt>Swing</tt> component(s) corresponding to the parameter widget.
+     * Panels are realized recursively along with their children, groups produce one
+     * <code>JRadioButton</code> per child sharing a common <code>ButtonGroup</code>, and the
+     * remaining widgets are created via <code>SwingRealizer.class.createSimpleComponent</code>.
+     * <br />
+     * <br />
+     * Repetitions are expanded here rather than by the parser, producing the components of their
+     * widgets once per repetition, with each repetition's index passed down so that the text of
+     * the widgets within may include it. No widgets are created in doing so, meaning a repetition
+     * costs only its components, however large its count.
+     *
+     * @param widget <code>Widget</code>
+     * @param repetition <code>int</code> index of the innermost enclosing repetition, or
+     *     <code>0</code> if there is none
+     * @return <code>ArrayList</code> of <code>Component</code>s
+     * @throws ReflectiveOperationException if a widget's <tt>Swing</tt> class cannot be created
+     */
+    protected ArrayList<Component> createComponents(Widget widget, int repetition)
+            throws ReflectiveOperationException {
+
+        // Declarations
+        ArrayList<Component> components;
+        ButtonGroup radioGroup;
+        JPanel newPanel;
+        Component radioButton;
+
+        components = new ArrayList<>();
+
+        switch (widget.getType()) {
+            case PANEL:
+                newPanel = new JPanel();
+                this.applyLayout(newPanel, widget);
+                for (Widget child : widget.getChildren()) {
+                    this.addWidget(newPanel, child, -1, repetition);
+                }
+                components.add(newPanel);
+                break;
+            case GROUP:
+                radioGroup = new ButtonGroup();
+                for (Widget child : widget.getChildren()) {
+                    radioButton = this.createSimpleComponent(child, repetition);
+                    radioGroup.add((JRadioButton) radioButton);
+                    components.add(radioButton);
+                }
+                break;
+            case REPEAT:
+                components.ensureCapacity(widget.getComponentCount());
+                for (int index = 1; index <= widget.getNumbers()[0]; index++) {
+                    for (Widget child : widget.getChildren()) {
+                        components.addAll(this.createComponents(child, index));
+                    }
+                }
+                break;
+            default:
+                components.add(this.createSimpleComponent(widget, repetition));
+                break;
+        }
+
+        return components;
+    }
+
+    /**
+     * This method uses reflection to create the <code>JButton</code>, <code>JLabel</code>,
+     * <code>JTextField</code>, or <code>JRadioButton</code> corresponding to the parameter widget,
+     * passing either the widget's text or its column count to the relevant constructor. Within a
+     * repetition, the index placeholder of the text is replaced by the repetition's index.
+     *
+     * @see java.lang.reflect
+     * @param widget <code>Widget</code>
+     * @param repetition <code>int</code> index of the innermost enclosing repetition, or
+     *     <code>0</code> if there is none
+     * @return <code>Component</code>
+     * @throws ReflectiveOperationException if the widget's <tt>Swing</tt> class cannot be created
+     */
+    protected Component createSimpleComponent(Widget widget, int repetition)
+            throws ReflectiveOperationException {
+
+        // Declarations
+        Constructor<?> constructor;
+        Class<?> swingClass, expectedParameterClass;
+        Object param;
+
+        // Set parameter likely to appear in Swing class's constructor
+        expectedParameterClass = (widget.getType() == Type.TEXTFIELD) ? Integer.TYPE : String.class;
+        param = (widget.getType() == Type.TEXTFIELD)
+            ? (Object) widget.getNumbers()[0]
+            : Widget.substituteIndex(widget.getText(), repetition);
+
+        // Grabs Swing class, gets proper constructor, creates new instance, passes param
+        swingClass = Class.forName("javax.swing." + this.getClassName(widget.getType()));
+        constructor = swingClass.getConstructor(expectedParameterClass);
+        return (Component) constructor.newInstance(param);
+    }
+
+    /**
+     * Returns the name of the <tt>Swing</tt> class used to realize widgets of the parameter
+     * <code>Type</code>.
+     *
+     * @param type <code>Type</code>
+     * @return <code>String</code> class name
+     */
+    protected String getClassName(Type type) {
+        switch (type) {
+            case BUTTON:
+                return "JButton";
+            case LABEL:
+                return "JLabel";
+            case TEXTFIELD:
+                return "JTextField";
+            case RADIO:
+                return "JRadioButton";
+            default:
+                return "JPanel";
+        }
+    }
+}
\ No newline at end of file
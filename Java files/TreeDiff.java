@@ -0,0 +1,351 @@
+/**
+ * TreeDiff.java - Compares widget trees and finds repeated subtrees by structural hash
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * This class answers two questions about parsed files via the structural hashes kept by each
+ * <code>Widget</code>: which subtrees differ between two versions of a file, and which subtrees
+ * are repeated within a single file. Neither requires comparing the text of the files.
+ * <br />
+ * <br />
+ * Comparison begins at the roots and descends only into subtrees whose hashes differ, aligning
+ * children by skipping runs of equal hashes at either end of each list as
+ * <code>HotReloader</code> does. Before a pair of subtrees of equal hashes is passed over, their
+ * roots are confirmed to have the same attributes, layout, and number of children, so that a
+ * collision of hashes cannot hide a change to either. Unchanged subtrees are thus passed over in
+ * constant time, so once hashes are computed the work done is proportional to the number of
+ * changed widgets and their siblings rather than to the size of the trees. Each change pairs the
+ * old and new widget of the smallest subtree containing a difference, either being
+ * <code>null</code> where a widget was added or removed.
+ * <br />
+ * <br />
+ * Repeated subtrees are those of a panel, group, or other widget with children appearing more
+ * than once, such as a block of buttons pasted into several panels. These are candidates for a
+ * <code>Define</code> template. Widgets shared through an existing <code>Use</code>,
+ * <code>Repeat</code>, or <code>Include</code> are counted once, as they are already written once.
+ * Only the outermost of nested repeats is reported. Usage of the command line modes, invoked via
+ * <code>Application.class.main</code>, is as follows:
+ * <pre>
+ * java Application --diff old_file new_file
+ * java Application --duplicates file
+ * </pre>
+ * <br />
+ * @see Widget#getStructuralHash
+ * @author Andrew Eissen
+ */
+final class TreeDiff {
+
+    /**
+     * A single differing subtree, given as the widgets at its root in the old and new trees.
+     */
+    protected static final class Change {
+
+        // Declarations
+        private Widget oldWidget, newWidget;
+
+        /**
+         * Parameterized constructor
+         * @param oldWidget <code>Widget</code>, or <code>null</code> if added
+         * @param newWidget <code>Widget</code>, or <code>null</code> if removed
+         */
+        private Change(Widget oldWidget, Widget newWidget) {
+            this.oldWidget = oldWidget;
+            this.newWidget = newWidget;
+        }
+
+        /**
+         * Getter for <code>oldWidget</code>
+         * @return oldWidget
+         */
+        protected Widget getOldWidget() {
+            return this.oldWidget;
+        }
+
+        /**
+         * Getter for <code>newWidget</code>
+         * @return newWidget
+         */
+        protected Widget getNewWidget() {
+            return this.newWidget;
+        }
+
+        @Override
+        public String toString() {
+            if (this.oldWidget == null) {
+                return "+ " + describe(this.newWidget);
+            } else if (this.newWidget == null) {
+                return "- " + describe(this.oldWidget);
+            }
+            return "~ " + describe(this.oldWidget) + " -> " + describe(this.newWidget);
+        }
+    }
+
+    /**
+     * Private constructor, as the class is not meant to be instantiated
+     */
+    private TreeDiff() {
+    }
+
+    // Comparison methods
+
+    /**
+     * This method returns the differing subtrees of the parameter trees in document order, which
+     * is empty if the two are equivalent.
+     *
+     * @param oldRoot <code>Widget</code>
+     * @param newRoot <code>Widget</code>
+     * @return <code>ArrayList</code> of <code>Change</code>s
+     */
+    protected static ArrayList<Change> compare(Widget oldRoot, Widget newRoot) {
+
+        // Declaration
+        ArrayList<Change> changes;
+
+        changes = new ArrayList<>();
+        compare(oldRoot, newRoot, changes);
+        return changes;
+    }
+
+    /**
+     * Compares a single pair of widgets. If their own attributes or layouts differ, the pair is
+     * itself a change; otherwise, only their children can differ, and these are compared instead.
+     *
+     * @param oldWidget <code>Widget</code>
+     * @param newWidget <code>Widget</code>
+     * @param changes <code>ArrayList</code> to which changes are added
+     * @return void
+     */
+    private static void compare(Widget oldWidget, Widget newWidget, ArrayList<Change> changes) {
+        if (isUnchanged(oldWidget, newWidget)) {
+            return;
+        } else if (!oldWidget.hasSameAttributes(newWidget) || !oldWidget.hasSameLayout(newWidget)) {
+            changes.add(new Change(oldWidget, newWidget));
+            return;
+        }
+        compareChildren(oldWidget.getChildren(), newWidget.getChildren(), changes);
+    }
+
+    /**
+     * This method compares two lists of children, skipping those at either end whose hashes
+     * match, comparing the remainder pairwise, and reporting any excess as added or removed.
+     *
+     * @param oldChildren <code>ArrayList</code> of <code>Widget</code>s
+     * @param newChildren <code>ArrayList</code> of <code>Widget</code>s
+     * @param changes <code>ArrayList</code> to which changes are added
+     * @return void
+     */
+    private static void compareChildren(ArrayList<Widget> oldChildren,
+            ArrayList<Widget> newChildren, ArrayList<Change> changes) {
+
+        // Declarations
+        int start, oldEnd, newEnd;
+
+        start = 0;
+        oldEnd = oldChildren.size();
+        newEnd = newChildren.size();
+
+        // Skip identical leading and trailing widgets
+        while (start < oldEnd && start < newEnd
+                && isUnchanged(oldChildren.get(start), newChildren.get(start))) {
+            start++;
+        }
+        while (oldEnd > start && newEnd > start
+                && isUnchanged(oldChildren.get(oldEnd - 1), newChildren.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+        }
+
+        for (; start < oldEnd && start < newEnd; start++) {
+            compare(oldChildren.get(start), newChildren.get(start), changes);
+        }
+        for (int index = start; index < oldEnd; index++) {
+            changes.add(new Change(oldChildren.get(index), null));
+        }
+        for (int index = start; index < newEnd; index++) {
+            changes.add(new Change(null, newChildren.get(index)));
+        }
+    }
+
+    /**
+     * Determines whether the parameter subtrees may be passed over as unchanged, that being when
+     * their hashes match and their roots are confirmed to match as well.
+     *
+     * @param oldWidget <code>Widget</code>
+     * @param newWidget <code>Widget</code>
+     * @return <code>boolean</code>
+     */
+    private static boolean isUnchanged(Widget oldWidget, Widget newWidget) {
+        return oldWidget.getStructuralHash() == newWidget.getStructuralHash()
+            && oldWidget.hasSameAttributes(newWidget) && oldWidget.hasSameLayout(newWidget)
+            && oldWidget.getChildren().size() == newWidget.getChildren().size();
+    }
+
+    // Duplicate detection methods
+
+    /**
+     * This method returns the groups of equivalent subtrees occurring more than once within the
+     * parameter tree, each group in document order and the groups in order of first occurrence.
+     *
+     * @param root <code>Widget</code>
+     * @return <code>ArrayList</code> of groups of <code>Widget</code>s
+     */
+    protected static ArrayList<ArrayList<Widget>> findDuplicates(Widget root) {
+
+        // Declarations
+        LinkedHashMap<Long, ArrayList<Widget>> occurrences;
+        ArrayList<ArrayList<Widget>> duplicates;
+
+        occurrences = new LinkedHashMap<>();
+        collectOccurrences(root, occurrences,
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        duplicates = new ArrayList<>();
+        for (ArrayList<Widget> group : occurrences.values()) {
+            if (group.size() > 1) {
+                duplicates.add(group);
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Records each child of the parameter widget that has children of its own by structural hash,
+     * descending only into those not already seen. A subtree equivalent to one seen before is
+     * added to the latter's group without descending, so that its own subtrees, being repeats of
+     * those already recorded, are not reported separately.
+     *
+     * @param widget <code>Widget</code>
+     * @param occurrences <code>LinkedHashMap</code> of hashes to equivalent subtrees
+     * @param visited <code>Set</code> of widget instances already recorded
+     * @return void
+     */
+    private static void collectOccurrences(Widget widget,
+            LinkedHashMap<Long, ArrayList<Widget>> occurrences, Set<Widget> visited) {
+
+        // Declaration
+        ArrayList<Widget> group;
+
+        for (Widget child : widget.getChildren()) {
+            if (child.getChildren().isEmpty() || !visited.add(child)) {
+                continue;
+            }
+
+            group = occurrences.computeIfAbsent(child.getStructuralHash(),
+                (Long hash) -> new ArrayList<>());
+            if (group.isEmpty()) {
+                group.add(child);
+            } else if (group.get(0).isEquivalentTo(child)) {
+                group.add(child);
+                continue;
+            }
+            collectOccurrences(child, occurrences, visited);
+        }
+    }
+
+    // Command line methods
+
+    /**
+     * This method prints the changes between two files, returning <code>0</code> if the files are
+     * equivalent and <code>1</code> otherwise, in the manner of <tt>diff</tt>.
+     *
+     * @param oldFileName <code>String</code>
+     * @param newFileName <code>String</code>
+     * @return <code>int</code> exit status, <code>2</code> if either file is malformed
+     * @throws IOException if either file cannot be read
+     */
+    protected static int runDiff(String oldFileName, String newFileName) throws IOException {
+
+        // Declarations
+        Widget oldRoot, newRoot;
+        ArrayList<Change> changes;
+
+        oldRoot = parseFile(new File(oldFileName));
+        newRoot = parseFile(new File(newFileName));
+        if (oldRoot == null || newRoot == null) {
+            return 2;
+        }
+
+        changes = compare(oldRoot, newRoot);
+        for (Change change : changes) {
+            System.out.println(change);
+        }
+        System.out.println(changes.size() + " changed subtree(s)");
+        return changes.isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * This method prints the repeated subtrees of a file, each group on a line of its own.
+     *
+     * @param fileName <code>String</code>
+     * @return <code>int</code> exit status, <code>2</code> if the file is malformed
+     * @throws IOException if the file cannot be read
+     */
+    protected static int runDuplicates(String fileName) throws IOException {
+
+        // Declarations
+        Widget root;
+        ArrayList<ArrayList<Widget>> duplicates;
+        StringBuilder lines;
+
+        root = parseFile(new File(fileName));
+        if (root == null) {
+            return 2;
+        }
+
+        duplicates = findDuplicates(root);
+        for (ArrayList<Widget> group : duplicates) {
+            lines = new StringBuilder();
+            for (Widget widget : group) {
+                lines.append((lines.length() == 0) ? "" : ", ").append(widget.getLineNumber());
+            }
+            System.out.printf("%s (%d widgets) x%d at lines %s%n",
+                group.get(0).getType(), group.get(0).getDescendantCount() + 1, group.size(),
+                lines);
+        }
+        System.out.println(duplicates.size() + " repeated subtree(s)");
+        return 0;
+    }
+
+    // Helper methods
+
+    /**
+     * Returns a short description of the parameter widget for printing.
+     * @param widget <code>Widget</code>
+     * @return <code>String</code>
+     */
+    private static String describe(Widget widget) {
+        return widget.getType()
+            + ((widget.getText() != null) ? " \"" + widget.getText() + "\"" : "")
+            + " (line " + widget.getLineNumber() + ")";
+    }
+
+    /**
+     * Parses the parameter file, printing its error and returning <code>null</code> if malformed.
+     * @param file <code>File</code>
+     * @return <code>Widget</code>
+     * @throws IOException if the file cannot be read
+     */
+    private static Widget parseFile(File file) throws IOException {
+
+        // Declarations
+        RecursiveDescentParser parser;
+        ParseResult result;
+
+        parser = new RecursiveDescentParser();
+        parser.setSourceFile(file);
+        try (InputStream inputContents = SpecInput.open(file)) {
+            result = parser.parseInputStream(inputContents);
+        }
+
+        if (!result.isSuccessful()) {
+            System.err.println(file.getName() + ": " + result.getErrorMessage());
+        }
+        return result.getWindowWidget();
+    }
+}
\ No newline at end of file
@@ -20,11 +20,13 @@ enum Type {
     BUTTON,         // JButton
     COLON,          // Ends Layouts
     COMMA,          // Used between dimensions (numbers)
+    DEFINE,         // Reusable template of widgets
     END,            // Used to denote end of widgets, GUI
     EOF,            // End of File
     FLOW,           // FlowLayout
     GRID,           // GridLayout
     GROUP,          // Radio buttons grouping
+    INCLUDE,        // Widgets of another file
     LABEL,          // JLabel
     LAYOUT,         // Keyword used to begin layout
     LPAREN,         // Open parenthesis
@@ -32,11 +34,13 @@ enum Type {
     PANEL,          // JPanel subdivision
     PERIOD,         // Used to end file
     RADIO,          // Radio button
+    REPEAT,         // Widgets realized a number of times
     RPAREN,         // Close parenthesis
     SEMICOLON,      // Used to end lines
     STRING,         // Usually a title; placed between quotes
     TEXTFIELD,      // JTextField
     UNKNOWN,        // None of the options offered
+    USE,            // Instance of a defined template
     WIDGET,         // Catchall term for widgets (for error messages)
     WINDOW          // Beginning keyword
 }
\ No newline at end of file
@@ -0,0 +1,468 @@
+/**
+ * Widget.java - Class for nodes of the parsed widget tree
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * This class is used to represent a single node of the widget tree assembled by the parser from the
+ * <code>Token</code>s of the user-selected file. Previously, the parser created <tt>Swing</tt>
+ * components directly as each widget was encountered, which meant that the only record of a parsed
+ * file was the resultant <code>JDialog</code> itself. Keeping a plain tree of <code>Widget</code>s
+ * instead allows the parsed file to be compared against a newer version of itself and realized into
+ * <tt>Swing</tt> components separately by the <code>SwingRealizer</code> class.
+ * <br />
+ * <br />
+ * Each node makes use of the same <code>Type</code> values as the tokens from which it was built,
+ * namely <code>Type.WINDOW</code>, <code>Type.PANEL</code>, <code>Type.GROUP</code>,
+ * <code>Type.BUTTON</code>, <code>Type.LABEL</code>, <code>Type.TEXTFIELD</code>, and
+ * <code>Type.RADIO</code>. Windows store their dimensions and textfields their column count in the
+ * <code>numbers</code> array, while windows and panels also store their layout manager details.
+ * Widgets are <code>Serializable</code> so that parsed trees may be persisted by the
+ * <code>ParseCache</code>.
+ * <br />
+ * <br />
+ * Each widget also has a structural hash covering its subtree, computed bottom-up on first use and
+ * kept thereafter, as the tree is never modified once parsed. Two subtrees with different hashes
+ * certainly differ, which lets <code>TreeDiff</code> pass over unchanged subtrees in constant
+ * time.
+ * <br />
+ * <br />
+ * @author Andrew Eissen
+ */
+final class Widget implements Serializable {
+
+    // Declarations
+    private static final long serialVersionUID = 1L;
+    private static final int[] NO_NUMBERS = new int[0]; // Shared, as empty arrays are immutable
+    protected static final String INDEX_PLACEHOLDER = "{i}";
+    private Type type;
+    private String text;
+    private int[] numbers;
+    private Type layoutType;
+    private int[] layoutNumbers;
+    private ArrayList<Widget> children;
+    private int lineNumber;
+    private transient volatile long structuralHash; // Zero until computed
+
+    /**
+     * Parameterized constructor
+     * @param type <code>Type</code>
+     * @param text <code>String</code>, or <code>null</code> if the widget has no text
+     * @param lineNumber <code>int</code>
+     */
+    protected Widget(Type type, String text, int lineNumber) {
+        this.setType(type);
+        this.setText(text);
+        this.setNumbers(NO_NUMBERS);
+        this.setLayout(null, NO_NUMBERS);
+        this.setChildren(new ArrayList<>());
+        this.setLineNumber(lineNumber);
+    }
+
+    // Setters
+
+    /**
+     * Setter for <code>type</code>
+     * @param type <code>Type</code>
+     * @return void
+     */
+    private void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Setter for <code>text</code>
+     * @param text <code>String</code>
+     * @return void
+     */
+    private void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Setter for <code>children</code>
+     * @param children <code>ArrayList</code>
+     * @return void
+     */
+    private void setChildren(ArrayList<Widget> children) {
+        this.children = children;
+    }
+
+    /**
+     * Setter for <code>lineNumber</code>
+     * @param lineNumber <code>int</code>
+     * @return void
+     */
+    private void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    // Setters for cross-class usage
+
+    /**
+     * Setter for <code>numbers</code>, window dimensions or textfield columns
+     * @param numbers <code>int...</code>
+     * @return void
+     */
+    protected void setNumbers(int... numbers) {
+        this.numbers = numbers;
+    }
+
+    /**
+     * Setter for <code>layoutType</code> and <code>layoutNumbers</code>
+     * @param layoutType <code>Type</code>, either <code>Type.FLOW</code> or <code>Type.GRID</code>
+     * @param layoutNumbers <code>int...</code> rows, cols and optional hgap, vgap
+     * @return void
+     */
+    protected void setLayout(Type layoutType, int... layoutNumbers) {
+        this.layoutType = layoutType;
+        this.layoutNumbers = layoutNumbers;
+    }
+
+    // Getters
+
+    /**
+     * Getter for <code>type</code>
+     * @return type
+     */
+    protected Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Getter for <code>text</code>
+     * @return text
+     */
+    protected String getText() {
+        return this.text;
+    }
+
+    /**
+     * Getter for <code>numbers</code>
+     * @return numbers
+     */
+    protected int[] getNumbers() {
+        return this.numbers;
+    }
+
+    /**
+     * Getter for <code>layoutType</code>
+     * @return layoutType
+     */
+    protected Type getLayoutType() {
+        return this.layoutType;
+    }
+
+    /**
+     * Getter for <code>layoutNumbers</code>
+     * @return layoutNumbers
+     */
+    protected int[] getLayoutNumbers() {
+        return this.layoutNumbers;
+    }
+
+    /**
+     * Getter for <code>children</code>
+     * @return children
+     */
+    protected ArrayList<Widget> getChildren() {
+        return this.children;
+    }
+
+    /**
+     * Getter for <code>lineNumber</code>
+     * @return lineNumber
+     */
+    protected int getLineNumber() {
+        return this.lineNumber;
+    }
+
+    // Helper methods
+
+    /**
+     * Adds a child node to the end of this widget's <code>children</code> listing.
+     * @param child <code>Widget</code>
+     * @return void
+     */
+    protected void addChild(Widget child) {
+        this.getChildren().add(child);
+    }
+
+    /**
+     * This method returns the number of <tt>Swing</tt> components this widget contributes to its
+     * parent container once realized. As radio button groups are not given a panel of their own,
+     * their <code>JRadioButton</code>s are added directly to the enclosing container, meaning a
+     * group contributes one component per radio button rather than a single component. The same
+     * is true of repetitions, which contribute the components of their widgets once per
+     * repetition.
+     *
+     * @return <code>int</code>
+     */
+    protected int getComponentCount() {
+
+        // Declaration
+        int count;
+
+        switch (this.getType()) {
+            case GROUP:
+                return this.getChildren().size();
+            case REPEAT:
+                count = 0;
+                for (int index = 0; index < this.getChildren().size(); index++) {
+                    count += this.getChildren().get(index).getComponentCount();
+                }
+                return count * this.getNumbers()[0];
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * This method returns this widget's children with every <code>Type.REPEAT</code> widget
+     * replaced by its repeated widgets, each repetition given its index, for use where a plain
+     * tree is easier to work with than a lazily expanded one. The <code>SwingRealizer</code>
+     * instead expands repetitions as it goes, without creating any widgets.
+     *
+     * @return <code>ArrayList</code> of <code>Widget</code>s
+     */
+    protected ArrayList<Widget> getExpandedChildren() {
+
+        // Declaration
+        ArrayList<Widget> expandedChildren;
+
+        expandedChildren = new ArrayList<>();
+        for (Widget child : this.getChildren()) {
+            if (child.getType() != Type.REPEAT) {
+                expandedChildren.add(child);
+                continue;
+            }
+
+            for (int repetition = 1; repetition <= child.getNumbers()[0]; repetition++) {
+                for (Widget repeatedChild : child.getExpandedChildren()) {
+                    expandedChildren.add(repeatedChild.createInstance(repetition));
+                }
+            }
+        }
+        return expandedChildren;
+    }
+
+    /**
+     * Returns a copy of the subtree rooted at this widget for the parameter repetition, with the
+     * index placeholder of every text replaced by the index. As the widgets of nested repetitions
+     * take the index of their own repetition, these are expanded before being copied.
+     *
+     * @param repetition <code>int</code> index of the repetition, from one
+     * @return <code>Widget</code>
+     */
+    private Widget createInstance(int repetition) {
+
+        // Declaration
+        Widget instance;
+
+        instance = new Widget(this.getType(), substituteIndex(this.getText(), repetition),
+            this.getLineNumber());
+        instance.setNumbers(this.getNumbers());
+        instance.setLayout(this.getLayoutType(), this.getLayoutNumbers());
+        for (Widget child : this.getExpandedChildren()) {
+            instance.addChild(child.createInstance(repetition));
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a copy of this widget alone with the parameter children in place of its own, used by
+     * the <code>WidgetInterner</code> to share subtrees without modifying the tree being interned.
+     *
+     * @param children <code>ArrayList</code> of <code>Widget</code>s
+     * @return <code>Widget</code>
+     */
+    protected Widget withChildren(ArrayList<Widget> children) {
+
+        // Declaration
+        Widget copy;
+
+        copy = new Widget(this.getType(), this.getText(), this.getLineNumber());
+        copy.setNumbers(this.getNumbers());
+        copy.setLayout(this.getLayoutType(), this.getLayoutNumbers());
+        copy.setChildren(children);
+        return copy;
+    }
+
+    /**
+     * Returns the parameter text with each index placeholder replaced by the parameter index, or
+     * the text itself if it has no placeholder or is not within a repetition.
+     *
+     * @param text <code>String</code>, or <code>null</code>
+     * @param repetition <code>int</code> index of the repetition, from one, or <code>0</code> if
+     *     there is none
+     * @return <code>String</code>
+     */
+    protected static String substituteIndex(String text, int repetition) {
+        return (repetition > 0 && text != null && text.contains(INDEX_PLACEHOLDER))
+            ? text.replace(INDEX_PLACEHOLDER, Integer.toString(repetition))
+            : text;
+    }
+
+    /**
+     * Returns the number of widgets in the subtree rooted at this widget, not counting this widget
+     * itself. Radio buttons are counted individually, as is the group containing them.
+     *
+     * @return <code>int</code>
+     */
+    protected int getDescendantCount() {
+
+        // Declaration
+        int count;
+
+        count = 0;
+        for (int index = 0; index < this.getChildren().size(); index++) {
+            count += 1 + this.getChildren().get(index).getDescendantCount();
+        }
+        return count;
+    }
+
+    /**
+     * This method returns the structural hash of the subtree rooted at this widget, which covers
+     * its type, text, numbers, layout, and the hashes of its children in order, but not its line
+     * number. Equivalent subtrees therefore share a hash wherever they appear, in one file or
+     * another, while differing subtrees almost never do. The hash is computed once, after which
+     * it is returned in constant time. As every thread computes the same value, no lock is needed.
+     *
+     * @return <code>long</code>
+     */
+    protected long getStructuralHash() {
+
+        // Declaration
+        long hash;
+
+        hash = this.structuralHash;
+        if (hash != 0) {
+            return hash;
+        }
+
+        hash = mix(hashString(this.getType().name()), hashString(this.getText()));
+        hash = mix(hash, hashNumbers(this.getNumbers()));
+        hash = mix(hash, (this.getLayoutType() != null)
+            ? hashString(this.getLayoutType().name())
+            : 0);
+        hash = mix(hash, hashNumbers(this.getLayoutNumbers()));
+        hash = mix(hash, this.getChildren().size());
+        for (int index = 0; index < this.getChildren().size(); index++) {
+            hash = mix(hash, this.getChildren().get(index).getStructuralHash());
+        }
+
+        this.structuralHash = (hash != 0) ? hash : 1;
+        return this.structuralHash;
+    }
+
+    /**
+     * Combines the parameter value into a running hash, such that the order of values matters.
+     * @param hash <code>long</code>
+     * @param value <code>long</code>
+     * @return <code>long</code>
+     */
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**
+     * Returns a 64-bit hash of the parameter text, distinguishing <code>null</code> from empty.
+     * Each character is mixed in turn, rather than merely multiplied by 31 as by
+     * <code>String.hashCode</code>, under which short texts such as <code>"Aa"</code> and
+     * <code>"BB"</code> collide.
+     *
+     * @param text <code>String</code>, or <code>null</code>
+     * @return <code>long</code>
+     */
+    private static long hashString(String text) {
+
+        // Declaration
+        long hash;
+
+        if (text == null) {
+            return -1;
+        }
+
+        hash = text.length();
+        for (int index = 0; index < text.length(); index++) {
+            hash = mix(hash, text.charAt(index));
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a 64-bit hash of the parameter numbers, including their count.
+     * @param numbers <code>int[]</code>
+     * @return <code>long</code>
+     */
+    private static long hashNumbers(int[] numbers) {
+
+        // Declaration
+        long hash;
+
+        hash = numbers.length;
+        for (int index = 0; index < numbers.length; index++) {
+            hash = mix(hash, numbers[index]);
+        }
+        return hash;
+    }
+
+    /**
+     * Determines whether this widget's own attributes (its type, text, and numbers) match those of
+     * the parameter widget. Layouts and children are not compared, as these are handled separately
+     * when diffing two trees.
+     *
+     * @param other <code>Widget</code>
+     * @return <code>boolean</code>
+     */
+    protected boolean hasSameAttributes(Widget other) {
+        return this.getType() == other.getType()
+            && Objects.equals(this.getText(), other.getText())
+            && Arrays.equals(this.getNumbers(), other.getNumbers());
+    }
+
+    /**
+     * Determines whether this widget's layout manager details match those of the parameter widget.
+     * @param other <code>Widget</code>
+     * @return <code>boolean</code>
+     */
+    protected boolean hasSameLayout(Widget other) {
+        return this.getLayoutType() == other.getLayoutType()
+            && Arrays.equals(this.getLayoutNumbers(), other.getLayoutNumbers());
+    }
+
+    /**
+     * Determines whether the subtree rooted at this widget is identical to that rooted at the
+     * parameter widget, comparing attributes, layouts, and all children recursively. Subtrees of
+     * differing structural hashes are known to differ without being compared.
+     *
+     * @param other <code>Widget</code>
+     * @return <code>boolean</code>
+     */
+    protected boolean isEquivalentTo(Widget other) {
+
+        // Declaration
+        int index;
+
+        if (this == other) {
+            return true;
+        } else if (this.getStructuralHash() != other.getStructuralHash()
+                || !this.hasSameAttributes(other) || !this.hasSameLayout(other)
+                || this.getChildren().size() != other.getChildren().size()) {
+            return false;
+        }
+
+        for (index = 0; index < this.getChildren().size(); index++) {
+            if (!this.getChildren().get(index).isEquivalentTo(other.getChildren().get(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
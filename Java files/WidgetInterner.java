@@ -0,0 +1,223 @@
+/**
+ * WidgetInterner.java - Shares a single instance of each distinct subtree of a widget tree
+ * Begun 10/19/26
+ * @author Andrew Eissen
+ */
+//package recursivedescentparser;
+
+import java.io.*;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.*;
+
+/**
+ * This class implements hash-consing of parsed widget trees, enabled for every parser by setting
+ * the <code>rdp.internWidgets</code> system property to <code>true</code>. Generated and
+ * hand-copied files often contain many identical panels, each of which the parser builds as a
+ * separate subtree. Once interned, every set of equivalent subtrees is replaced by the first of
+ * them, so the tree keeps a single shared instance of each and those copies may be collected.
+ * <br />
+ * <br />
+ * Subtrees are interned bottom-up, the shared instances of each widget's children being found
+ * before the widget itself is looked up by its structural hash, such that equivalent widgets are
+ * found to be so by comparing their children by identity. No widget is ever modified in the
+ * process. A widget whose children all turn out to be shared instances already is itself a
+ * candidate for sharing, while any other is copied with the shared instances in place of its
+ * children, so that the widgets of included files, which the <code>ModuleCache</code> shares with
+ * every tree including them and which may be realized on other threads, are never changed beneath
+ * them. Sharing is safe for the same reason as with <code>Use</code>, namely that the tree is
+ * never modified once parsed, and distinct <tt>Swing</tt> components are still created for each
+ * occurrence upon realization. A shared widget keeps the line number of its first occurrence.
+ * <br />
+ * <br />
+ * The savings of a file may be shown via <code>java Application --heap file</code>, which reports
+ * the number of widget instances and the heap retained by the tree before and after interning.
+ * <br />
+ * <br />
+ * @see Widget#getStructuralHash
+ * @author Andrew Eissen
+ */
+final class WidgetInterner {
+
+    // Declarations
+    private HashMap<Long, ArrayList<Widget>> sharedWidgets;
+    private IdentityHashMap<Widget, Widget> internedWidgets;
+
+    /**
+     * Default constructor
+     */
+    protected WidgetInterner() {
+        this.sharedWidgets = new HashMap<>();
+        this.internedWidgets = new IdentityHashMap<>();
+    }
+
+    // Interning methods
+
+    /**
+     * This method interns the subtree rooted at the parameter widget, returning the shared
+     * instance equivalent to the widget, whose children are in turn the shared instances of their
+     * subtrees. The parameter subtree itself is left unchanged, with any widget whose children are
+     * replaced copied rather than modified.
+     *
+     * @param widget <code>Widget</code>
+     * @return <code>Widget</code> shared instance equivalent to the parameter widget
+     */
+    protected Widget intern(Widget widget) {
+
+        // Declarations
+        ArrayList<Widget> children, internedChildren, candidates;
+        Widget shared, internedChild, interned;
+
+        shared = this.internedWidgets.get(widget);
+        if (shared != null) {
+            return shared; // Already shared within the tree, as by a Use
+        }
+
+        // Copy the children only once one of them is found to have been replaced
+        children = widget.getChildren();
+        internedChildren = null;
+        for (int index = 0; index < children.size(); index++) {
+            internedChild = this.intern(children.get(index));
+            if (internedChildren == null && internedChild != children.get(index)) {
+                internedChildren = new ArrayList<>(children.size());
+                internedChildren.addAll(children.subList(0, index));
+            }
+            if (internedChildren != null) {
+                internedChildren.add(internedChild);
+            }
+        }
+        interned = (internedChildren != null) ? widget.withChildren(internedChildren) : widget;
+
+        candidates = this.sharedWidgets.computeIfAbsent(interned.getStructuralHash(),
+            (Long hash) -> new ArrayList<>(1));
+        shared = null;
+        for (Widget candidate : candidates) {
+            if (candidate.isEquivalentTo(interned)) {
+                shared = candidate;
+                break;
+            }
+        }
+
+        if (shared == null) {
+            candidates.add(interned);
+            shared = interned;
+        }
+        this.internedWidgets.put(widget, shared);
+        return shared;
+    }
+
+    // Reporting methods
+
+    /**
+     * Returns the number of distinct widget instances in the subtree rooted at the parameter
+     * widget, including the widget itself, counting shared instances once.
+     *
+     * @param root <code>Widget</code>
+     * @return <code>int</code>
+     */
+    protected static int countInstances(Widget root) {
+
+        // Declarations
+        Set<Widget> instances;
+        ArrayDeque<Widget> pending;
+        Widget widget;
+
+        instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            widget = pending.pop();
+            if (instances.add(widget)) {
+                for (Widget child : widget.getChildren()) {
+                    pending.push(child);
+                }
+            }
+        }
+        return instances.size();
+    }
+
+    /**
+     * This method parses the parameter file and prints the number of widget instances and the
+     * heap retained by its tree, first as parsed and then once interned. Retained heap is measured
+     * as the heap in use after garbage collection less that in use once the tree is released, so
+     * should be read as an estimate, though one that is reliable for the large files on which
+     * interning matters.
+     *
+     * @param fileName <code>String</code>
+     * @return <code>int</code> exit status, <code>2</code> if the file is malformed
+     * @throws IOException if the file cannot be read
+     */
+    protected static int runHeapReport(String fileName) throws IOException {
+
+        // Declarations
+        RecursiveDescentParser parser;
+        ParseResult result;
+        WidgetInterner interner;
+        Widget root;
+        long baseline, parsedHeap, internedHeap;
+        int parsedInstances, internedInstances;
+
+        parser = new RecursiveDescentParser();
+        parser.setInterning(false);
+        parser.setSourceFile(new File(fileName));
+        try (InputStream inputContents = SpecInput.open(new File(fileName))) {
+            result = parser.parseInputStream(inputContents);
+        }
+        parser = null; // Release the tokens, leaving only the tree
+
+        if (!result.isSuccessful()) {
+            System.err.println(fileName + ": " + result.getErrorMessage());
+            return 2;
+        }
+
+        root = result.getWindowWidget();
+        result = null;
+        parsedInstances = countInstances(root);
+        parsedHeap = getUsedHeap();
+
+        interner = new WidgetInterner();
+        root = interner.intern(root);
+        interner = null; // Release the interning tables, leaving only the tree
+        internedInstances = countInstances(root);
+        internedHeap = getUsedHeap();
+        Reference.reachabilityFence(root); // Otherwise collectable, as unused hereafter
+
+        // Measured last, such that caches filled by parsing are not counted against the tree
+        root = null;
+        baseline = getUsedHeap();
+        parsedHeap -= baseline;
+        internedHeap -= baseline;
+
+        System.out.printf("Parsed:   %,d widgets, %,d KB retained%n", parsedInstances,
+            parsedHeap / 1024);
+        System.out.printf("Interned: %,d widgets, %,d KB retained (%.1f%% saved)%n",
+            internedInstances, internedHeap / 1024,
+            (parsedHeap > 0) ? 100.0 * (parsedHeap - internedHeap) / parsedHeap : 0.0);
+        return 0;
+    }
+
+    // Helper methods
+
+    /**
+     * Returns the bytes of heap in use once garbage has been collected, taking the least of several
+     * collections as a single collection may leave behind garbage made by the previous reading.
+     *
+     * @return <code>long</code>
+     */
+    private static long getUsedHeap() {
+
+        // Declarations
+        MemoryMXBean memoryBean;
+        long used;
+
+        memoryBean = ManagementFactory.getMemoryMXBean();
+        used = Long.MAX_VALUE;
+        for (int collection = 0; collection < 5; collection++) {
+            memoryBean.gc();
+            used = Math.min(used, memoryBean.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
\ No newline at end of file